@@ -0,0 +1,348 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.processor;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.annotation.Stateful;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatUtil;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.codec.CodecWriter;
+import com.ancientprogramming.fixedformat4j.format.codec.FieldModel;
+import com.ancientprogramming.fixedformat4j.format.codec.RecordModel;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+
+/**
+ * Generates a {@link com.ancientprogramming.fixedformat4j.format.codec.RecordCodec} for each class annotated with
+ * @{@link Record}. The codec is picked up by the <code>FixedFormatManagerImpl</code> at runtime and replaces the
+ * reflection based loading and exporting of the record.
+ * <p/>
+ * The processor reads the annotations the same way as the runtime does. Records the generated code can't handle are
+ * skipped with a note and are loaded and exported through reflection as before. That is inner classes, classes with
+ * type parameters, abstract classes, classes without an accessible default constructor and records referring to
+ * types not accessible from the package of the record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+@SupportedAnnotationTypes("com.ancientprogramming.fixedformat4j.annotation.Record")
+public class RecordCodecProcessor extends AbstractProcessor {
+
+  private static final Comparator<FieldModel> BY_OFFSET = new Comparator<FieldModel>() {
+    public int compare(FieldModel o1, FieldModel o2) {
+      return o1.getOffset() - o2.getOffset();
+    }
+  };
+
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(Record.class)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        continue;
+      }
+      TypeElement type = (TypeElement) element;
+      try {
+        RecordModel model = createModel(type);
+        writeCodec(type, model);
+      } catch (UnsupportedRecordException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, format("no codec generated for %s: %s", type.getQualifiedName(), e.getMessage()), type);
+      }
+    }
+    return false;
+  }
+
+  private void writeCodec(TypeElement type, RecordModel model) {
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(model.getQualifiedCodecName(), type);
+      Writer writer = file.openWriter();
+      try {
+        writer.write(CodecWriter.write(model, getClass().getName()));
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, format("could not write codec for %s: %s", type.getQualifiedName(), e.getMessage()), type);
+    }
+  }
+
+  private RecordModel createModel(TypeElement type) throws UnsupportedRecordException {
+    assertInstantiable(type);
+    Elements elements = processingEnv.getElementUtils();
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    String binaryName = elements.getBinaryName(type).toString();
+    String codecName = FixedFormatUtil.getCodecClassName(binaryName).substring(packageName.length() == 0 ? 0 : packageName.length() + 1);
+
+    List<ExecutableElement> methods = ElementFilter.methodsIn(elements.getAllMembers(type));
+    List<FieldModel> loadFields = new ArrayList<FieldModel>();
+    TreeMap<Integer, FieldModel> exportFields = new TreeMap<Integer, FieldModel>();
+    for (ExecutableElement method : methods) {
+      if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      Field fieldAnnotation = method.getAnnotation(Field.class);
+      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
+      if (fieldAnnotation != null) {
+        FieldModel field = createField(type, methods, method, fieldAnnotation);
+        loadFields.add(field);
+        exportFields.put(field.getOffset(), field);
+      } else if (fieldsAnnotation != null) {
+        Field[] fields = fieldsAnnotation.value();
+        if (fields.length == 0) {
+          throw new UnsupportedRecordException(format("%s contains no %s annotations", Fields.class.getName(), Field.class.getName()));
+        }
+        for (int i = 0; i < fields.length; i++) {
+          FieldModel field = createField(type, methods, method, fields[i]);
+          if (i == 0) {
+            loadFields.add(field);
+          }
+          exportFields.put(field.getOffset(), field);
+        }
+      }
+    }
+    Collections.sort(loadFields, BY_OFFSET);
+    Record record = type.getAnnotation(Record.class);
+    return new RecordModel(packageName, codecName, type.getQualifiedName().toString(), record.length(), record.paddingChar(), loadFields, new ArrayList<FieldModel>(exportFields.values()));
+  }
+
+  private void assertInstantiable(TypeElement type) throws UnsupportedRecordException {
+    if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+      throw new UnsupportedRecordException("local and anonymous classes are not supported");
+    }
+    if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+      throw new UnsupportedRecordException("inner classes are not supported");
+    }
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      throw new UnsupportedRecordException("the class is abstract");
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      throw new UnsupportedRecordException("classes with type parameters are not supported");
+    }
+    assertAccessible(type, type);
+    boolean defaultConstructor = false;
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        defaultConstructor = true;
+      }
+    }
+    if (!defaultConstructor) {
+      throw new UnsupportedRecordException("the class has no accessible default constructor");
+    }
+  }
+
+  private FieldModel createField(TypeElement record, List<ExecutableElement> methods, ExecutableElement getter, Field fieldAnnotation) throws UnsupportedRecordException {
+    Types types = processingEnv.getTypeUtils();
+    String getterName = getter.getSimpleName().toString();
+    String propertyName;
+    if (getterName.startsWith("get")) {
+      propertyName = getterName.substring(3);
+    } else if (getterName.startsWith("is")) {
+      propertyName = getterName.substring(2);
+    } else {
+      throw new UnsupportedRecordException(format("%s is not a getter. %s annotations must be placed on methods starting with 'get' or 'is'", getterName, Field.class.getName()));
+    }
+    if (!getter.getParameters().isEmpty()) {
+      throw new UnsupportedRecordException(format("%s takes parameters", getterName));
+    }
+    TypeMirror datatype = types.erasure(getter.getReturnType());
+    String typeName = typeName(record, datatype);
+    String boxedTypeName = datatype.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) datatype).getQualifiedName().toString() : typeName;
+
+    TypeElement datatypeElement = datatype.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(datatype) : null;
+    boolean nestedRecord = datatypeElement != null && datatypeElement.getAnnotation(Record.class) != null;
+    boolean recordValuePossible = datatypeElement != null && (nestedRecord || !datatypeElement.getModifiers().contains(Modifier.FINAL));
+
+    TypeElement formatter = formatterOf(fieldAnnotation);
+    assertAccessible(record, formatter);
+    String formatterTypeName = formatter.getQualifiedName().toString();
+    String formatterImplTypeName = formatterTypeName.equals(ByTypeFormatter.class.getName()) ? knownFormatterOf(boxedTypeName) : null;
+    boolean takesContext;
+    boolean stateful;
+    if (formatterImplTypeName != null) {
+      takesContext = false;
+      stateful = false;
+    } else {
+      if (formatter.getModifiers().contains(Modifier.ABSTRACT)) {
+        throw new UnsupportedRecordException(format("the formatter %s is abstract", formatterTypeName));
+      }
+      formatterImplTypeName = formatterTypeName;
+      takesContext = hasPublicConstructor(formatter, FormatContext.class.getName());
+      if (!takesContext && !hasPublicConstructor(formatter, null)) {
+        throw new UnsupportedRecordException(format("the formatter %s has no default constructor and no constructor with %s as argument", formatterTypeName, FormatContext.class.getName()));
+      }
+      stateful = formatter.getAnnotation(Stateful.class) != null;
+    }
+
+    String setterName = null;
+    for (ExecutableElement method : methods) {
+      if (method.getSimpleName().contentEquals("set" + propertyName) && method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)
+          && method.getParameters().size() == 1 && types.isSameType(types.erasure(method.getParameters().get(0).asType()), datatype)) {
+        setterName = method.getSimpleName().toString();
+      }
+    }
+
+    FormatInstructions instructions = new FormatInstructions(fieldAnnotation.length(), fieldAnnotation.align(), fieldAnnotation.paddingChar(),
+        getFixedFormatPatternData(getter.getAnnotation(FixedFormatPattern.class)),
+        getFixedFormatBooleanData(getter.getAnnotation(FixedFormatBoolean.class)),
+        getFixedFormatNumberData(getter.getAnnotation(FixedFormatNumber.class)),
+        getFixedFormatDecimalData(getter.getAnnotation(FixedFormatDecimal.class)));
+    return new FieldModel(getterName, setterName, typeName, boxedTypeName, fieldAnnotation.offset(), instructions, formatterTypeName, formatterImplTypeName, takesContext, stateful, nestedRecord, recordValuePossible);
+  }
+
+  private String typeName(TypeElement record, TypeMirror type) throws UnsupportedRecordException {
+    if (type.getKind().isPrimitive()) {
+      return type.toString();
+    } else if (type.getKind() == TypeKind.ARRAY) {
+      throw new UnsupportedRecordException("array datatypes are not supported");
+    } else if (type.getKind() != TypeKind.DECLARED) {
+      throw new UnsupportedRecordException(format("the datatype %s is not supported", type));
+    }
+    TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(type);
+    assertAccessible(record, element);
+    return element.getQualifiedName().toString();
+  }
+
+  /**
+   * The formatter the {@link ByTypeFormatter} uses for the datatype. Primitives share the formatter of their wrapper.
+   *
+   * @return the class name of the formatter or <code>null</code> if the datatype isn't a known standard library type
+   */
+  private static String knownFormatterOf(String typeName) {
+    try {
+      FixedFormatter formatter = ByTypeFormatter.getKnownFormatter(Class.forName(typeName, false, RecordCodecProcessor.class.getClassLoader()));
+      return formatter != null ? formatter.getClass().getName() : null;
+    } catch (ClassNotFoundException e) {
+      //a type being compiled, ex. a nested record
+      return null;
+    } catch (LinkageError e) {
+      return null;
+    }
+  }
+
+  private TypeElement formatterOf(Field fieldAnnotation) {
+    TypeMirror formatter;
+    try {
+      return processingEnv.getElementUtils().getTypeElement(fieldAnnotation.formatter().getCanonicalName());
+    } catch (MirroredTypeException e) {
+      formatter = e.getTypeMirror();
+    }
+    return (TypeElement) processingEnv.getTypeUtils().asElement(formatter);
+  }
+
+  private boolean hasPublicConstructor(TypeElement type, String parameterType) {
+    Types types = processingEnv.getTypeUtils();
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (!constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        continue;
+      }
+      List<? extends VariableElement> parameters = constructor.getParameters();
+      if (parameterType == null && parameters.isEmpty()) {
+        return true;
+      }
+      if (parameterType != null && parameters.size() == 1) {
+        Element parameter = types.asElement(types.erasure(parameters.get(0).asType()));
+        if (parameter instanceof TypeElement && ((TypeElement) parameter).getQualifiedName().contentEquals(parameterType)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The codec is placed in the package of the record, so every type it refers to must be accessible from there.
+   */
+  private void assertAccessible(TypeElement record, TypeElement type) throws UnsupportedRecordException {
+    Elements elements = processingEnv.getElementUtils();
+    boolean samePackage = elements.getPackageOf(record).equals(elements.getPackageOf(type));
+    for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      Set<Modifier> modifiers = e.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE) || (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+        throw new UnsupportedRecordException(format("%s is not accessible from the package of the record", type.getQualifiedName()));
+      }
+    }
+  }
+
+  private static FixedFormatPatternData getFixedFormatPatternData(FixedFormatPattern annotation) {
+    return annotation != null ? new FixedFormatPatternData(annotation.value()) : FixedFormatPatternData.DEFAULT;
+  }
+
+  private static FixedFormatBooleanData getFixedFormatBooleanData(FixedFormatBoolean annotation) {
+    return annotation != null ? new FixedFormatBooleanData(annotation.trueValue(), annotation.falseValue()) : FixedFormatBooleanData.DEFAULT;
+  }
+
+  private static FixedFormatNumberData getFixedFormatNumberData(FixedFormatNumber annotation) {
+    return annotation != null ? new FixedFormatNumberData(annotation.sign(), annotation.positiveSign(), annotation.negativeSign()) : FixedFormatNumberData.DEFAULT;
+  }
+
+  private static FixedFormatDecimalData getFixedFormatDecimalData(FixedFormatDecimal annotation) {
+    return annotation != null ? new FixedFormatDecimalData(annotation.decimals(), annotation.useDecimalDelimiter(), annotation.decimalDelimiter(), RoundingMode.valueOf(annotation.roundingMode())) : FixedFormatDecimalData.DEFAULT;
+  }
+
+  /**
+   * Thrown when no codec can be generated for a record.
+   */
+  private static class UnsupportedRecordException extends Exception {
+    UnsupportedRecordException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.processor;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Record compiled with the processor. A codec is generated for it and for the nested record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+@Record(length = 60)
+public class CodecRecord {
+
+  private String stringData;
+  private int intData;
+  private Integer integerData;
+  private Date dateData;
+  private BigDecimal bigDecimalData;
+  private boolean booleanData;
+  private Long longData;
+  private Nested nested;
+  private String quoted;
+
+  @Fields({@Field(offset = 1, length = 10), @Field(offset = 50, length = 3)})
+  public String getStringData() {
+    return stringData;
+  }
+
+  public void setStringData(String stringData) {
+    this.stringData = stringData;
+  }
+
+  @Field(offset = 11, length = 5, align = Align.RIGHT, paddingChar = '0')
+  public int getIntData() {
+    return intData;
+  }
+
+  public void setIntData(int intData) {
+    this.intData = intData;
+  }
+
+  @Field(offset = 16, length = 4, align = Align.RIGHT, paddingChar = '0')
+  public Integer getIntegerData() {
+    return integerData;
+  }
+
+  public void setIntegerData(Integer integerData) {
+    this.integerData = integerData;
+  }
+
+  @Field(offset = 20, length = 8)
+  @FixedFormatPattern("yyyyMMdd")
+  public Date getDateData() {
+    return dateData;
+  }
+
+  public void setDateData(Date dateData) {
+    this.dateData = dateData;
+  }
+
+  @Field(offset = 28, length = 8, align = Align.RIGHT, paddingChar = '0')
+  @FixedFormatDecimal(decimals = 3)
+  public BigDecimal getBigDecimalData() {
+    return bigDecimalData;
+  }
+
+  public void setBigDecimalData(BigDecimal bigDecimalData) {
+    this.bigDecimalData = bigDecimalData;
+  }
+
+  @Field(offset = 36, length = 1)
+  @FixedFormatBoolean(trueValue = "Y", falseValue = "N")
+  public boolean isBooleanData() {
+    return booleanData;
+  }
+
+  public void setBooleanData(boolean booleanData) {
+    this.booleanData = booleanData;
+  }
+
+  @Field(offset = 37, length = 5, align = Align.RIGHT, paddingChar = '0')
+  @FixedFormatNumber(sign = Sign.PREPEND)
+  public Long getLongData() {
+    return longData;
+  }
+
+  public void setLongData(Long longData) {
+    this.longData = longData;
+  }
+
+  @Field(offset = 42, length = 4)
+  public Nested getNested() {
+    return nested;
+  }
+
+  public void setNested(Nested nested) {
+    this.nested = nested;
+  }
+
+  @Field(offset = 46, length = 4, paddingChar = '\'')
+  public String getQuoted() {
+    return quoted;
+  }
+
+  public void setQuoted(String quoted) {
+    this.quoted = quoted;
+  }
+
+  @Record
+  public static class Nested {
+
+    private String value;
+
+    public Nested() {
+    }
+
+    public Nested(String value) {
+      this.value = value;
+    }
+
+    @Field(offset = 1, length = 4)
+    public String getValue() {
+      return value;
+    }
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+  }
+
+  @Record
+  public class InnerRecord {
+
+    private String value;
+
+    @Field(offset = 1, length = 4)
+    public String getValue() {
+      return value;
+    }
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.processor;
+
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+import com.ancientprogramming.fixedformat4j.format.codec.RecordCodec;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+/**
+ * Tests the codecs generated for the records in the test sources.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestRecordCodecProcessor extends TestCase {
+
+  private static final String DATA = "some text 0004201232008123100012345N+0042nest''''som        ";
+
+  private FixedFormatManagerImpl manager = new FixedFormatManagerImpl();
+
+  public void testCodecIsGenerated() {
+    RecordCodec<CodecRecord> codec = manager.getRecordCodec(CodecRecord.class);
+    assertNotNull(codec);
+    assertEquals(CodecRecord.class.getName() + "Codec", codec.getClass().getName());
+    assertEquals(CodecRecord.class, codec.getRecordClass());
+    assertNotNull(manager.getRecordCodec(CodecRecord.Nested.class));
+  }
+
+  public void testInnerClassHasNoCodec() {
+    assertNull(manager.getRecordCodec(CodecRecord.InnerRecord.class));
+    CodecRecord.InnerRecord record = new CodecRecord().new InnerRecord();
+    record.setValue("abc");
+    assertEquals("abc ", manager.export(record));
+  }
+
+  public void testLoad() {
+    CodecRecord record = manager.load(CodecRecord.class, DATA);
+    assertEquals("some text", record.getStringData());
+    assertEquals(42, record.getIntData());
+    assertEquals(new Integer(123), record.getIntegerData());
+    assertEquals(new GregorianCalendar(2008, Calendar.DECEMBER, 31).getTime(), record.getDateData());
+    assertEquals(new BigDecimal("12.345"), record.getBigDecimalData());
+    assertFalse(record.isBooleanData());
+    assertEquals(new Long(42), record.getLongData());
+    assertEquals("nest", record.getNested().getValue());
+    assertEquals("", record.getQuoted());
+  }
+
+  public void testLoadShortRecord() {
+    CodecRecord record = manager.load(CodecRecord.class, DATA.substring(0, 41));
+    assertEquals(new Long(42), record.getLongData());
+    assertNull(record.getNested());
+    assertNull(record.getQuoted());
+  }
+
+  public void testExport() {
+    CodecRecord record = new CodecRecord();
+    record.setStringData("some text");
+    record.setIntData(42);
+    record.setIntegerData(123);
+    record.setDateData(new GregorianCalendar(2008, Calendar.DECEMBER, 31).getTime());
+    record.setBigDecimalData(new BigDecimal("12.345"));
+    record.setBooleanData(false);
+    record.setLongData(42L);
+    record.setNested(new CodecRecord.Nested("nest"));
+    record.setQuoted("");
+    String exported = manager.export(record);
+    assertEquals(60, exported.length());
+    assertEquals(DATA, exported);
+    assertEquals(exported, manager.export(manager.load(CodecRecord.class, exported)));
+  }
+
+  public void testExportOnTemplate() {
+    assertEquals("abcd", manager.export("xyz", new CodecRecord.Nested("abcd")));
+    assertEquals("ab  xyz", manager.export("1234xyz", new CodecRecord.Nested("ab")));
+  }
+
+  public void testParseFailure() {
+    try {
+      manager.load(CodecRecord.class, "some text 000x2");
+      fail(String.format("expected an %s exception to be thrown", ParseException.class.getName()));
+    } catch (ParseException e) {
+      assertEquals("getIntData", e.getAnnotatedMethod().getName());
+      assertEquals("000x2", e.getFailedText());
+    }
+  }
+}
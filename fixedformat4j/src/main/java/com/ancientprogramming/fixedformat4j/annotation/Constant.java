@@ -0,0 +1,66 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes a constant part of a record, like a record type code, a version marker or a filler region.
+ * <p/>
+ * Constants are written into the record image the fixedFormatManager prepares once per record class, so they cost
+ * nothing when exporting. Fields exported at the same offset overwrite the constant. Constants are ignored when loading.
+ * <p/>
+ * A filler is a constant without a value, ex. <code>@Constant(offset = 20, length = 30, paddingChar = '0')</code>.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Constant {
+
+  /**
+   * A one based offset to insert the constant at in a record.
+   * @return the offset as an int
+   */
+  int offset();
+
+  /**
+   * The constant data.
+   * @return the constant data. Defaults to an empty string
+   */
+  String value() default "";
+
+  /**
+   * The length of the constant.
+   * @return the length as an int. -1 means the length of the value.
+   */
+  int length() default -1;
+
+  /**
+   * @return The direction of the padding. Defaults to {@link Align#LEFT}.
+   */
+  Align align() default Align.LEFT;
+
+  /**
+   * The character to pad with if the length is longer than the value
+   * @return the padding character
+   */
+  char paddingChar() default ' ';
+}
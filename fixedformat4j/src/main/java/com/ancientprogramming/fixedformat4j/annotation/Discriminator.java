@@ -0,0 +1,48 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The type code telling a record apart from the other kinds of records in the same file, ex. a header, detail and
+ * trailer record told apart by the first char of each line.
+ * <p/>
+ * A {@link com.ancientprogramming.fixedformat4j.format.RecordDispatcher} routes each line to the record class with the
+ * matching code. The code is written into the record when it is exported, like a @{@link Constant}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Discriminator {
+
+  /**
+   * A one based offset of the type code in a record.
+   * @return the offset as an int
+   */
+  int offset();
+
+  /**
+   * The type code. Its length is the length of the discriminator.
+   * @return the type code
+   */
+  String value();
+}
@@ -13,15 +13,29 @@ import org.apache.commons.logging.LogFactory;
 import com.ancientprogramming.fixedformat4j.annotation.Align;
 import com.ancientprogramming.fixedformat4j.annotation.Field;
 import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import com.ancientprogramming.fixedformat4j.format.impl.FieldLayout;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.RecordLayout;
 
 /**
  * A FixedFormatFieldConfigurer defines the modifications to make to the fixed format annotations for a single property of a class.
- * The property name (fieldName) is required and the targetClass is also required.
+ * The property name (fieldName) is required.
  * 
- * Note that the use of this class is <b>not thread safe</b> because it manipulates annotations on a class
- * and not an instance of a class.  So you can only manipulate the class in series.
+ * Use <i>applyTo(layout)</i> to get a copy of a {@link RecordLayout} with the modifications and register it with a
+ * {@link FixedFormatManagerImpl}. The annotations are left untouched, so other managers can use other modifications of
+ * the same class at the same time:
+ * <pre>
+ * RecordLayout&lt;BasicRecord&gt; layout = FixedFormatFieldConfigurer.forField("integerData").offset(25).length(10)
+ *     .applyTo(manager.getRecordLayout(BasicRecord.class));
+ * manager.registerRecordLayout(layout);
+ * </pre>
  * 
- * After changing the values of annotations with this class and using the modified 
+ * The deprecated <i>apply()</i> changes the annotations themselves and requires the targetClass. That use is
+ * <b>not thread safe</b> because it manipulates annotations on a class and not an instance of a class.
+ * After changing the values of annotations with <i>apply()</i> and using the modified
  * annotations, use <i>reset()</i> to put the values back to what
  * they were before you started meddling with them.
  * 
@@ -224,10 +238,49 @@ public class FixedFormatFieldConfigurer {
 
   private List<AnnotationConfigurator> annotationConfigurators = new ArrayList<AnnotationConfigurator>();
   
+  /**
+   * Create a copy of the layout with the changes applied to the field. Neither the layout nor the annotations are
+   * changed. Configurers for other fields can be applied to the result.
+   * @param layout the layout to change, ex. from {@link FixedFormatManagerImpl#getRecordLayout(Class)}
+   * @return the changed layout
+   * @throws FixedFormatException if the field isn't loaded or exported by the layout
+   */
+  public <T> RecordLayout<T> applyTo(RecordLayout<T> layout) {
+    String propertyName = getFieldName().substring(0,1).toUpperCase() + getFieldName().substring(1);
+    FieldLayout field = findField(layout.getLoadFields(), propertyName);
+    if (field == null) {
+      field = findField(layout.getExportFields(), propertyName);
+    }
+    if (field == null) {
+      throw new FixedFormatException("No @Field annotated getter found for " + getFieldName() + " in " + layout.getRecordClass().getName());
+    }
+    Field values = new FieldValues(
+        getOffset() != null ? getOffset() : field.getOffset(),
+        getLength() != null ? getLength() : field.getLength(),
+        getAlignment() != null ? getAlignment() : field.getInstructions().getAlignment(),
+        getPaddingChar() != null ? getPaddingChar() : field.getInstructions().getPaddingChar(),
+        field.getContext().getFormatter());
+    FixedFormatPatternData patternData = getPattern() != null ? new FixedFormatPatternData(getPattern()) : field.getInstructions().getFixedFormatPatternData();
+    return layout.withField(field.getGetter(), values, patternData);
+  }
+
+  private static FieldLayout findField(List<FieldLayout> fields, String propertyName) {
+    for (FieldLayout candidate : fields) {
+      if (candidate.getPropertyName().equals(propertyName)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
   /**
    * Apply the changes to the properties of the annotations, saving the original values so they can be set back again.
+   * Managers that already used the class drop what they read from the annotations the next time they are used.
    * @return the receiver object (this).
+   * @deprecated changes the annotations for every user of the class and doesn't work on all JVMs.
+   * Use {@link #applyTo(RecordLayout)} instead.
    */
+  @Deprecated
   public FixedFormatFieldConfigurer apply() {
     if (getter == null) {
       throw new IllegalStateException("No class specified before apply() - try inClass()");
@@ -258,11 +311,21 @@ public class FixedFormatFieldConfigurer {
       }
     }
     annotationConfigurators.forEach(AnnotationConfigurator::applyChanges);
+    FixedFormatManagerImpl.annotationsChanged(getter.getDeclaringClass());
     return this;
   }
   
+  /**
+   * Put the annotation values changed by {@link #apply()} back.
+   * @return the receiver object (this).
+   * @deprecated use {@link #applyTo(RecordLayout)} which doesn't change the annotations.
+   */
+  @Deprecated
   public FixedFormatFieldConfigurer reset() {
     annotationConfigurators.forEach(AnnotationConfigurator::reset);
+    if (getter != null) {
+      FixedFormatManagerImpl.annotationsChanged(getter.getDeclaringClass());
+    }
     return this;
   }
 
@@ -300,4 +363,54 @@ public class FixedFormatFieldConfigurer {
     return w.toString();
     
   }
+
+  /**
+   * The values of a {@link Field} annotation used by {@link #applyTo(RecordLayout)}.
+   */
+  private static class FieldValues implements Field {
+
+    private final int offset;
+    private final int length;
+    private final Align align;
+    private final char paddingChar;
+    private final Class<? extends FixedFormatter> formatter;
+
+    FieldValues(int offset, int length, Align align, char paddingChar, Class<? extends FixedFormatter> formatter) {
+      this.offset = offset;
+      this.length = length;
+      this.align = align;
+      this.paddingChar = paddingChar;
+      this.formatter = formatter;
+    }
+
+    public int offset() {
+      return offset;
+    }
+
+    public int length() {
+      return length;
+    }
+
+    public Align align() {
+      return align;
+    }
+
+    public char paddingChar() {
+      return paddingChar;
+    }
+
+    public Class<? extends FixedFormatter> formatter() {
+      return formatter;
+    }
+
+    public Class<? extends Annotation> annotationType() {
+      return Field.class;
+    }
+
+    @Override
+    public String toString() {
+      return "@" + Field.class.getName() + "(offset=" + offset + ", length=" + length + ", align=" + align +
+          ", paddingChar=" + paddingChar + ", formatter=" + formatter.getName() + ")";
+    }
+  }
 }
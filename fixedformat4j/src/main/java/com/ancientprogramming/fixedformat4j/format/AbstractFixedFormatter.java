@@ -15,6 +15,10 @@
  */
 package com.ancientprogramming.fixedformat4j.format;
 
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+
+import java.nio.ByteBuffer;
+
 /**
  * Handles default formatting and parsing based on FixedFormatAnnotation values.
  *
@@ -41,6 +45,34 @@ public abstract class AbstractFixedFormatter<T> implements FixedFormatter<T> {
     return instructions.getAlignment().remove(value, instructions.getPaddingChar());
   }
 
+  /**
+   * Skips the padding chars at the start of the bytes of a field, if the field is aligned to the right.
+   * @param data the record
+   * @param from the index of the first byte of the field
+   * @param to the index after the last byte of the field
+   * @param charset the charset of the record
+   * @param instructions the instructions containing the alignment and padding char
+   * @return the index of the first byte after the padding
+   * @since 1.6.0
+   */
+  protected static int removePaddingStart(ByteBuffer data, int from, int to, SingleByteCharset charset, FormatInstructions instructions) {
+    return instructions.getAlignment() == Align.RIGHT ? charset.skipStart(data, from, to, instructions.getPaddingChar()) : from;
+  }
+
+  /**
+   * Skips the padding chars at the end of the bytes of a field, if the field is aligned to the left.
+   * @param data the record
+   * @param from the index of the first byte of the field
+   * @param to the index after the last byte of the field
+   * @param charset the charset of the record
+   * @param instructions the instructions containing the alignment and padding char
+   * @return the index after the last byte before the padding
+   * @since 1.6.0
+   */
+  protected static int removePaddingEnd(ByteBuffer data, int from, int to, SingleByteCharset charset, FormatInstructions instructions) {
+    return instructions.getAlignment() == Align.LEFT ? charset.skipEnd(data, from, to, instructions.getPaddingChar()) : to;
+  }
+
   public String format(T value, FormatInstructions instructions) {
     return instructions.getAlignment().apply(asString(value, instructions), instructions.getLength(), instructions.getPaddingChar());
   }
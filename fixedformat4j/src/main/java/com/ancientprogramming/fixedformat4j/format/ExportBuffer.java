@@ -0,0 +1,248 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * A char array a record is exported into.
+ * <p/>
+ * The array is presized to the expected length of the exported record, so the formatted fields are copied directly
+ * to their offset. Gaps in front of a field are filled with the padding char of the record.
+ * <p/>
+ * A buffer can be reused for many records. {@link #startRecord(char[], int)} starts a new record at the end of the
+ * buffer and the offsets of the fields are relative to the start of that record. {@link #clear()} empties the buffer.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public final class ExportBuffer implements CharSequence {
+
+  private static final char[] NO_CHARS = new char[0];
+
+  private char[] chars;
+  private int length;
+  //the index the record currently exported starts at
+  private int start;
+
+  /**
+   * Create an empty buffer. A record is started by {@link #startRecord(char[], int)} or
+   * {@link #startRecord(CharSequence, int)}.
+   *
+   * @param capacity the number of chars the buffer can hold before it grows
+   */
+  public ExportBuffer(int capacity) {
+    chars = capacity > 0 ? new char[capacity] : NO_CHARS;
+  }
+
+  /**
+   * @param template the data the record is merged on top of
+   * @param capacity the expected length of the exported record
+   */
+  public ExportBuffer(CharSequence template, int capacity) {
+    this(Math.max(capacity, template.length()));
+    startRecord(template, capacity);
+  }
+
+  /**
+   * @param image the prefilled record the exported fields are written on top of. It is copied, not modified
+   * @param capacity the expected length of the exported record
+   */
+  public ExportBuffer(char[] image, int capacity) {
+    this(Math.max(capacity, image.length));
+    startRecord(image, capacity);
+  }
+
+  /**
+   * Start a new record at the end of the buffer.
+   *
+   * @param template the data the record is merged on top of
+   * @param capacity the expected length of the exported record
+   */
+  public void startRecord(CharSequence template, int capacity) {
+    int templateLength = template.length();
+    start = length;
+    ensureCapacity(start + Math.max(capacity, templateLength));
+    if (template instanceof String) {
+      ((String) template).getChars(0, templateLength, chars, start);
+    } else {
+      for (int i = 0; i < templateLength; i++) {
+        chars[start + i] = template.charAt(i);
+      }
+    }
+    length = start + templateLength;
+  }
+
+  /**
+   * Start a new record at the end of the buffer.
+   *
+   * @param image the prefilled record the exported fields are written on top of. It is copied, not modified
+   * @param capacity the expected length of the exported record
+   */
+  public void startRecord(char[] image, int capacity) {
+    start = length;
+    ensureCapacity(start + Math.max(capacity, image.length));
+    System.arraycopy(image, 0, chars, start, image.length);
+    length = start + image.length;
+  }
+
+  /**
+   * @param offset the one based offset of a field in the current record
+   * @return the index of the field in the array returned by {@link #reserve(int, int, char)}
+   */
+  public int index(int offset) {
+    return start + offset - 1;
+  }
+
+  /**
+   * Write the data at the given offset replacing what was there.
+   *
+   * @param offset the one based offset to write the data at
+   * @param data the formatted data
+   * @param paddingChar the char used to fill the gap if the buffer is shorter than the offset
+   */
+  public void write(int offset, String data, char paddingChar) {
+    data.getChars(0, data.length(), reserve(offset, data.length(), paddingChar), index(offset));
+  }
+
+  /**
+   * Make room for a field the caller writes straight into the returned array. The field starts at index
+   * {@link #index(int)} and every char of it has to be written before the buffer is used again.
+   *
+   * @param offset the one based offset of the field
+   * @param fieldLength the number of chars in the field
+   * @param paddingChar the char used to fill the gap if the buffer is shorter than the offset
+   * @return the array backing the buffer. Only valid until the buffer is written to again
+   */
+  public char[] reserve(int offset, int fieldLength, char paddingChar) {
+    int fieldStart = index(offset);
+    int end = fieldStart + fieldLength;
+    ensureCapacity(end);
+    if (length < fieldStart) {
+      Arrays.fill(chars, length, fieldStart, paddingChar);
+      length = fieldStart;
+    }
+    if (length < end) {
+      length = end;
+    }
+    return chars;
+  }
+
+  /**
+   * Pad the current record to the given length.
+   *
+   * @param recordLength the length to pad to. Nothing is done if the record is longer
+   * @param paddingChar the char to pad with
+   */
+  public void pad(int recordLength, char paddingChar) {
+    int end = start + recordLength;
+    if (length < end) {
+      ensureCapacity(end);
+      Arrays.fill(chars, length, end, paddingChar);
+      length = end;
+    }
+  }
+
+  /**
+   * Append the chars after the current record. Ex. a line terminator.
+   *
+   * @param data the chars to append
+   */
+  public void append(String data) {
+    ensureCapacity(length + data.length());
+    data.getChars(0, data.length(), chars, length);
+    length += data.length();
+  }
+
+  /**
+   * Drop the chars after the given length. Ex. the part of a record whose export failed.
+   *
+   * @param length the length to cut the buffer to. Nothing is done if the buffer is shorter
+   */
+  public void truncate(int length) {
+    if (length < this.length) {
+      this.length = length;
+      start = Math.min(start, length);
+    }
+  }
+
+  /**
+   * Empty the buffer, keeping its array for the next records.
+   */
+  public void clear() {
+    length = 0;
+    start = 0;
+  }
+
+  /**
+   * @return a char buffer over the content of the buffer, sharing its array. Only valid until the buffer is written to
+   * again and mustn't be changed
+   */
+  public CharBuffer asCharBuffer() {
+    return CharBuffer.wrap(chars, 0, length);
+  }
+
+  /**
+   * Append the content of the buffer to the sink without creating a string.
+   *
+   * @param sink the appendable to append to
+   * @throws IOException if the sink throws it
+   */
+  public void appendTo(Appendable sink) throws IOException {
+    if (sink instanceof StringBuilder) {
+      ((StringBuilder) sink).append(chars, 0, length);
+    } else if (sink instanceof StringBuffer) {
+      ((StringBuffer) sink).append(chars, 0, length);
+    } else if (sink instanceof Writer) {
+      ((Writer) sink).write(chars, 0, length);
+    } else if (sink instanceof CharBuffer) {
+      ((CharBuffer) sink).put(chars, 0, length);
+    } else {
+      sink.append(CharBuffer.wrap(chars, 0, length));
+    }
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public char charAt(int index) {
+    if (index >= length) {
+      throw new IndexOutOfBoundsException("index " + index + " is outside the length " + length);
+    }
+    return chars[index];
+  }
+
+  public CharSequence subSequence(int start, int end) {
+    if (end > length) {
+      throw new IndexOutOfBoundsException("end " + end + " is outside the length " + length);
+    }
+    return new String(chars, start, end - start);
+  }
+
+  public String toString() {
+    return new String(chars, 0, length);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (chars.length < capacity) {
+      chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+    }
+  }
+}
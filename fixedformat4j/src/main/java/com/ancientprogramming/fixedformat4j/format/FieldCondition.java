@@ -0,0 +1,114 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A condition on the value of one field of a record used by a {@link RecordFilter}.
+ * <p/>
+ * Equality, set membership and prefixes are checked on the raw chars of the field, by comparing them with the values
+ * formatted the way the field is exported. Values longer than the field can't be held by a record and never match.
+ * Ranges parse the field, but only that field.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public final class FieldCondition {
+
+  /**
+   * The kind of condition.
+   */
+  public enum Kind {
+    /**
+     * The field equals one of the values.
+     */
+    IN,
+    /**
+     * The field is between the two values, both inclusive.
+     */
+    BETWEEN,
+    /**
+     * The field, without padding, starts with the value.
+     */
+    STARTS_WITH
+  }
+
+  private final Kind kind;
+  private final List<Object> values;
+
+  private FieldCondition(Kind kind, List<Object> values) {
+    this.kind = kind;
+    this.values = Collections.unmodifiableList(values);
+  }
+
+  /**
+   * @param value the value the field has to equal. Formatted by the formatter of the field before comparing
+   * @return the condition
+   */
+  public static FieldCondition equalTo(Object value) {
+    return new FieldCondition(Kind.IN, Collections.singletonList(value));
+  }
+
+  /**
+   * @param values the values the field has to equal one of. Formatted by the formatter of the field before comparing
+   * @return the condition
+   */
+  public static FieldCondition in(Object... values) {
+    return in(Arrays.asList(values));
+  }
+
+  /**
+   * @param values the values the field has to equal one of. Formatted by the formatter of the field before comparing
+   * @return the condition
+   */
+  public static FieldCondition in(Collection<?> values) {
+    return new FieldCondition(Kind.IN, new ArrayList<Object>(values));
+  }
+
+  /**
+   * @param from the lowest value included or <code>null</code> for no lower bound
+   * @param to the highest value included or <code>null</code> for no upper bound
+   * @return the condition. Fields that are empty don't match
+   */
+  public static <C extends Comparable<? super C>> FieldCondition between(C from, C to) {
+    return new FieldCondition(Kind.BETWEEN, Arrays.<Object>asList(from, to));
+  }
+
+  /**
+   * @param prefix the chars the field has to start with once the padding is removed
+   * @return the condition
+   */
+  public static FieldCondition startsWith(String prefix) {
+    return new FieldCondition(Kind.STARTS_WITH, Collections.<Object>singletonList(prefix));
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public List<Object> getValues() {
+    return values;
+  }
+
+  public String toString() {
+    return "FieldCondition{" + kind + " " + values + '}';
+  }
+}
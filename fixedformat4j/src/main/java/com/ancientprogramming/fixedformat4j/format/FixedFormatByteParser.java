@@ -0,0 +1,44 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by formatters that can parse a field straight from the bytes of a record in a {@link SingleByteCharset}
+ * without decoding the field into a string first.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public interface FixedFormatByteParser<T> {
+
+  /**
+   * Parses the bytes of the field. Gives the same result as {@link FixedFormatter#parse(String, FormatInstructions)}
+   * of the decoded field.
+   *
+   * @param data the record. The position of the buffer isn't changed
+   * @param offset the absolute index of the first byte of the field
+   * @param length the number of bytes of the field. Shorter than the instructions tells if the record is short
+   * @param charset the charset of the record
+   * @param instructions contains the instructions telling how to parse the value
+   * @return the parsed value
+   * @throws FixedFormatException if the value could not be parsed according to the instructions
+   */
+  T parse(ByteBuffer data, int offset, int length, SingleByteCharset charset, FormatInstructions instructions) throws FixedFormatException;
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+/**
+ * Implemented by formatters that can parse a field straight from a range of the record chars without copying the
+ * field into a string first.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public interface FixedFormatCharParser<T> {
+
+  /**
+   * Parses the chars of the field. Gives the same result as {@link FixedFormatter#parse(String, FormatInstructions)}
+   * of the field as a string.
+   *
+   * @param data the chars holding the record
+   * @param start the index of the first char of the field
+   * @param end the index after the last char of the field. Closer to the start than the instructions tells if the
+   * record is short
+   * @param instructions contains the instructions telling how to parse the value
+   * @return the parsed value
+   * @throws FixedFormatException if the value could not be parsed according to the instructions
+   */
+  T parse(CharSequence data, int start, int end, FormatInstructions instructions) throws FixedFormatException;
+}
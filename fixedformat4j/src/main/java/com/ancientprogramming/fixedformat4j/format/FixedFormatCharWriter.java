@@ -0,0 +1,40 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+/**
+ * Implemented by formatters that can format a field straight into the chars of the exported record without creating
+ * a string for the field first.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public interface FixedFormatCharWriter<T> {
+
+  /**
+   * Formats the value into the chars of the field. Writes the same chars as
+   * {@link FixedFormatter#format(Object, FormatInstructions)} returns.
+   *
+   * @param value the object to format
+   * @param instructions contains the instructions telling how to format the value. Has a length of at least one
+   * @param target the chars holding the record
+   * @param start the index of the first char of the field. Room is made for the length of the field
+   * @throws FixedFormatException if the value could not be formatted according to the instructions
+   */
+  void format(T value, FormatInstructions instructions, char[] target, int start) throws FixedFormatException;
+}
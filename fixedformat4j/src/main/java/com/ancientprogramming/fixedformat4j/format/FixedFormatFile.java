@@ -0,0 +1,366 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+
+/**
+ * Random access to a file of fixed length records.
+ * <p/>
+ * The file is memory mapped, so looking up a record only reads the bytes of that record. Record <code>i</code> starts
+ * at byte <code>i * (length + separatorLength)</code> where the length is {@link Record#length()} and the separator is
+ * a fixed width line terminator, if any. This requires a charset encoding every char in one byte, ex. ISO-8859-1 or an
+ * EBCDIC charset like Cp1047. Large files are mapped in segments of whole records. Records are loaded straight from
+ * the mapped bytes through {@link FixedFormatManager#load(Class, ByteBuffer, int, int, SingleByteCharset)}.
+ * <p/>
+ * The records can be streamed in parallel, as the {@link #spliterator()} splits the file on record boundaries.
+ * A {@link RecordFilter} is checked on the mapped bytes, so records are only loaded if they match.
+ * The file is thread safe. Errors reading the file are thrown as {@link FixedFormatException}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FixedFormatFile<T> implements Closeable {
+
+  private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final SingleByteCharset charset;
+  private final FileChannel channel;
+  private final int recordLength;
+  private final int stride;
+  private final long size;
+  private final long recordsPerSegment;
+  private final MappedByteBuffer[] segments;
+
+  /**
+   * Opens a file of records without separators.
+   *
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class with a fixed length
+   * @param file the file to open
+   * @param charset a single byte charset
+   * @throws FixedFormatException if the file couldn't be mapped or doesn't contain whole records
+   */
+  public FixedFormatFile(FixedFormatManager manager, Class<T> recordClass, Path file, Charset charset) {
+    this(manager, recordClass, file, charset, 0);
+  }
+
+  /**
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class with a fixed length
+   * @param file the file to open
+   * @param charset a single byte charset
+   * @param separatorLength the number of bytes between records. Ex. 1 for <code>\n</code> or 2 for <code>\r\n</code>
+   * @throws FixedFormatException if the file couldn't be mapped or doesn't contain whole records
+   */
+  public FixedFormatFile(FixedFormatManager manager, Class<T> recordClass, Path file, Charset charset, int separatorLength) {
+    this(manager, recordClass, file, charset, separatorLength, MAX_SEGMENT_SIZE);
+  }
+
+  FixedFormatFile(FixedFormatManager manager, Class<T> recordClass, Path file, Charset charset, int separatorLength, long maxSegmentSize) {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.charset = SingleByteCharset.forCharset(charset);
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", recordClass.getName()));
+    }
+    if (record.length() < 1) {
+      throw new FixedFormatException(format("%s has no fixed length and can't be read by position", recordClass.getName()));
+    }
+    if (separatorLength < 0) {
+      throw new FixedFormatException(format("invalid separator length %s", separatorLength));
+    }
+    this.recordLength = record.length();
+    this.stride = recordLength + separatorLength;
+    this.recordsPerSegment = Math.max(1, maxSegmentSize / stride);
+
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not open %s", file), e);
+    }
+    try {
+      long fileSize = channel.size();
+      //the last record may be without separator
+      long records = (fileSize + separatorLength) / stride;
+      if (records * stride - separatorLength != fileSize && records * stride != fileSize) {
+        throw new FixedFormatException(format("%s is %s bytes which isn't a whole number of %s byte records", file, fileSize, stride));
+      }
+      this.size = records;
+      int segmentCount = (int) ((records + recordsPerSegment - 1) / recordsPerSegment);
+      segments = new MappedByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long start = i * recordsPerSegment * stride;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(recordsPerSegment * stride, fileSize - start));
+      }
+    } catch (IOException e) {
+      closeQuietly();
+      throw new FixedFormatException(format("could not map %s", file), e);
+    } catch (RuntimeException e) {
+      closeQuietly();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of records in the file
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Load the record at the given index.
+   *
+   * @param index the zero based index of the record
+   * @return the record
+   * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}
+   * @throws FixedFormatException if the record couldn't be loaded
+   */
+  public T get(long index) {
+    checkIndex(index);
+    return manager.load(recordClass, segments[(int) (index / recordsPerSegment)], recordPosition(index), recordLength, charset);
+  }
+
+  /**
+   * The data of the record at the given index without loading it.
+   *
+   * @param index the zero based index of the record
+   * @return the record as a string
+   * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}
+   */
+  public String getData(long index) {
+    checkIndex(index);
+    return charset.decode(segments[(int) (index / recordsPerSegment)], recordPosition(index), recordLength);
+  }
+
+  private void checkFilter(RecordFilter<?> filter) {
+    if (!filter.getRecordClass().isAssignableFrom(recordClass)) {
+      throw new FixedFormatException(format("a filter for %s can't be checked on %s records", filter.getRecordClass().getName(), recordClass.getName()));
+    }
+  }
+
+  private void checkIndex(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(format("index %s is outside the %s records", index, size));
+    }
+  }
+
+  /**
+   * @return the position of the record in its segment
+   */
+  private int recordPosition(long index) {
+    return (int) (index % recordsPerSegment) * stride;
+  }
+
+  /**
+   * The records in the given range in index order. Call {@link Stream#parallel()} to load them on all cores.
+   *
+   * @param fromIndex the index of the first record, inclusive
+   * @param toIndex the index of the last record, exclusive
+   * @return a stream of the records
+   * @throws IndexOutOfBoundsException if the range is outside the file
+   */
+  public Stream<T> stream(long fromIndex, long toIndex) {
+    return StreamSupport.stream(spliterator(fromIndex, toIndex), false);
+  }
+
+  /**
+   * @return all records in the file in index order
+   */
+  public Stream<T> stream() {
+    return stream(0, size);
+  }
+
+  /**
+   * Check the record at the given index against the filter without loading it.
+   *
+   * @param index the zero based index of the record
+   * @param filter the conditions checked on the raw record
+   * @return <code>true</code> if the record matches
+   * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public boolean matches(long index, RecordFilter<?> filter) {
+    checkIndex(index);
+    checkFilter(filter);
+    return filter.matches(segments[(int) (index / recordsPerSegment)], recordPosition(index), recordLength, charset);
+  }
+
+  /**
+   * Count the records matching the filter. No records are loaded.
+   *
+   * @param filter the conditions checked on the raw records
+   * @return the number of matching records
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public long count(RecordFilter<?> filter) {
+    checkFilter(filter);
+    long count = 0;
+    for (long index = 0; index < size; index++) {
+      if (matches(index, filter)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Find the first record matching the filter. No records are loaded.
+   *
+   * @param filter the conditions checked on the raw records
+   * @return the index of the first matching record or -1 if no record matches
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public long indexOf(RecordFilter<?> filter) {
+    checkFilter(filter);
+    for (long index = 0; index < size; index++) {
+      if (matches(index, filter)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The records matching the filter in index order. Only the matching records are loaded. Call
+   * {@link Stream#parallel()} to check and load them on all cores.
+   *
+   * @param filter the conditions checked on the raw records
+   * @return a stream of the matching records
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public Stream<T> stream(final RecordFilter<?> filter) {
+    checkFilter(filter);
+    return LongStream.range(0, size).filter(new LongPredicate() {
+      public boolean test(long index) {
+        return matches(index, filter);
+      }
+    }).mapToObj(new LongFunction<T>() {
+      public T apply(long index) {
+        return get(index);
+      }
+    });
+  }
+
+  /**
+   * A spliterator over the records in the given range. It splits the range in halves on record boundaries.
+   *
+   * @param fromIndex the index of the first record, inclusive
+   * @param toIndex the index of the last record, exclusive
+   * @return a spliterator over the records
+   * @throws IndexOutOfBoundsException if the range is outside the file
+   */
+  public Spliterator<T> spliterator(long fromIndex, long toIndex) {
+    if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+      throw new IndexOutOfBoundsException(format("range %s to %s is outside the %s records", fromIndex, toIndex, size));
+    }
+    return new RecordSpliterator(fromIndex, toIndex);
+  }
+
+  /**
+   * @return a spliterator over all records in the file
+   */
+  public Spliterator<T> spliterator() {
+    return spliterator(0, size);
+  }
+
+  /**
+   * Close the file. The mapped segments are released when they are garbage collected.
+   *
+   * @throws FixedFormatException if the file couldn't be closed
+   */
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not close the %s file", recordClass.getName()), e);
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      //the original error is more interesting
+    }
+  }
+
+  private class RecordSpliterator implements Spliterator<T> {
+
+    private long index;
+    private final long fence;
+
+    RecordSpliterator(long index, long fence) {
+      this.index = index;
+      this.fence = fence;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (index >= fence) {
+        return false;
+      }
+      action.accept(get(index++));
+      return true;
+    }
+
+    public void forEachRemaining(Consumer<? super T> action) {
+      while (index < fence) {
+        action.accept(get(index++));
+      }
+    }
+
+    public Spliterator<T> trySplit() {
+      long middle = (index + fence) >>> 1;
+      if (middle <= index) {
+        return null;
+      }
+      Spliterator<T> prefix = new RecordSpliterator(index, middle);
+      index = middle;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+
+/**
+ * A spliterator loading one record per line of a file.
+ * <p/>
+ * The file is split at the middle of the byte range and each part skips forward to the first line starting in it,
+ * so a parallel stream loads the file on all cores without the parts having to coordinate. A line belongs to the part
+ * its first byte is in. Lines are terminated by <code>\n</code> or <code>\r\n</code>, which has to be encoded as
+ * a single byte that isn't part of any other char, like in UTF-8, ISO-8859-1 or EBCDIC charsets.
+ * <p/>
+ * The file is read through positional reads on the channel, which is shared by all parts and not closed by the
+ * spliterator.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FixedFormatLineSpliterator<T> implements Spliterator<T> {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final long MIN_SPLIT_SIZE = 8 * 1024;
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final FileChannel channel;
+  private final Charset charset;
+  private final byte lineFeed;
+  private final byte carriageReturn;
+  private final long fileSize;
+  private final int averageLineLength;
+
+  private long position;
+  private long end;
+  private boolean synced;
+
+  //the bytes of the file from bufferStart
+  private byte[] buffer = new byte[0];
+  private long bufferStart;
+  private int bufferLength;
+
+  /**
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param channel the file to read
+   * @param charset the charset of the file
+   * @throws FixedFormatException if line breaks aren't single bytes in the charset or the file size couldn't be read
+   */
+  public FixedFormatLineSpliterator(FixedFormatManager manager, Class<T> recordClass, FileChannel channel, Charset charset) {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.channel = channel;
+    this.charset = charset;
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", recordClass.getName()));
+    }
+    this.lineFeed = singleByte("\n", charset);
+    this.carriageReturn = singleByte("\r", charset);
+    try {
+      this.fileSize = channel.size();
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not read the size of the %s file", recordClass.getName()), e);
+    }
+    this.averageLineLength = record.length() > 0 ? record.length() + 1 : 1;
+    this.position = 0;
+    this.end = fileSize;
+    this.synced = true;
+  }
+
+  private FixedFormatLineSpliterator(FixedFormatLineSpliterator<T> parent, long position, long end, boolean synced) {
+    this.manager = parent.manager;
+    this.recordClass = parent.recordClass;
+    this.channel = parent.channel;
+    this.charset = parent.charset;
+    this.lineFeed = parent.lineFeed;
+    this.carriageReturn = parent.carriageReturn;
+    this.fileSize = parent.fileSize;
+    this.averageLineLength = parent.averageLineLength;
+    this.position = position;
+    this.end = end;
+    this.synced = synced;
+  }
+
+  /**
+   * Open the file and stream its records. Closing the stream closes the file.
+   *
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param file the file to read
+   * @param charset the charset of the file
+   * @param parallel <code>true</code> to load the records on all cores
+   * @return a stream of the records in the file
+   * @throws FixedFormatException if the file couldn't be opened
+   */
+  public static <T> Stream<T> stream(FixedFormatManager manager, Class<T> recordClass, Path file, Charset charset, boolean parallel) {
+    final FileChannel channel;
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not open %s", file), e);
+    }
+    Spliterator<T> spliterator;
+    try {
+      spliterator = new FixedFormatLineSpliterator<T>(manager, recordClass, channel, charset);
+    } catch (RuntimeException e) {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        //the original error is more interesting
+      }
+      throw e;
+    }
+    return StreamSupport.stream(spliterator, parallel).onClose(new Runnable() {
+      public void run() {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          throw new FixedFormatException("could not close the file", e);
+        }
+      }
+    });
+  }
+
+  public boolean tryAdvance(Consumer<? super T> action) {
+    String line = nextLine();
+    if (line == null) {
+      return false;
+    }
+    action.accept(manager.load(recordClass, line));
+    return true;
+  }
+
+  public void forEachRemaining(Consumer<? super T> action) {
+    for (String line = nextLine(); line != null; line = nextLine()) {
+      action.accept(manager.load(recordClass, line));
+    }
+  }
+
+  /**
+   * Split the remaining bytes at the middle. The returned prefix loads the lines starting before the middle.
+   */
+  public Spliterator<T> trySplit() {
+    if (end - position < MIN_SPLIT_SIZE) {
+      return null;
+    }
+    long middle = position + (end - position) / 2;
+    FixedFormatLineSpliterator<T> prefix = new FixedFormatLineSpliterator<T>(this, position, middle, synced);
+    prefix.buffer = buffer;
+    prefix.bufferStart = bufferStart;
+    prefix.bufferLength = bufferLength;
+    buffer = new byte[0];
+    bufferStart = middle;
+    bufferLength = 0;
+    position = middle;
+    synced = false;
+    return prefix;
+  }
+
+  public long estimateSize() {
+    return (end - position) / averageLineLength;
+  }
+
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  /**
+   * @return the next line starting before the end of this part or <code>null</code> if there are no more lines
+   */
+  private String nextLine() {
+    if (!synced) {
+      //the line starting at the position belongs to this part if the previous byte ends a line
+      long lineEnd = find(position - 1);
+      position = lineEnd < fileSize ? lineEnd + 1 : fileSize;
+      synced = true;
+    }
+    if (position >= end || position >= fileSize) {
+      return null;
+    }
+    long lineStart = position;
+    long lineEnd = find(lineStart);
+    position = lineEnd < fileSize ? lineEnd + 1 : fileSize;
+    int length = (int) (lineEnd - lineStart);
+    int offset = (int) (lineStart - bufferStart);
+    if (length > 0 && lineEnd < fileSize && buffer[offset + length - 1] == carriageReturn) {
+      length--;
+    }
+    return new String(buffer, offset, length, charset);
+  }
+
+  /**
+   * Find the next line feed keeping the bytes from the start in the buffer.
+   *
+   * @param start the position to search from
+   * @return the position of the line feed or the file size if there are no more line feeds
+   */
+  private long find(long start) {
+    long index = start;
+    while (true) {
+      long bufferEnd = bufferStart + bufferLength;
+      if (index < bufferStart || index >= bufferEnd) {
+        if (index >= fileSize) {
+          return fileSize;
+        }
+        fill(start);
+        continue;
+      }
+      for (int i = (int) (index - bufferStart), last = bufferLength; i < last; i++) {
+        if (buffer[i] == lineFeed) {
+          return bufferStart + i;
+        }
+      }
+      index = bufferEnd;
+    }
+  }
+
+  /**
+   * Read more of the file into the buffer, keeping the bytes from keepFrom.
+   */
+  private void fill(long keepFrom) {
+    long bufferEnd = bufferStart + bufferLength;
+    if (keepFrom < bufferStart || keepFrom >= bufferEnd) {
+      bufferStart = keepFrom;
+      bufferLength = 0;
+    } else if (keepFrom > bufferStart) {
+      int keep = (int) (bufferEnd - keepFrom);
+      System.arraycopy(buffer, (int) (keepFrom - bufferStart), buffer, 0, keep);
+      bufferStart = keepFrom;
+      bufferLength = keep;
+    }
+    if (buffer.length - bufferLength < BUFFER_SIZE / 2) {
+      buffer = Arrays.copyOf(buffer, Math.max(BUFFER_SIZE, buffer.length * 2));
+    }
+    ByteBuffer target = ByteBuffer.wrap(buffer, bufferLength, buffer.length - bufferLength);
+    try {
+      int read = channel.read(target, bufferStart + bufferLength);
+      if (read == -1) {
+        throw new FixedFormatException(format("the %s file was truncated while reading", recordClass.getName()));
+      }
+      bufferLength += read;
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not read the %s file", recordClass.getName()), e);
+    }
+  }
+
+  private static byte singleByte(String lineBreak, Charset charset) {
+    byte[] bytes = lineBreak.getBytes(charset);
+    if (bytes.length != 1) {
+      throw new FixedFormatException(format("line breaks aren't single bytes in %s", charset.name()));
+    }
+    return bytes[0];
+  }
+}
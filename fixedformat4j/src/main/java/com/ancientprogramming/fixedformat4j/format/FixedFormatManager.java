@@ -17,6 +17,9 @@ package com.ancientprogramming.fixedformat4j.format;
 
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * Interface used to interact with fixed format annotations.
  * <p/>
@@ -39,6 +42,78 @@ public interface FixedFormatManager {
    */
   <T> T load(Class<T> clazz, String data) throws FixedFormatException;
 
+  /**
+   * Create an instance of the fixedFormatClass and load the record found in a range of a larger char sequence into it,
+   * ex. a chunk of a file or a message payload. The record isn't copied into a string of its own.
+   * <p/>
+   * The default implementation copies the range into a string and loads it through {@link #load(Class, String)}.
+   *
+   * @param clazz the class to instanciate
+   * @param data the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @return an object loaded with the fixedformat data
+   * @throws ParseException in case that some specific parsing fails
+   * @throws FixedFormatException in case the fixedFormatRecord class cannot be loaded
+   * @since 1.6.0
+   */
+  default <T> T load(Class<T> clazz, CharSequence data, int start, int end) throws FixedFormatException {
+    return load(clazz, data.subSequence(start, end).toString());
+  }
+
+  /**
+   * Create an instance of the fixedFormatClass and load the record found in a range of a char array into it.
+   * <p/>
+   * The default implementation copies the range into a string and loads it through {@link #load(Class, String)}.
+   *
+   * @param clazz the class to instanciate
+   * @param data the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @return an object loaded with the fixedformat data
+   * @throws ParseException in case that some specific parsing fails
+   * @throws FixedFormatException in case the fixedFormatRecord class cannot be loaded
+   * @since 1.6.0
+   */
+  default <T> T load(Class<T> clazz, char[] data, int start, int end) throws FixedFormatException {
+    return load(clazz, new String(data, start, end - start));
+  }
+
+  /**
+   * Create an instance of the fixedFormatClass and load only the fields selected by the projection into it. The other
+   * fields aren't parsed and keep the value the class initializes them with.
+   * <p/>
+   * The default implementation loads every field through {@link #load(Class, String)}.
+   *
+   * @param clazz the class to instanciate
+   * @param data the data to load
+   * @param projection the fields to load
+   * @return an object loaded with the selected fixedformat data
+   * @throws ParseException in case that some specific parsing fails
+   * @throws FixedFormatException in case the fixedFormatRecord class cannot be loaded or the projection selects fields
+   * the class doesn't have
+   * @since 1.6.0
+   */
+  default <T> T load(Class<T> clazz, String data, Projection<T> projection) throws FixedFormatException {
+    return load(clazz, data);
+  }
+
+  /**
+   * Create a filter matching all records of the given class. Conditions are added through
+   * {@link RecordFilter#where(String, FieldCondition)} and checked on the raw record without loading it.
+   * <p/>
+   * The default implementation loads each record through {@link #load(Class, CharSequence, int, int)} or
+   * {@link #load(Class, ByteBuffer, int, int, SingleByteCharset)} and compares the values returned by the getters.
+   *
+   * @param clazz the @Record annotated class
+   * @return a filter compiled against the current layout of the class
+   * @throws FixedFormatException in case the class isn't annotated with a @Record annotation
+   * @since 1.6.0
+   */
+  default <T> RecordFilter<T> filter(Class<T> clazz) throws FixedFormatException {
+    return new LoadingRecordFilter<T>(this, clazz);
+  }
+
   /**
    * Exports the instance &lt;T&gt; into a fixed formatted string representation.
    * The instance has to be @Record annotated and containing @Field annotations on the getters that is to be exported
@@ -60,5 +135,75 @@ public interface FixedFormatManager {
    */
   <T> String export(String template, T instance) throws FixedFormatException;
 
+  /**
+   * Exports the instance &lt;T&gt; merged on top of the given <code>template</code> directly into the given sink.
+   * No string is created for the exported record. Ex. export into a {@link java.io.Writer}, a {@link StringBuilder}
+   * or a {@link java.nio.CharBuffer}.
+   * <p/>
+   * The default implementation appends the string returned by {@link #export(String, Object)}.
+   * @param template the data to merge the exported instance with
+   * @param instance is he object that is to be exported
+   * @param sink the exported record is appended to the sink
+   * @throws FixedFormatException in case the instance couldn't be exported or appended to the sink
+   * @since 1.6.0
+   */
+  default <T> void export(String template, T instance, Appendable sink) throws FixedFormatException {
+    try {
+      sink.append(export(template, instance));
+    } catch (IOException e) {
+      throw new FixedFormatException("could not append exported " + instance.getClass().getName(), e);
+    }
+  }
+
+  /**
+   * Create an instance of the fixedFormatClass and load the bytes of a record in a single byte charset into it.
+   * Fields are parsed straight from the bytes where possible, without decoding the record into a string.
+   * <p/>
+   * The default implementation decodes the record and loads it through {@link #load(Class, String)}.
+   * @param fixedFormatRecordClass the class to instantiate and load data into
+   * @param data the bytes of the record. The position of the buffer isn't changed
+   * @param offset the absolute index of the first byte of the record
+   * @param length the length of the record in bytes
+   * @param charset the charset of the record
+   * @return an instance of the <code>fixedFormatRecordClass</code> with the data loaded
+   * @throws FixedFormatException in case the fixedFormatRecordClass cannot be loaded
+   * @since 1.6.0
+   */
+  default <T> T load(Class<T> fixedFormatRecordClass, ByteBuffer data, int offset, int length, SingleByteCharset charset) throws FixedFormatException {
+    return load(fixedFormatRecordClass, charset.decode(data, offset, length));
+  }
+
+  /**
+   * Exports the instance &lt;T&gt; as bytes in a single byte charset at the position of the target.
+   * <p/>
+   * The default implementation encodes the string returned by {@link #export(Object)}.
+   * @param instance is he object that is to be exported
+   * @param target the buffer to put the bytes into. The position is advanced past the record
+   * @param charset the charset to encode the record in
+   * @throws FixedFormatException in case the instance couldn't be exported or the target is too small
+   * @since 1.6.0
+   */
+  default <T> void export(T instance, ByteBuffer target, SingleByteCharset charset) throws FixedFormatException {
+    String record = export(instance);
+    if (target.remaining() < record.length()) {
+      throw new FixedFormatException("exported " + instance.getClass().getName() + " is " + record.length() + " bytes, but only " + target.remaining() + " bytes are left in the buffer");
+    }
+    charset.encode(record, target);
+  }
+
+  /**
+   * Exports the instance &lt;T&gt; at the end of the buffer, after the records exported into it before. Lets a caller
+   * export many records into one buffer it reuses.
+   * <p/>
+   * The default implementation appends the string returned by {@link #export(Object)}.
+   * @param instance is he object that is to be exported
+   * @param buffer the buffer to export the record into
+   * @throws FixedFormatException in case the instance couldn't be exported
+   * @since 1.6.0
+   */
+  default <T> void export(T instance, ExportBuffer buffer) throws FixedFormatException {
+    buffer.append(export(instance));
+  }
+
 
 }
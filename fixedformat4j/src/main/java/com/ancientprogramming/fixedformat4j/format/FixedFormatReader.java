@@ -0,0 +1,418 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+
+/**
+ * Reads @{@link Record} annotated records one by one from a {@link Reader} or an {@link InputStream}.
+ * <p/>
+ * The records are framed by line breaks or by the length of the record and loaded by a {@link FixedFormatManager}.
+ * The input is read into a single char buffer that is reused for all records. The manager loads each record straight
+ * from its range of the buffer, so no string is created per record.
+ * <p/>
+ * Files mixing several kinds of records are read by line with a {@link RecordDispatcher} choosing the record class of
+ * each line from its type code.
+ * <p/>
+ * A {@link RecordFilter} is checked on the raw records in the buffer, so records are only loaded if they match.
+ * A filter for one of the classes of a {@link RecordDispatcher} only matches the records dispatched to that class.
+ * <p/>
+ * The records can be read through the {@link Iterator} returned by {@link #iterator()}, a {@link Stream} or the
+ * {@link #forEach(java.util.function.Consumer)} callback. The input can only be read once. Errors reading the input are
+ * thrown as {@link FixedFormatException}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FixedFormatReader<T> implements Iterable<T>, Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * How the records are separated in the input.
+   */
+  public enum Framing {
+
+    /**
+     * One record per line. Lines are terminated by <code>\n</code>, <code>\r</code> or <code>\r\n</code>.
+     */
+    LINE,
+
+    /**
+     * Records of {@link Record#length()} chars without separators.
+     */
+    LENGTH
+  }
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final RecordDispatcher<? extends T> dispatcher;
+  private final String recordName;
+  private final Reader reader;
+  private final Framing framing;
+  private final int recordLength;
+
+  private char[] buffer;
+  private CharBuffer chars;
+  private int position;
+  private int limit;
+  private boolean skipLineFeed;
+  private int recordStart;
+  private int recordEnd;
+  private boolean framed;
+  private boolean endOfInput;
+  private boolean iterated;
+
+  /**
+   * Reads one record per line.
+   *
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param reader the input. Closed when the reader is closed
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Reader reader) {
+    this(manager, recordClass, reader, Framing.LINE);
+  }
+
+  /**
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param in the input. Closed when the reader is closed
+   * @param charset the charset of the input
+   * @param framing how the records are separated
+   * @throws FixedFormatException if the records are framed by length and the record has no fixed length
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, InputStream in, Charset charset, Framing framing) {
+    this(manager, recordClass, new InputStreamReader(in, charset), framing);
+  }
+
+  /**
+   * @param manager the manager loading the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param reader the input. Closed when the reader is closed
+   * @param framing how the records are separated
+   * @throws FixedFormatException if the records are framed by length and the record has no fixed length
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Reader reader, Framing framing) {
+    this(manager, recordClass, null, recordClass.getName(), reader, framing, recordLength(recordClass));
+    if (framing == Framing.LENGTH && recordLength < 1) {
+      throw new FixedFormatException(format("%s has no fixed length and can't be read by length", recordClass.getName()));
+    }
+  }
+
+  /**
+   * Reads one record per line from a file mixing several kinds of records. Each line is loaded as the record class
+   * the dispatcher finds by its type code.
+   *
+   * @param manager the manager loading the records
+   * @param dispatcher routes the lines to their record classes
+   * @param reader the input. Closed when the reader is closed
+   */
+  public FixedFormatReader(FixedFormatManager manager, RecordDispatcher<? extends T> dispatcher, Reader reader) {
+    this(manager, null, dispatcher, "dispatched", reader, Framing.LINE, 0);
+  }
+
+  private FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, RecordDispatcher<? extends T> dispatcher, String recordName, Reader reader, Framing framing, int recordLength) {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.dispatcher = dispatcher;
+    this.recordName = recordName;
+    this.reader = reader;
+    this.framing = framing;
+    this.recordLength = recordLength;
+    this.buffer = new char[Math.max(BUFFER_SIZE, recordLength)];
+  }
+
+  /**
+   * @return <code>true</code> if there are more records in the input
+   * @throws FixedFormatException if the input couldn't be read or the last record is too short
+   */
+  public boolean hasNext() {
+    if (!framed && !endOfInput) {
+      try {
+        framed = framing == Framing.LINE ? frameLine() : frameLength();
+      } catch (IOException e) {
+        throw new FixedFormatException(format("could not read %s records", recordName), e);
+      }
+      endOfInput = !framed;
+    }
+    return framed;
+  }
+
+  /**
+   * Load the next record.
+   *
+   * @return the record
+   * @throws NoSuchElementException if there are no more records
+   * @throws FixedFormatException if the input couldn't be read or the record couldn't be loaded
+   */
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException(format("no more %s records", recordName));
+    }
+    framed = false;
+    Class<? extends T> nextClass = dispatcher != null ? dispatcher.dispatch(buffer, recordStart, recordEnd) : recordClass;
+    return manager.load(nextClass, buffer, recordStart, recordEnd);
+  }
+
+  /**
+   * Skip records without loading them.
+   *
+   * @param count the number of records to skip. Ex. header lines
+   * @return the number of records skipped. Less than <code>count</code> if the end of the input was reached
+   */
+  public int skip(int count) {
+    int skipped = 0;
+    while (skipped < count && hasNext()) {
+      framed = false;
+      skipped++;
+    }
+    return skipped;
+  }
+
+  /**
+   * The records left in the input. Can only be called once.
+   *
+   * @return an iterator over the records
+   * @throws IllegalStateException if called more than once
+   */
+  public Iterator<T> iterator() {
+    if (iterated) {
+      throw new IllegalStateException("the records can only be iterated once");
+    }
+    iterated = true;
+    return new Iterator<T>() {
+      public boolean hasNext() {
+        return FixedFormatReader.this.hasNext();
+      }
+
+      public T next() {
+        return FixedFormatReader.this.next();
+      }
+    };
+  }
+
+  /**
+   * The records left in the input as a sequential stream. Closing the stream closes the reader.
+   *
+   * @return a stream of the records
+   * @throws IllegalStateException if the records are already iterated
+   */
+  public Stream<T> stream() {
+    return stream(iterator());
+  }
+
+  /**
+   * The records left in the input matching the filter as a sequential stream. Records not matching are skipped
+   * without being loaded. Closing the stream closes the reader.
+   *
+   * @param filter the conditions checked on the raw records
+   * @return a stream of the matching records
+   * @throws IllegalStateException if the records are already iterated
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public Stream<T> stream(final RecordFilter<?> filter) {
+    checkFilter(filter);
+    if (iterated) {
+      throw new IllegalStateException("the records can only be iterated once");
+    }
+    iterated = true;
+    return stream(new Iterator<T>() {
+      public boolean hasNext() {
+        return nextMatch(filter);
+      }
+
+      public T next() {
+        if (!nextMatch(filter)) {
+          throw new NoSuchElementException(format("no more matching %s records", recordName));
+        }
+        return FixedFormatReader.this.next();
+      }
+    });
+  }
+
+  /**
+   * Count the records left in the input matching the filter. No records are loaded.
+   *
+   * @param filter the conditions checked on the raw records
+   * @return the number of matching records
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public long count(RecordFilter<?> filter) {
+    checkFilter(filter);
+    long count = 0;
+    while (nextMatch(filter)) {
+      framed = false;
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Load the next record matching the filter. Records before it are skipped without being loaded.
+   *
+   * @param filter the conditions checked on the raw records
+   * @return the matching record or <code>null</code> if no record left in the input matches
+   * @throws FixedFormatException if the filter is compiled for a class the records aren't instances of
+   */
+  public T findFirst(RecordFilter<?> filter) {
+    checkFilter(filter);
+    return nextMatch(filter) ? next() : null;
+  }
+
+  private Stream<T> stream(Iterator<T> iterator) {
+    Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+      public void run() {
+        close();
+      }
+    });
+  }
+
+  private void checkFilter(RecordFilter<?> filter) {
+    if (recordClass != null && !filter.getRecordClass().isAssignableFrom(recordClass)) {
+      throw new FixedFormatException(format("a filter for %s can't be checked on %s records", filter.getRecordClass().getName(), recordName));
+    }
+  }
+
+  /**
+   * Skips records until the framed record matches the filter. Dispatched records of other classes than the filter's
+   * don't match.
+   *
+   * @return <code>false</code> at the end of the input
+   */
+  private boolean nextMatch(RecordFilter<?> filter) {
+    while (hasNext()) {
+      if (chars == null || chars.array() != buffer) {
+        chars = CharBuffer.wrap(buffer);
+      }
+      if ((dispatcher == null || filter.getRecordClass().isAssignableFrom(dispatcher.dispatch(buffer, recordStart, recordEnd)))
+          && filter.matches(chars, recordStart, recordEnd)) {
+        return true;
+      }
+      framed = false;
+    }
+    return false;
+  }
+
+  /**
+   * Close the input.
+   *
+   * @throws FixedFormatException if the input couldn't be closed
+   */
+  public void close() {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not close the %s reader", recordName), e);
+    }
+  }
+
+  private static int recordLength(Class<?> recordClass) {
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", recordClass.getName()));
+    }
+    return record.length();
+  }
+
+  private boolean frameLine() throws IOException {
+    int scanned = 0;
+    while (true) {
+      if (skipLineFeed && position < limit) {
+        if (buffer[position] == '\n') {
+          position++;
+        }
+        skipLineFeed = false;
+      }
+      for (int i = position + scanned; i < limit; i++) {
+        char c = buffer[i];
+        if (c == '\n' || c == '\r') {
+          recordStart = position;
+          recordEnd = i;
+          position = i + 1;
+          skipLineFeed = c == '\r';
+          return true;
+        }
+      }
+      scanned = limit - position;
+      if (!fill()) {
+        if (position < limit) { //last line without line break
+          recordStart = position;
+          recordEnd = limit;
+          position = limit;
+          return true;
+        }
+        return false;
+      }
+    }
+  }
+
+  private boolean frameLength() throws IOException {
+    while (limit - position < recordLength) {
+      if (!fill()) {
+        if (position < limit) {
+          throw new FixedFormatException(format("the last %s record is %s chars long. Expected %s chars", recordName, limit - position, recordLength));
+        }
+        return false;
+      }
+    }
+    recordStart = position;
+    recordEnd = position + recordLength;
+    position = recordEnd;
+    return true;
+  }
+
+  /**
+   * Moves the unread chars to the start of the buffer, growing it if it is full, and reads more input after them.
+   *
+   * @return <code>false</code> at the end of the input
+   */
+  private boolean fill() throws IOException {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int read = reader.read(buffer, limit, buffer.length - limit);
+    if (read == -1) {
+      return false;
+    }
+    limit += read;
+    return true;
+  }
+}
@@ -39,20 +39,38 @@ public class FixedFormatUtil {
    * @return the String data fetched from the record. Can be <code>null</code> if the record was shorter than the context expected
    */
   public static String fetchData(String record, FormatInstructions instructions, FormatContext context) {
+    return fetchData(record, 0, record.length(), instructions, context);
+  }
+
+  /**
+   * Fetch data from a record found in a range of a larger char sequence according to the {@link FormatInstructions}
+   * and {@link FormatContext}. Only the data of the field is copied.
+   * @param source the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @param instructions the fixed
+   * @param context the context to fetch data in
+   * @return the String data fetched from the record. Can be <code>null</code> if the record was shorter than the context expected
+   * @since 1.6.0
+   */
+  public static String fetchData(CharSequence source, int start, int end, FormatInstructions instructions, FormatContext context) {
     String result;
+    int recordLength = end - start;
     int offset = context.getOffset() - 1;
     int length = instructions.getLength();
-    if (record.length() >= offset + length) {
-      result = record.substring(offset, offset + length);
-    } else if (record.length() > offset) {
+    if (recordLength >= offset + length) {
+      result = source.subSequence(start + offset, start + offset + length).toString();
+    } else if (recordLength > offset) {
       //the field does contain data, but is not as long as the instructions tells.
-      result = record.substring(offset, record.length());
+      result = source.subSequence(start + offset, end).toString();
       if (LOG.isDebugEnabled()) {
-        LOG.info(format("The record field was not as long as expected by the instructions. Expected field to be %s long but it was %s.", length, record.length()));
+        LOG.debug(format("The record field was not as long as expected by the instructions. Expected field to be %s long but it was %s.", length, recordLength));
       }
     } else {
       result = null;
-      LOG.info(format("Could not fetch data from record as the recordlength[%s] was shorter than or equal to the requested offset[%s] of the request data. Returning null", record.length(), offset));
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(format("Could not fetch data from record as the recordlength[%s] was shorter than or equal to the requested offset[%s] of the request data. Returning null", recordLength, offset));
+      }
     }
     if (LOG.isDebugEnabled()) {
       LOG.debug(format("fetched '%s' from record", result));
@@ -60,6 +78,17 @@ public class FixedFormatUtil {
     return result;
   }
 
+  /**
+   * Get the name of the codec generated for a record class. The codec is placed in the same package as the record.
+   * Ex. <code>com.example.Outer$Inner</code> has the codec <code>com.example.Outer_InnerCodec</code>
+   * @param recordClassName the binary name of the record class
+   * @return the binary name of the generated codec
+   * @since 1.6.0
+   */
+  public static String getCodecClassName(String recordClassName) {
+    return recordClassName.replace('$', '_') + "Codec";
+  }
+
   public static <T> FixedFormatter<T> getFixedFormatterInstance(Class<? extends FixedFormatter<T>> formatterClass, FormatContext context) {
     FixedFormatter<T> formatter = getFixedFormatterInstance(formatterClass, context.getClass(), context);
     if (formatter == null) {
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import static java.lang.String.format;
+
+/**
+ * Writes @{@link Record} annotated records one by one to a {@link Writer}, an {@link OutputStream} or a
+ * {@link WritableByteChannel}.
+ * <p/>
+ * The records are exported by a {@link FixedFormatManager} straight into an {@link ExportBuffer} that is reused for
+ * all records, so no string or buffer is created per record. Each record is followed by the line terminator. The batch is written to
+ * the output when it holds {@link #DEFAULT_BATCH_SIZE} chars, when the writer is flushed or closed, and after every record
+ * if the {@link FlushPolicy} says so. Writers get the chars of the batch directly. Byte outputs are encoded from the
+ * batch through a reused byte buffer, by table for single byte charsets.
+ * <p/>
+ * Errors writing the output are thrown as {@link FixedFormatException}. The writer isn't thread safe.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FixedFormatWriter<T> implements Closeable, Flushable {
+
+  /**
+   * The number of chars collected before they are written to the output.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 65536;
+
+  /**
+   * When the output itself is flushed.
+   */
+  public enum FlushPolicy {
+
+    /**
+     * Full batches are written to the output, but the output is only flushed by {@link #flush()} and {@link #close()}.
+     */
+    CLOSE,
+
+    /**
+     * The output is flushed every time a batch is written.
+     */
+    BATCH,
+
+    /**
+     * Every record is written and flushed to the output immediately.
+     */
+    RECORD
+  }
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final Writer writer;
+  private final WritableByteChannel channel;
+  private final Flushable flushable;
+  private final String lineTerminator;
+  private final FlushPolicy flushPolicy;
+
+  private final ExportBuffer batch = new ExportBuffer(DEFAULT_BATCH_SIZE + 256);
+  private ByteBuffer bytes;
+  private CharsetEncoder encoder;
+  private SingleByteCharset singleByteCharset;
+  private long count;
+  private boolean closed;
+
+  /**
+   * Writes one record per line terminated by <code>\n</code>. The output is flushed when the writer is closed.
+   *
+   * @param manager the manager exporting the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param writer the output. Closed when the writer is closed
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Class<T> recordClass, Writer writer) {
+    this(manager, recordClass, writer, "\n", FlushPolicy.CLOSE);
+  }
+
+  /**
+   * @param manager the manager exporting the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param writer the output. Closed when the writer is closed
+   * @param lineTerminator written after every record. Use the empty string to write records without separators
+   * @param flushPolicy when the output is flushed
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Class<T> recordClass, Writer writer, String lineTerminator, FlushPolicy flushPolicy) {
+    this(manager, recordClass, writer, null, writer, lineTerminator, flushPolicy);
+  }
+
+  /**
+   * @param manager the manager exporting the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param out the output. Closed when the writer is closed
+   * @param charset the charset of the output
+   * @param lineTerminator written after every record. Use the empty string to write records without separators
+   * @param flushPolicy when the output is flushed
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Class<T> recordClass, OutputStream out, Charset charset, String lineTerminator, FlushPolicy flushPolicy) {
+    this(manager, recordClass, null, Channels.newChannel(out), out, lineTerminator, flushPolicy);
+    initEncoder(charset);
+  }
+
+  /**
+   * @param manager the manager exporting the records
+   * @param recordClass the @{@link Record} annotated class
+   * @param channel the output. Closed when the writer is closed
+   * @param charset the charset of the output
+   * @param lineTerminator written after every record. Use the empty string to write records without separators
+   * @param flushPolicy when the output is flushed. Channels have no buffer of their own, so the policy only decides
+   * when batches are written
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Class<T> recordClass, WritableByteChannel channel, Charset charset, String lineTerminator, FlushPolicy flushPolicy) {
+    this(manager, recordClass, null, channel, null, lineTerminator, flushPolicy);
+    initEncoder(charset);
+  }
+
+  private FixedFormatWriter(FixedFormatManager manager, Class<T> recordClass, Writer writer, WritableByteChannel channel, Flushable flushable, String lineTerminator, FlushPolicy flushPolicy) {
+    if (recordClass.getAnnotation(Record.class) == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be exported", recordClass.getName()));
+    }
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.writer = writer;
+    this.channel = channel;
+    this.flushable = flushable;
+    this.lineTerminator = lineTerminator;
+    this.flushPolicy = flushPolicy;
+  }
+
+  /**
+   * Export the record into the batch followed by the line terminator.
+   *
+   * @param record the record to write
+   * @throws FixedFormatException if the record couldn't be exported or the batch couldn't be written
+   */
+  public void write(T record) {
+    if (closed) {
+      throw new IllegalStateException(format("the %s writer is closed", recordClass.getName()));
+    }
+    int mark = batch.length();
+    try {
+      manager.export(record, batch);
+    } catch (RuntimeException e) {
+      //don't write the part of the record exported before the failure
+      batch.truncate(mark);
+      throw e;
+    }
+    batch.append(lineTerminator);
+    count++;
+    if (flushPolicy == FlushPolicy.RECORD || batch.length() >= DEFAULT_BATCH_SIZE) {
+      try {
+        writeBatch();
+        if (flushPolicy != FlushPolicy.CLOSE) {
+          flushOutput();
+        }
+      } catch (IOException e) {
+        throw new FixedFormatException(format("could not write the %s records", recordClass.getName()), e);
+      }
+    }
+  }
+
+  /**
+   * Write all the given records.
+   *
+   * @param records the records to write
+   * @throws FixedFormatException if a record couldn't be exported or the batch couldn't be written
+   */
+  public void writeAll(Iterable<? extends T> records) {
+    for (T record : records) {
+      write(record);
+    }
+  }
+
+  /**
+   * @return the number of records written so far
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Write the batch to the output and flush it.
+   *
+   * @throws FixedFormatException if the output couldn't be written
+   */
+  public void flush() {
+    try {
+      writeBatch();
+      flushOutput();
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not flush the %s records", recordClass.getName()), e);
+    }
+  }
+
+  /**
+   * Write the batch to the output and close it. Closing a closed writer does nothing.
+   *
+   * @throws FixedFormatException if the output couldn't be written or closed
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      try {
+        writeBatch();
+        flushOutput();
+      } finally {
+        if (writer != null) {
+          writer.close();
+        } else {
+          channel.close();
+        }
+      }
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not close the %s writer", recordClass.getName()), e);
+    }
+  }
+
+  private void initEncoder(Charset charset) {
+    CharsetEncoder encoder = charset.newEncoder();
+    if (encoder.maxBytesPerChar() == 1 && charset.newDecoder().maxCharsPerByte() == 1) {
+      this.singleByteCharset = SingleByteCharset.forCharset(charset);
+    } else {
+      this.encoder = encoder.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+    this.bytes = ByteBuffer.allocate((int) ((DEFAULT_BATCH_SIZE + 256) * encoder.averageBytesPerChar()));
+  }
+
+  private void writeBatch() throws IOException {
+    int length = batch.length();
+    if (length == 0) {
+      return;
+    }
+    if (singleByteCharset != null) {
+      if (bytes.capacity() < length) {
+        bytes = ByteBuffer.allocate(length);
+      }
+      singleByteCharset.encode(batch, bytes);
+      writeBytes();
+    } else if (writer != null) {
+      batch.appendTo(writer);
+    } else {
+      encode(batch.asCharBuffer());
+    }
+    batch.clear();
+  }
+
+  private void encode(CharBuffer in) throws IOException {
+    encoder.reset();
+    CoderResult result;
+    while ((result = encoder.encode(in, bytes, true)).isOverflow()) {
+      writeBytes();
+    }
+    if (result.isError()) {
+      result.throwException();
+    }
+    while (encoder.flush(bytes).isOverflow()) {
+      writeBytes();
+    }
+    writeBytes();
+  }
+
+  private void writeBytes() throws IOException {
+    bytes.flip();
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+    bytes.clear();
+  }
+
+  private void flushOutput() throws IOException {
+    if (flushable != null) {
+      flushable.flush();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Stateful;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.getFixedFormatterInstance;
+
+/**
+ * Resolves and caches {@link FixedFormatter} instances.
+ * <p/>
+ * Formatters with a constructor taking a {@link FormatContext} are instantiated once per context.
+ * Formatters with a default constructor only are instantiated once per class.
+ * Formatters annotated with @{@link Stateful} are never cached and instantiated every time they are requested.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FixedFormatterRegistry {
+
+  private final ConcurrentMap<Object, FixedFormatter> formatters = new ConcurrentHashMap<Object, FixedFormatter>();
+  private final ConcurrentMap<Class<?>, Boolean> contextAware = new ConcurrentHashMap<Class<?>, Boolean>();
+
+  /**
+   * Get a formatter capable of parsing and formatting data in the given context.
+   *
+   * @param context the context containing the formatter class
+   * @return a shared formatter instance or a new instance if the formatter is stateful
+   */
+  @SuppressWarnings({"unchecked"})
+  public <T> FixedFormatter<T> getFormatter(FormatContext<T> context) {
+    Class<? extends FixedFormatter<T>> formatterClass = context.getFormatter();
+    if (!isShared(formatterClass)) {
+      return getFixedFormatterInstance(formatterClass, context);
+    }
+    Object key = isContextAware(formatterClass) ? context : formatterClass;
+    FixedFormatter<T> formatter = formatters.get(key);
+    if (formatter == null) {
+      formatter = getFixedFormatterInstance(formatterClass, context);
+      FixedFormatter<T> existing = formatters.putIfAbsent(key, formatter);
+      if (existing != null) {
+        formatter = existing;
+      }
+    }
+    return formatter;
+  }
+
+  /**
+   * @param formatterClass the formatter class
+   * @return <code>true</code> if instances of the formatter can be shared. That is if it isn't annotated with @{@link Stateful}.
+   */
+  public boolean isShared(Class<? extends FixedFormatter> formatterClass) {
+    return formatterClass.getAnnotation(Stateful.class) == null;
+  }
+
+  private boolean isContextAware(Class<?> formatterClass) {
+    Boolean result = contextAware.get(formatterClass);
+    if (result == null) {
+      try {
+        formatterClass.getConstructor(FormatContext.class);
+        result = true;
+      } catch (NoSuchMethodException e) {
+        result = false;
+      }
+      contextAware.put(formatterClass, result);
+    }
+    return result;
+  }
+}
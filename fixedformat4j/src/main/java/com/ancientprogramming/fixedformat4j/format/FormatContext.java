@@ -46,6 +46,21 @@ public class FormatContext<T> {
     return formatter;
   }
 
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof FormatContext)) return false;
+
+    FormatContext that = (FormatContext) o;
+
+    return offset == that.offset && dataType.equals(that.dataType) && formatter.equals(that.formatter);
+  }
+
+  public int hashCode() {
+    int result = offset;
+    result = 31 * result + dataType.hashCode();
+    result = 31 * result + formatter.hashCode();
+    return result;
+  }
 
   public String toString() {
     return "FormatContext{" +
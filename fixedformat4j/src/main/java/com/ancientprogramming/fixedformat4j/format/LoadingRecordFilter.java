@@ -0,0 +1,156 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link RecordFilter} loading each record through its {@link FixedFormatManager} and comparing the values returned
+ * by the getters. Used by managers that can't check conditions on the raw record. Prefixes are compared with the
+ * loaded value as a string. As the whole record is loaded, a field that can't be parsed fails the match even if no
+ * condition is on that field.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+final class LoadingRecordFilter<T> implements RecordFilter<T> {
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final Method[] getters;
+  private final FieldCondition[] conditions;
+
+  LoadingRecordFilter(FixedFormatManager manager, Class<T> recordClass) {
+    this(manager, recordClass, new Method[0], new FieldCondition[0]);
+    if (recordClass.getAnnotation(Record.class) == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be filtered", recordClass.getName()));
+    }
+  }
+
+  private LoadingRecordFilter(FixedFormatManager manager, Class<T> recordClass, Method[] getters, FieldCondition[] conditions) {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.getters = getters;
+    this.conditions = conditions;
+  }
+
+  public Class<T> getRecordClass() {
+    return recordClass;
+  }
+
+  public RecordFilter<T> where(String getterName, FieldCondition condition) {
+    Method getter;
+    try {
+      getter = recordClass.getMethod(getterName);
+    } catch (NoSuchMethodException e) {
+      getter = null;
+    }
+    if (getter == null || (getter.getAnnotation(Field.class) == null && getter.getAnnotation(Fields.class) == null)) {
+      throw new FixedFormatException(format("%s isn't a field of %s", getterName, recordClass.getName()));
+    }
+    if (condition.getKind() != FieldCondition.Kind.STARTS_WITH) {
+      Class<?> datatype = MethodType.methodType(getter.getReturnType()).wrap().returnType();
+      for (Object value : condition.getValues()) {
+        if (value != null && !datatype.isInstance(value)) {
+          throw new FixedFormatException(format("%s of %s is a %s and can't be compared with the %s %s", getterName, recordClass.getName(), getter.getReturnType().getName(), value.getClass().getName(), value));
+        }
+      }
+    }
+    Method[] newGetters = Arrays.copyOf(getters, getters.length + 1);
+    newGetters[getters.length] = getter;
+    FieldCondition[] newConditions = Arrays.copyOf(conditions, conditions.length + 1);
+    newConditions[conditions.length] = condition;
+    return new LoadingRecordFilter<T>(manager, recordClass, newGetters, newConditions);
+  }
+
+  public boolean matches(CharSequence data) {
+    return matches(data, 0, data.length());
+  }
+
+  public boolean matches(CharSequence data, int start, int end) {
+    return conditions.length == 0 || matches(manager.load(recordClass, data, start, end));
+  }
+
+  public boolean matches(ByteBuffer data, int offset, int length, SingleByteCharset charset) {
+    return conditions.length == 0 || matches(manager.load(recordClass, data, offset, length, charset));
+  }
+
+  public String toString() {
+    return "RecordFilter{" + recordClass.getName() + ", " + Arrays.toString(conditions) + '}';
+  }
+
+  private boolean matches(T record) {
+    for (int i = 0; i < conditions.length; i++) {
+      if (!matches(conditions[i], value(getters[i], record))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Object value(Method getter, T record) {
+    try {
+      return getter.invoke(record);
+    } catch (IllegalAccessException e) {
+      throw new FixedFormatException(format("could not invoke method %s.%s", recordClass.getName(), getter.getName()), e);
+    } catch (InvocationTargetException e) {
+      throw new FixedFormatException(format("could not invoke method %s.%s", recordClass.getName(), getter.getName()), e.getCause());
+    }
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static boolean matches(FieldCondition condition, Object value) {
+    List<Object> values = condition.getValues();
+    switch (condition.getKind()) {
+      case IN:
+        for (Object expected : values) {
+          if (expected == null ? value == null : equal(expected, value)) {
+            return true;
+          }
+        }
+        return false;
+      case BETWEEN:
+        Comparable<Object> from = (Comparable<Object>) values.get(0);
+        Comparable<Object> to = (Comparable<Object>) values.get(1);
+        return value != null && (from == null || from.compareTo(value) <= 0) && (to == null || to.compareTo(value) >= 0);
+      default:
+        return value != null && value.toString().startsWith((String) values.get(0));
+    }
+  }
+
+  /**
+   * Comparable values are compared, so ex. decimals of another scale are equal, as they are in the record.
+   */
+  @SuppressWarnings({"unchecked"})
+  private static boolean equal(Object expected, Object value) {
+    if (expected instanceof Comparable && value != null && expected.getClass() == value.getClass()) {
+      return ((Comparable<Object>) expected).compareTo(value) == 0;
+    }
+    return expected.equals(value);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Selects the fields of a record to load. Fields outside the projection aren't fetched, parsed or set, so they keep
+ * the value the record class initializes them with.
+ * <p/>
+ * A projection is selected by getter names or by field offsets. The fields it selects are resolved once per record
+ * layout and reused, so create a projection once and load all records with it. Projections selecting the same fields
+ * of the same class are equal.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public final class Projection<T> {
+
+  private final Class<T> recordClass;
+  private final Set<String> getterNames;
+  private final Set<Integer> offsets;
+
+  private Projection(Class<T> recordClass, Set<String> getterNames, Set<Integer> offsets) {
+    this.recordClass = recordClass;
+    this.getterNames = Collections.unmodifiableSet(getterNames);
+    this.offsets = Collections.unmodifiableSet(offsets);
+  }
+
+  /**
+   * @param recordClass the @{@link com.ancientprogramming.fixedformat4j.annotation.Record} annotated class
+   * @param getterNames the names of the annotated getters to load, ex. <code>getAmount</code>
+   * @return the projection loading the given getters
+   */
+  public static <T> Projection<T> of(Class<T> recordClass, String... getterNames) {
+    return new Projection<T>(recordClass, new TreeSet<String>(Arrays.asList(getterNames)), Collections.<Integer>emptySet());
+  }
+
+  /**
+   * @param recordClass the @{@link com.ancientprogramming.fixedformat4j.annotation.Record} annotated class
+   * @param offsets the one based offsets of the fields to load
+   * @return the projection loading the fields at the given offsets
+   */
+  public static <T> Projection<T> ofOffsets(Class<T> recordClass, int... offsets) {
+    Set<Integer> offsetSet = new TreeSet<Integer>();
+    for (int offset : offsets) {
+      offsetSet.add(offset);
+    }
+    return new Projection<T>(recordClass, Collections.<String>emptySet(), offsetSet);
+  }
+
+  public Class<T> getRecordClass() {
+    return recordClass;
+  }
+
+  public Set<String> getGetterNames() {
+    return getterNames;
+  }
+
+  public Set<Integer> getOffsets() {
+    return offsets;
+  }
+
+  /**
+   * @param getter the getter of a field
+   * @param offset the offset of the field
+   * @return <code>true</code> if the field is part of the projection
+   */
+  public boolean includes(Method getter, int offset) {
+    return getterNames.contains(getter.getName()) || offsets.contains(offset);
+  }
+
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Projection)) {
+      return false;
+    }
+    Projection<?> other = (Projection<?>) o;
+    return recordClass.equals(other.recordClass) && getterNames.equals(other.getterNames) && offsets.equals(other.offsets);
+  }
+
+  public int hashCode() {
+    return 31 * (31 * recordClass.hashCode() + getterNames.hashCode()) + offsets.hashCode();
+  }
+
+  public String toString() {
+    return "Projection{" + recordClass.getName() + ", getters=" + getterNames + ", offsets=" + offsets + '}';
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Discriminator;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Routes records of a file mixing several kinds of records to their @{@link Record} class by the
+ * @{@link Discriminator} type code of the class.
+ * <p/>
+ * The discriminators are compiled into a dispatch table when the dispatcher is created. Single char codes index an
+ * array directly. Longer codes are looked up in a small hash table whose multiplier is chosen so no two codes share a
+ * slot, so a record is compared against one code only. All discriminators has to have the same offset and length.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public final class RecordDispatcher<T> {
+
+  private static final int MAX_MULTIPLIER_TRIES = 1024;
+
+  private final int offset;
+  private final int length;
+
+  private final Class<? extends T>[] byChar;
+
+  private final char[][] codes;
+  private final Class<? extends T>[] classes;
+  private final int multiplier;
+  private final int shift;
+
+  /**
+   * @param recordClasses the @{@link Record} and @{@link Discriminator} annotated classes to dispatch to
+   * @throws FixedFormatException if a class isn't annotated, two classes share a type code or the discriminators
+   * differ in offset or length
+   */
+  @SafeVarargs
+  @SuppressWarnings("unchecked")
+  public RecordDispatcher(Class<? extends T>... recordClasses) {
+    if (recordClasses.length == 0) {
+      throw new FixedFormatException("at least one record class is needed to dispatch records");
+    }
+    Discriminator first = discriminator(recordClasses[0]);
+    this.offset = first.offset();
+    this.length = first.value().length();
+    if (offset < 1 || length < 1) {
+      throw new FixedFormatException(format("%s has an invalid %s annotation", recordClasses[0].getName(), Discriminator.class.getName()));
+    }
+    String[] values = new String[recordClasses.length];
+    for (int i = 0; i < recordClasses.length; i++) {
+      Discriminator discriminator = discriminator(recordClasses[i]);
+      if (discriminator.offset() != offset || discriminator.value().length() != length) {
+        throw new FixedFormatException(format("the discriminator of %s isn't at offset %s with length %s like the discriminator of %s", recordClasses[i].getName(), offset, length, recordClasses[0].getName()));
+      }
+      values[i] = discriminator.value();
+      for (int j = 0; j < i; j++) {
+        if (values[j].equals(values[i])) {
+          throw new FixedFormatException(format("%s and %s have the same type code '%s'", recordClasses[j].getName(), recordClasses[i].getName(), values[i]));
+        }
+      }
+    }
+
+    if (length == 1) {
+      char max = 0;
+      for (String value : values) {
+        max = (char) Math.max(max, value.charAt(0));
+      }
+      byChar = new Class[max + 1];
+      for (int i = 0; i < values.length; i++) {
+        byChar[values[i].charAt(0)] = recordClasses[i];
+      }
+      codes = null;
+      classes = null;
+      multiplier = 0;
+      shift = 0;
+    } else {
+      byChar = null;
+      int[] hashes = new int[values.length];
+      for (int i = 0; i < values.length; i++) {
+        hashes[i] = hash(values[i], 0, length);
+      }
+      int bits = 32 - Integer.numberOfLeadingZeros(values.length * 2 - 1);
+      int found = findMultiplier(hashes, bits);
+      while (found == 0 && bits < 16) {
+        found = findMultiplier(hashes, ++bits);
+      }
+      if (found == 0) { //equal hashes, fall back to probing from the slot of the first multiplier
+        found = 0x9E3779B1;
+      }
+      multiplier = found;
+      shift = 32 - bits;
+      codes = new char[1 << bits][];
+      classes = new Class[1 << bits];
+      for (int i = 0; i < values.length; i++) {
+        int slot = (hashes[i] * multiplier) >>> shift;
+        while (codes[slot] != null) {
+          slot = (slot + 1) & (codes.length - 1);
+        }
+        codes[slot] = values[i].toCharArray();
+        classes[slot] = recordClasses[i];
+      }
+    }
+  }
+
+  /**
+   * @return the one based offset of the type code
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return the length of the type code
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Find the record class of the record in the given range of chars.
+   *
+   * @param data the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @return the record class matching the type code of the record
+   * @throws FixedFormatException if the record is too short to hold a type code or no class has its type code
+   */
+  public Class<? extends T> dispatch(char[] data, int start, int end) {
+    return dispatch(CharBuffer.wrap(data), start, end);
+  }
+
+  /**
+   * Find the record class of the record in the given range of a char sequence. Only the chars of the type code are
+   * read.
+   *
+   * @param data the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @return the record class matching the type code of the record
+   * @throws FixedFormatException if the record is too short to hold a type code or no class has its type code
+   */
+  public Class<? extends T> dispatch(CharSequence data, int start, int end) {
+    int from = start + offset - 1;
+    if (end - from < length) {
+      throw new FixedFormatException(format("the record '%s' is too short to hold a type code at offset %s", data.subSequence(start, end), offset));
+    }
+    Class<? extends T> result = null;
+    if (byChar != null) {
+      char c = data.charAt(from);
+      if (c < byChar.length) {
+        result = byChar[c];
+      }
+    } else {
+      int slot = (hash(data, from, from + length) * multiplier) >>> shift;
+      while (result == null && codes[slot] != null) {
+        if (matches(codes[slot], data, from)) {
+          result = classes[slot];
+        }
+        slot = (slot + 1) & (codes.length - 1);
+      }
+    }
+    if (result == null) {
+      throw new FixedFormatException(format("no record class has the type code '%s'", data.subSequence(from, from + length)));
+    }
+    return result;
+  }
+
+  /**
+   * Find the record class of the given record.
+   *
+   * @param data the record
+   * @return the record class matching the type code of the record
+   * @throws FixedFormatException if the record is too short to hold a type code or no class has its type code
+   */
+  public Class<? extends T> dispatch(String data) {
+    return dispatch(data, 0, data.length());
+  }
+
+  /**
+   * Load the given record as an instance of the record class matching its type code.
+   *
+   * @param manager the manager loading the record
+   * @param data the record
+   * @return the loaded record
+   * @throws FixedFormatException if no class matches the record or it couldn't be loaded
+   */
+  public T load(FixedFormatManager manager, String data) {
+    return manager.load(dispatch(data), data);
+  }
+
+  private static Discriminator discriminator(Class<?> recordClass) {
+    Discriminator discriminator = recordClass.getAnnotation(Discriminator.class);
+    if (discriminator == null || recordClass.getAnnotation(Record.class) == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record and discriminator annotations to be dispatched to", recordClass.getName()));
+    }
+    return discriminator;
+  }
+
+  /**
+   * @return an odd multiplier spreading the hashes into distinct slots of a <code>2^bits</code> table, or 0
+   */
+  private static int findMultiplier(int[] hashes, int bits) {
+    int shift = 32 - bits;
+    boolean[] used = new boolean[1 << bits];
+    for (int i = 0; i < MAX_MULTIPLIER_TRIES; i++) {
+      int multiplier = 0x9E3779B1 + i * 2;
+      Arrays.fill(used, false);
+      boolean perfect = true;
+      for (int j = 0; j < hashes.length && perfect; j++) {
+        int slot = (hashes[j] * multiplier) >>> shift;
+        perfect = !used[slot];
+        used[slot] = true;
+      }
+      if (perfect) {
+        return multiplier;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean matches(char[] code, CharSequence data, int from) {
+    for (int i = 0; i < code.length; i++) {
+      if (code[i] != data.charAt(from + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hash(CharSequence value, int from, int to) {
+    int hash = 0x811C9DC5;
+    for (int i = from; i < to; i++) {
+      hash = (hash ^ value.charAt(i)) * 0x01000193;
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Conditions on the fields of a record checked on the raw chars or bytes of the record, without loading it.
+ * <p/>
+ * A filter is created by {@link FixedFormatManager#filter(Class)}. The filters of the default manager are compiled
+ * against the layout of the record class, so the offset, padding and formatter of each field is resolved once. Other
+ * managers may load the record to check it. A record matches if all the conditions match.
+ * Filters are immutable and thread safe. {@link FixedFormatReader} and {@link FixedFormatFile} use them to count and
+ * find records, loading only the records that match.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public interface RecordFilter<T> {
+
+  /**
+   * @return the record class the filter is compiled for
+   */
+  Class<T> getRecordClass();
+
+  /**
+   * Create a filter matching the records matching this filter and the given condition.
+   *
+   * @param getterName the name of the annotated getter of the field, ex. <code>getAccount</code>
+   * @param condition the condition on the field
+   * @return the new filter. This filter is unchanged
+   * @throws FixedFormatException if the getter isn't a field of the record or the condition doesn't fit the field
+   */
+  RecordFilter<T> where(String getterName, FieldCondition condition) throws FixedFormatException;
+
+  /**
+   * @param data the record
+   * @return <code>true</code> if the record matches all the conditions
+   * @throws ParseException if a field checked by a range couldn't be parsed
+   */
+  boolean matches(CharSequence data);
+
+  /**
+   * @param data the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @return <code>true</code> if the record matches all the conditions
+   * @throws ParseException if a field checked by a range couldn't be parsed
+   */
+  boolean matches(CharSequence data, int start, int end);
+
+  /**
+   * @param data the bytes of the record. The position of the buffer isn't changed
+   * @param offset the absolute index of the first byte of the record
+   * @param length the length of the record in bytes
+   * @param charset the charset of the record
+   * @return <code>true</code> if the record matches all the conditions
+   * @throws ParseException if a field checked by a range couldn't be parsed
+   */
+  boolean matches(ByteBuffer data, int offset, int length, SingleByteCharset charset);
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.String.format;
+
+/**
+ * A charset encoding every char in a single byte, ex. US-ASCII, ISO-8859-1 or the EBCDIC code pages Cp037 and Cp1047.
+ * <p/>
+ * Decoding and encoding is done through tables computed once per charset, so single chars can be read straight from
+ * the bytes of a record. Byte offsets in a record equal char offsets.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public final class SingleByteCharset {
+
+  //decoded for bytes the charset doesn't map
+  private static final char REPLACEMENT = '\uFFFD';
+
+  private static final ConcurrentMap<Charset, SingleByteCharset> CHARSETS = new ConcurrentHashMap<Charset, SingleByteCharset>();
+
+  private final Charset charset;
+  private final boolean latin1;
+  private final char[] decodeTable = new char[256];
+  private final byte[] encodeTable = new byte[Character.MAX_VALUE + 1];
+
+  private SingleByteCharset(Charset charset) {
+    this.charset = charset;
+    this.latin1 = charset.equals(StandardCharsets.ISO_8859_1);
+    CharsetDecoder decoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    CharsetEncoder encoder = charset.newEncoder();
+    Arrays.fill(encodeTable, encoder.replacement()[0]);
+    byte[] all = new byte[256];
+    for (int i = 0; i < all.length; i++) {
+      all[i] = (byte) i;
+    }
+    CharBuffer decoded;
+    try {
+      decoded = decoder.decode(ByteBuffer.wrap(all));
+    } catch (CharacterCodingException e) {
+      throw new FixedFormatException(format("could not decode %s", charset.name()), e);
+    }
+    for (int i = 0; i < decodeTable.length; i++) {
+      char c = decoded.get(i);
+      decodeTable[i] = c;
+      if (c != REPLACEMENT && encoder.canEncode(c)) {
+        encodeTable[c] = String.valueOf(c).getBytes(charset)[0];
+      }
+    }
+  }
+
+  /**
+   * Get the tables of the given charset.
+   *
+   * @param charset the charset
+   * @return the shared tables of the charset
+   * @throws FixedFormatException if the charset doesn't encode every char in a single byte
+   */
+  public static SingleByteCharset forCharset(Charset charset) {
+    SingleByteCharset result = CHARSETS.get(charset);
+    if (result == null) {
+      if (charset.newEncoder().maxBytesPerChar() != 1 || charset.newDecoder().maxCharsPerByte() != 1) {
+        throw new FixedFormatException(format("%s isn't a single byte charset", charset.name()));
+      }
+      result = new SingleByteCharset(charset);
+      SingleByteCharset existing = CHARSETS.putIfAbsent(charset, result);
+      if (existing != null) {
+        result = existing;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param charsetName the name of the charset, ex. <code>Cp1047</code>
+   * @return the shared tables of the charset
+   * @throws FixedFormatException if the charset doesn't encode every char in a single byte
+   */
+  public static SingleByteCharset forName(String charsetName) {
+    return forCharset(Charset.forName(charsetName));
+  }
+
+  public Charset getCharset() {
+    return charset;
+  }
+
+  /**
+   * @param b the byte to decode
+   * @return the char encoded by the byte
+   */
+  public char decode(byte b) {
+    return decodeTable[b & 0xFF];
+  }
+
+  /**
+   * @param c the char to encode
+   * @return the byte encoding the char. The replacement byte of the charset if the char can't be encoded
+   */
+  public byte encode(char c) {
+    return encodeTable[c];
+  }
+
+  /**
+   * Decode the bytes at the given absolute position without changing the position of the buffer.
+   *
+   * @param data the bytes to decode
+   * @param offset the index of the first byte
+   * @param length the number of bytes
+   * @return the decoded string
+   */
+  public String decode(ByteBuffer data, int offset, int length) {
+    if (data.hasArray()) {
+      return decode(data.array(), data.arrayOffset() + offset, length);
+    }
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = decodeTable[data.get(offset + i) & 0xFF];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Decode the bytes in the given range.
+   *
+   * @param data the bytes to decode
+   * @param offset the index of the first byte
+   * @param length the number of bytes
+   * @return the decoded string
+   */
+  public String decode(byte[] data, int offset, int length) {
+    if (latin1) {
+      return new String(data, offset, length, charset);
+    }
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = decodeTable[data[offset + i] & 0xFF];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Encode the chars at the position of the target, advancing the position.
+   *
+   * @param chars the chars to encode
+   * @param target the buffer to encode into
+   */
+  public void encode(CharSequence chars, ByteBuffer target) {
+    for (int i = 0, length = chars.length(); i < length; i++) {
+      target.put(encodeTable[chars.charAt(i)]);
+    }
+  }
+
+  /**
+   * Skip the given char at the start of the range.
+   *
+   * @param data the bytes to search
+   * @param from the index of the first byte
+   * @param to the index after the last byte
+   * @param c the char to skip
+   * @return the index of the first byte not encoding the char, or <code>to</code>
+   */
+  public int skipStart(ByteBuffer data, int from, int to, char c) {
+    while (from < to && decodeTable[data.get(from) & 0xFF] == c) {
+      from++;
+    }
+    return from;
+  }
+
+  /**
+   * Skip the given char at the end of the range.
+   *
+   * @param data the bytes to search
+   * @param from the index of the first byte
+   * @param to the index after the last byte
+   * @param c the char to skip
+   * @return the index after the last byte not encoding the char, or <code>from</code>
+   */
+  public int skipEnd(ByteBuffer data, int from, int to, char c) {
+    while (to > from && decodeTable[data.get(to - 1) & 0xFF] == c) {
+      to--;
+    }
+    return to;
+  }
+
+  /**
+   * @return <code>true</code> if the range encodes the given string
+   */
+  public boolean equals(ByteBuffer data, int from, int to, String value) {
+    if (to - from != value.length()) {
+      return false;
+    }
+    for (int i = from; i < to; i++) {
+      if (decodeTable[data.get(i) & 0xFF] != value.charAt(i - from)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public String toString() {
+    return "SingleByteCharset{" + charset.name() + '}';
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.codec;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+
+import java.lang.reflect.Method;
+
+import static java.lang.String.format;
+
+/**
+ * Base class for generated codecs. Contains the parts of loading and exporting that doesn't depend on the record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public abstract class AbstractRecordCodec<T> implements RecordCodec<T> {
+
+  private final Class<T> recordClass;
+  private final int exportLength;
+
+  protected AbstractRecordCodec(Class<T> recordClass, int exportLength) {
+    this.recordClass = recordClass;
+    this.exportLength = exportLength;
+  }
+
+  public Class<T> getRecordClass() {
+    return recordClass;
+  }
+
+  public int getExportLength() {
+    return exportLength;
+  }
+
+  /**
+   * @param value the value returned by a getter
+   * @return <code>true</code> if the value is a @{@link Record} annotated instance which is exported as a nested record
+   */
+  protected static boolean isRecord(Object value) {
+    return value != null && value.getClass().getAnnotation(Record.class) != null;
+  }
+
+  /**
+   * Creates the exception thrown when a field couldn't be parsed.
+   * The annotated method is looked up here, so the generated code never has to use reflection while parsing.
+   */
+  protected ParseException parseFailed(String completeText, String failedText, String getterName, FormatContext context, FormatInstructions instructions, RuntimeException cause) {
+    Method getter;
+    try {
+      getter = recordClass.getMethod(getterName);
+    } catch (NoSuchMethodException e) {
+      throw new FixedFormatException(format("could not find method %s.%s()", recordClass.getName(), getterName), cause);
+    }
+    return new ParseException(completeText, failedText, recordClass, getter, context, instructions, cause);
+  }
+
+  /**
+   * Creates the exception thrown when data was loaded for a field without a setter.
+   */
+  protected FixedFormatException setterMissing(String setterName, Class<?> datatype) {
+    return new FixedFormatException(format("setter method named %s.%s(%s) does not exist", recordClass.getName(), setterName, datatype));
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.codec;
+
+/**
+ * Decides how a <code>FixedFormatManagerImpl</code> loads and exports records.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public enum CodecStrategy {
+
+  /**
+   * Always load and export by reading the annotations through reflection. Codecs are never used.
+   */
+  REFLECTION,
+
+  /**
+   * Use the codecs generated by the fixedformat4j-processor when they are found on the classpath. Records without
+   * a codec are handled through reflection. This is the default.
+   */
+  COMPILED,
+
+  /**
+   * As {@link #COMPILED}, but a codec is generated the first time a record without a codec is used. The codec source
+   * is compiled by running javac in memory through {@link javax.tools.ToolProvider#getSystemJavaCompiler()}, which
+   * adds a compile of a few seconds the first time a codec is generated. On a JRE there is no compiler and this
+   * strategy behaves as {@link #COMPILED}. Records the codec can't be generated or defined for are handled through
+   * reflection as well.
+   */
+  GENERATED
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.codec;
+
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the java source of a codec described by a {@link RecordModel}.
+ * <p/>
+ * The generated codec holds the format context, format instructions and formatter of each field in constants and
+ * loads and exports the fields one by one in straight-line code calling the getters and setters directly.
+ * All types are referenced by their fully qualified name so the codec can't clash with the names used in the record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class CodecWriter {
+
+  private static final String PACKAGE = "com.ancientprogramming.fixedformat4j.";
+  private static final String FORMAT_CONTEXT = PACKAGE + "format.FormatContext";
+  private static final String FORMAT_INSTRUCTIONS = PACKAGE + "format.FormatInstructions";
+  private static final String FIXED_FORMATTER = PACKAGE + "format.FixedFormatter";
+  private static final String FIXED_FORMAT_UTIL = PACKAGE + "format.FixedFormatUtil";
+  private static final String MANAGER = PACKAGE + "format.FixedFormatManager";
+  private static final String EXPORT_BUFFER = PACKAGE + "format.ExportBuffer";
+  private static final String ABSTRACT_CODEC = PACKAGE + "format.codec.AbstractRecordCodec";
+
+  private final StringBuilder out = new StringBuilder();
+  private final Map<FieldModel, Integer> indexes = new IdentityHashMap<FieldModel, Integer>();
+
+  /**
+   * Generate the source of the codec.
+   *
+   * @param model the model of the record
+   * @param generator the name of the generator. Mentioned in the javadoc of the codec
+   * @return the java source
+   */
+  public static String write(RecordModel model, String generator) {
+    return new CodecWriter().writeCodec(model, generator);
+  }
+
+  private String writeCodec(RecordModel model, String generator) {
+    List<FieldModel> fields = new ArrayList<FieldModel>();
+    for (FieldModel field : model.getLoadFields()) {
+      index(fields, field);
+    }
+    for (FieldModel field : model.getExportFields()) {
+      index(fields, field);
+    }
+    String record = model.getRecordTypeName();
+
+    if (model.getPackageName().length() > 0) {
+      line("package %s;", model.getPackageName());
+      line("");
+    }
+    line("/**");
+    line(" * Loads and exports {@link %s}.", record);
+    line(" * Generated by %s. Do not edit.", generator);
+    line(" */");
+    line("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+    line("public final class %s extends %s<%s> {", model.getCodecName(), ABSTRACT_CODEC, record);
+    line("");
+    for (FieldModel field : fields) {
+      int i = indexes.get(field);
+      line("  private static final %s CONTEXT_%s = new %s(%s, %s.class, %s.class);", FORMAT_CONTEXT, i, FORMAT_CONTEXT, field.getOffset(), field.getTypeName(), field.getFormatterTypeName());
+      line("  private static final %s INSTRUCTIONS_%s = %s;", FORMAT_INSTRUCTIONS, i, instructions(field.getInstructions()));
+      if (!field.isStatefulFormatter()) {
+        line("  private static final %s FORMATTER_%s = %s;", FIXED_FORMATTER, i, newFormatter(field, i));
+      }
+    }
+    line("");
+    line("  public %s() {", model.getCodecName());
+    line("    super(%s.class, %s);", record, exportLength(model));
+    line("  }");
+    line("");
+    writeLoad(model);
+    line("");
+    writeExport(model);
+    line("}");
+    return out.toString();
+  }
+
+  private void writeLoad(RecordModel model) {
+    String record = model.getRecordTypeName();
+    line("  public %s load(String data, %s manager) {", record, MANAGER);
+    line("    return load(data, new %s(), manager);", record);
+    line("  }");
+    line("");
+    line("  public %s load(String data, %s record, %s manager) {", record, record, MANAGER);
+    if (!model.getLoadFields().isEmpty()) {
+      line("    String text;");
+      line("    Object value;");
+    }
+    for (FieldModel field : model.getLoadFields()) {
+      int i = indexes.get(field);
+      line("");
+      line("    text = %s.fetchData(data, INSTRUCTIONS_%s, CONTEXT_%s);", FIXED_FORMAT_UTIL, i, i);
+      if (field.isNestedRecord()) {
+        line("    value = text != null ? manager.load(%s.class, text) : null;", field.getTypeName());
+      } else {
+        line("    try {");
+        line("      value = %s.parse(text, INSTRUCTIONS_%s);", formatter(field, i), i);
+        line("    } catch (RuntimeException e) {");
+        line("      throw parseFailed(data, text, %s, CONTEXT_%s, INSTRUCTIONS_%s, e);", string(field.getGetterName()), i, i);
+        line("    }");
+      }
+      line("    if (value != null) {");
+      if (field.getSetterName() != null) {
+        line("      record.%s((%s) value);", field.getSetterName(), field.getBoxedTypeName());
+      } else {
+        line("      throw setterMissing(%s, %s.class);", string("set" + propertyName(field.getGetterName())), field.getTypeName());
+      }
+      line("    }");
+    }
+    line("    return record;");
+    line("  }");
+  }
+
+  private void writeExport(RecordModel model) {
+    line("  public void export(%s buffer, %s record, %s manager) {", EXPORT_BUFFER, model.getRecordTypeName(), MANAGER);
+    if (!model.getExportFields().isEmpty()) {
+      line("    Object value;");
+    }
+    for (FieldModel field : model.getExportFields()) {
+      int i = indexes.get(field);
+      line("");
+      line("    value = record.%s();", field.getGetterName());
+      String format = String.format("%s.format(value, INSTRUCTIONS_%s)", formatter(field, i), i);
+      if (field.isRecordValuePossible()) {
+        format = String.format("isRecord(value) ? manager.export(value) : %s", format);
+      }
+      line("    buffer.write(%s, %s, %s);", field.getOffset(), format, character(model.getPaddingChar()));
+    }
+    line("    buffer.pad(%s, %s);", model.getLength(), character(model.getPaddingChar()));
+    line("  }");
+  }
+
+  private static int exportLength(RecordModel model) {
+    int result = model.getLength();
+    for (FieldModel field : model.getExportFields()) {
+      result = Math.max(result, field.getOffset() - 1 + field.getInstructions().getLength());
+    }
+    return result;
+  }
+
+  private void index(List<FieldModel> fields, FieldModel field) {
+    if (!indexes.containsKey(field)) {
+      indexes.put(field, fields.size());
+      fields.add(field);
+    }
+  }
+
+  private String formatter(FieldModel field, int i) {
+    return field.isStatefulFormatter() ? "((" + FIXED_FORMATTER + ") " + newFormatter(field, i) + ")" : "FORMATTER_" + i;
+  }
+
+  private String newFormatter(FieldModel field, int i) {
+    return "new " + field.getFormatterImplTypeName() + "(" + (field.isFormatterTakesContext() ? "CONTEXT_" + i : "") + ")";
+  }
+
+  private String instructions(FormatInstructions instructions) {
+    return String.format("new %s(%s, %s.%s, %s, %s, %s, %s, %s)", FORMAT_INSTRUCTIONS,
+        instructions.getLength(),
+        instructions.getAlignment().getDeclaringClass().getName(), instructions.getAlignment().name(),
+        character(instructions.getPaddingChar()),
+        patternData(instructions.getFixedFormatPatternData()),
+        booleanData(instructions.getFixedFormatBooleanData()),
+        numberData(instructions.getFixedFormatNumberData()),
+        decimalData(instructions.getFixedFormatDecimalData()));
+  }
+
+  private String patternData(FixedFormatPatternData data) {
+    if (data == FixedFormatPatternData.DEFAULT) {
+      return FixedFormatPatternData.class.getName() + ".DEFAULT";
+    }
+    return String.format("new %s(%s)", FixedFormatPatternData.class.getName(), string(data.getPattern()));
+  }
+
+  private String booleanData(FixedFormatBooleanData data) {
+    if (data == FixedFormatBooleanData.DEFAULT) {
+      return FixedFormatBooleanData.class.getName() + ".DEFAULT";
+    }
+    return String.format("new %s(%s, %s)", FixedFormatBooleanData.class.getName(), string(data.getTrueValue()), string(data.getFalseValue()));
+  }
+
+  private String numberData(FixedFormatNumberData data) {
+    if (data == FixedFormatNumberData.DEFAULT) {
+      return FixedFormatNumberData.class.getName() + ".DEFAULT";
+    }
+    return String.format("new %s(%s.%s, %s, %s)", FixedFormatNumberData.class.getName(),
+        data.getSigning().getDeclaringClass().getName(), data.getSigning().name(),
+        character(data.getPositiveSign()), character(data.getNegativeSign()));
+  }
+
+  private String decimalData(FixedFormatDecimalData data) {
+    if (data == FixedFormatDecimalData.DEFAULT) {
+      return FixedFormatDecimalData.class.getName() + ".DEFAULT";
+    }
+    return String.format("new %s(%s, %s, %s, java.math.RoundingMode.%s)", FixedFormatDecimalData.class.getName(),
+        data.getDecimals(), data.isUseDecimalDelimiter(), character(data.getDecimalDelimiter()), data.getRoundingMode().name());
+  }
+
+  private static String propertyName(String getterName) {
+    return getterName.startsWith("is") ? getterName.substring(2) : getterName.substring(3);
+  }
+
+  /**
+   * Unicode escapes are translated before the source is parsed, so special chars are written as casts or octal escapes.
+   */
+  static String character(char c) {
+    if (c >= 0x20 && c < 0x7f && c != '\'' && c != '\\') {
+      return "'" + c + "'";
+    }
+    return "(char) " + (int) c;
+  }
+
+  static String string(String value) {
+    StringBuilder result = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        result.append('\\').append(c);
+      } else if (c < 0x20 || c == 0x7f) {
+        result.append(String.format("\\%03o", (int) c));
+      } else if (c > 0x7f) {
+        result.append(String.format("\\u%04x", (int) c));
+      } else {
+        result.append(c);
+      }
+    }
+    return result.append('"').toString();
+  }
+
+  private void line(String format, Object... args) {
+    out.append(args.length == 0 ? format : String.format(format, args)).append('\n');
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.codec;
+
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+
+/**
+ * Describes how the generated codec loads and exports a single @Field annotation.
+ * Types are held as names as they appear in the generated source.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FieldModel {
+
+  private final String getterName;
+  private final String setterName;
+  private final String typeName;
+  private final String boxedTypeName;
+  private final int offset;
+  private final FormatInstructions instructions;
+  private final String formatterTypeName;
+  private final String formatterImplTypeName;
+  private final boolean formatterTakesContext;
+  private final boolean statefulFormatter;
+  private final boolean nestedRecord;
+  private final boolean recordValuePossible;
+
+  /**
+   * @param getterName the name of the annotated getter
+   * @param setterName the name of the setter or <code>null</code> if the property is export only
+   * @param typeName the erased datatype of the property. Ex. <code>int</code> or <code>java.util.Date</code>
+   * @param boxedTypeName the boxed datatype of the property. Ex. <code>java.lang.Integer</code>
+   * @param offset the offset of the field
+   * @param instructions the format instructions of the field
+   * @param formatterTypeName the formatter given in the @Field annotation
+   * @param formatterImplTypeName the formatter to instantiate. A built-in formatter if the datatype is known by the ByTypeFormatter
+   * @param formatterTakesContext <code>true</code> if the formatter is instantiated with a FormatContext
+   * @param statefulFormatter <code>true</code> if the formatter must be instantiated per use
+   * @param nestedRecord <code>true</code> if the datatype is annotated with @Record
+   * @param recordValuePossible <code>true</code> if the value returned by the getter can be a @Record instance
+   */
+  public FieldModel(String getterName, String setterName, String typeName, String boxedTypeName, int offset, FormatInstructions instructions, String formatterTypeName, String formatterImplTypeName, boolean formatterTakesContext, boolean statefulFormatter, boolean nestedRecord, boolean recordValuePossible) {
+    this.getterName = getterName;
+    this.setterName = setterName;
+    this.typeName = typeName;
+    this.boxedTypeName = boxedTypeName;
+    this.offset = offset;
+    this.instructions = instructions;
+    this.formatterTypeName = formatterTypeName;
+    this.formatterImplTypeName = formatterImplTypeName;
+    this.formatterTakesContext = formatterTakesContext;
+    this.statefulFormatter = statefulFormatter;
+    this.nestedRecord = nestedRecord;
+    this.recordValuePossible = recordValuePossible;
+  }
+
+  public String getGetterName() {
+    return getterName;
+  }
+
+  public String getSetterName() {
+    return setterName;
+  }
+
+  public String getTypeName() {
+    return typeName;
+  }
+
+  public String getBoxedTypeName() {
+    return boxedTypeName;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public FormatInstructions getInstructions() {
+    return instructions;
+  }
+
+  public String getFormatterTypeName() {
+    return formatterTypeName;
+  }
+
+  public String getFormatterImplTypeName() {
+    return formatterImplTypeName;
+  }
+
+  public boolean isFormatterTakesContext() {
+    return formatterTakesContext;
+  }
+
+  public boolean isStatefulFormatter() {
+    return statefulFormatter;
+  }
+
+  public boolean isNestedRecord() {
+    return nestedRecord;
+  }
+
+  public boolean isRecordValuePossible() {
+    return recordValuePossible;
+  }
+
+  public String toString() {
+    return "FieldModel{" +
+        "getterName=" + getterName +
+        ", offset=" + offset +
+        ", formatter=" + formatterImplTypeName +
+        '}';
+  }
+}
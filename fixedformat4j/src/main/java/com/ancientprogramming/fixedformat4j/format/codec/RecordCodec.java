@@ -0,0 +1,75 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.codec;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+
+/**
+ * Loads and exports one specific @{@link com.ancientprogramming.fixedformat4j.annotation.Record} annotated class
+ * without using reflection.
+ * <p/>
+ * Codecs are generated by the fixedformat4j-processor annotation processor. The generated class is placed in the
+ * package of the record and named after it, see {@link com.ancientprogramming.fixedformat4j.format.FixedFormatUtil#getCodecClassName(String)}.
+ * The <code>FixedFormatManagerImpl</code> uses a codec whenever one is found on the classpath.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public interface RecordCodec<T> {
+
+  /**
+   * @return the record class handled by this codec
+   */
+  Class<T> getRecordClass();
+
+  /**
+   * Create an instance of the record class and load the data string into it.
+   *
+   * @param data the data to load
+   * @param manager the manager used to load nested records
+   * @return an object loaded with the fixedformat data
+   * @throws FixedFormatException in case the data couldn't be loaded
+   */
+  T load(String data, FixedFormatManager manager) throws FixedFormatException;
+
+  /**
+   * Load the data string into the given record instance.
+   *
+   * @param data the data to load
+   * @param record the instance to load the data into
+   * @param manager the manager used to load nested records
+   * @return the record given
+   * @throws FixedFormatException in case the data couldn't be loaded
+   */
+  T load(String data, T record, FixedFormatManager manager) throws FixedFormatException;
+
+  /**
+   * Exports the record into the buffer. The buffer contains the template the record is merged on top of.
+   *
+   * @param buffer the buffer to export into
+   * @param record the record to export
+   * @param manager the manager used to export nested records
+   * @throws FixedFormatException in case the record couldn't be exported
+   */
+  void export(ExportBuffer buffer, T record, FixedFormatManager manager) throws FixedFormatException;
+
+  /**
+   * @return the expected length of an exported record used to presize the {@link ExportBuffer}
+   */
+  int getExportLength();
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.codec;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes the codec generated for a @Record annotated class.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class RecordModel {
+
+  private final String packageName;
+  private final String codecName;
+  private final String recordTypeName;
+  private final int length;
+  private final char paddingChar;
+  private final List<FieldModel> loadFields;
+  private final List<FieldModel> exportFields;
+
+  /**
+   * @param packageName the package of the record. Empty for the default package
+   * @param codecName the simple name of the codec
+   * @param recordTypeName the canonical name of the record
+   * @param length the length given in the @Record annotation
+   * @param paddingChar the padding char given in the @Record annotation
+   * @param loadFields the fields to load sorted by offset
+   * @param exportFields the fields to export sorted by offset
+   */
+  public RecordModel(String packageName, String codecName, String recordTypeName, int length, char paddingChar, List<FieldModel> loadFields, List<FieldModel> exportFields) {
+    this.packageName = packageName;
+    this.codecName = codecName;
+    this.recordTypeName = recordTypeName;
+    this.length = length;
+    this.paddingChar = paddingChar;
+    this.loadFields = Collections.unmodifiableList(loadFields);
+    this.exportFields = Collections.unmodifiableList(exportFields);
+  }
+
+  public String getPackageName() {
+    return packageName;
+  }
+
+  public String getCodecName() {
+    return codecName;
+  }
+
+  /**
+   * @return the fully qualified name of the codec
+   */
+  public String getQualifiedCodecName() {
+    return packageName.length() == 0 ? codecName : packageName + "." + codecName;
+  }
+
+  public String getRecordTypeName() {
+    return recordTypeName;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public char getPaddingChar() {
+    return paddingChar;
+  }
+
+  public List<FieldModel> getLoadFields() {
+    return loadFields;
+  }
+
+  public List<FieldModel> getExportFields() {
+    return exportFields;
+  }
+
+  public String toString() {
+    return "RecordModel{" +
+        "recordTypeName=" + recordTypeName +
+        ", codecName=" + codecName +
+        ", fields=" + exportFields +
+        '}';
+  }
+}
@@ -16,16 +16,24 @@
 package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.text.DecimalFormat;
 
 /**
  * Base class for formatting decimal data
+ * <p/>
+ * Values with at most 18 significant digits are rounded and formatted as a long holding the digits without the
+ * decimal delimiter, so no {@link BigDecimal} or locale dependent {@link java.text.DecimalFormat} is needed. Bigger
+ * values are rounded as a {@link BigDecimal}.
+ * <p/>
+ * Parsing accumulates the digits into a long as well, and subclasses make the value from the long and the scale
+ * without creating a string for the value.
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
@@ -35,53 +43,261 @@ public abstract class AbstractDecimalFormatter<T extends Number> extends Abstrac
   private static final Log LOG = LogFactory.getLog(AbstractDecimalFormatter.class);
 
   public String asString(T obj, FormatInstructions instructions) {
-    BigDecimal roundedValue = null;
-    int decimals = instructions.getFixedFormatDecimalData().getDecimals();
-    if (obj != null) {
-      BigDecimal value = obj instanceof BigDecimal ? (BigDecimal)obj : BigDecimal.valueOf(obj.doubleValue());
-
-      RoundingMode roundingMode = instructions.getFixedFormatDecimalData().getRoundingMode();
-
-      roundedValue = value.setScale(decimals, roundingMode);
-
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Value before rounding = '" + value + "', value after rounding = '" + roundedValue + "', decimals = " + decimals + ", rounding mode = " + roundingMode);
+    FixedFormatDecimalData decimalData = instructions.getFixedFormatDecimalData();
+    String result = null;
+    if (decimalData.getDecimals() >= 0 && decimalData.getDecimals() < POWERS_OF_TEN.length) {
+      if (obj == null) {
+        result = scaledString(false, 0, 0, decimalData);
+      } else if (obj instanceof BigDecimal) {
+        result = scaledString((BigDecimal) obj, decimalData);
+      } else {
+        result = scaledString(Double.toString(obj.doubleValue()), decimalData);
       }
     }
-       
-    DecimalFormat formatter = new DecimalFormat();
-    formatter.setDecimalSeparatorAlwaysShown(true);
-    formatter.setMaximumFractionDigits(decimals);
-
-    char decimalSeparator = formatter.getDecimalFormatSymbols().getDecimalSeparator();
-    char groupingSeparator = formatter.getDecimalFormatSymbols().getGroupingSeparator();
-    String zeroString = "0" + decimalSeparator + "0";
-
-    String rawString = roundedValue != null ? formatter.format(roundedValue) : zeroString;
+    if (result == null) {
+      result = asStringFromBigDecimal(obj, decimalData);
+    }
     if (LOG.isDebugEnabled()) {
-      LOG.debug("rawString: " + rawString + " - G[" + groupingSeparator + "] D[" + decimalSeparator + "]");
+      LOG.debug("result[" + result + "]");
     }
-    rawString = rawString.replaceAll("\\" + groupingSeparator, "");
-    boolean useDecimalDelimiter = instructions.getFixedFormatDecimalData().isUseDecimalDelimiter();
+    return result;
+  }
 
-    String beforeDelimiter = rawString.substring(0, rawString.indexOf(decimalSeparator));
-    String afterDelimiter = rawString.substring(rawString.indexOf(decimalSeparator)+1, rawString.length());
+  /**
+   * Rounds and formats the value as a {@link BigDecimal}. Used when the value doesn't fit in a long.
+   */
+  private static String asStringFromBigDecimal(Number obj, FixedFormatDecimalData decimalData) {
+    int decimals = decimalData.getDecimals();
+    BigDecimal value = obj == null ? BigDecimal.ZERO : obj instanceof BigDecimal ? (BigDecimal) obj : BigDecimal.valueOf(obj.doubleValue());
+    RoundingMode roundingMode = decimalData.getRoundingMode();
+    BigDecimal roundedValue = value.setScale(decimals, roundingMode);
     if (LOG.isDebugEnabled()) {
-      LOG.debug("beforeDelimiter[" + beforeDelimiter + "], afterDelimiter[" + afterDelimiter + "]");
+      LOG.debug("Value before rounding = '" + value + "', value after rounding = '" + roundedValue + "', decimals = " + decimals + ", rounding mode = " + roundingMode);
     }
 
+    String rawString = roundedValue.toPlainString();
+    int delimiterIndex = rawString.indexOf('.');
+    String beforeDelimiter = delimiterIndex < 0 ? rawString : rawString.substring(0, delimiterIndex);
+    String afterDelimiter = delimiterIndex < 0 ? "" : rawString.substring(delimiterIndex + 1);
+
     //trim decimals
     afterDelimiter = StringUtils.substring(afterDelimiter, 0, decimals);
     afterDelimiter = StringUtils.rightPad(afterDelimiter, decimals, '0');
 
-    String delimiter = useDecimalDelimiter ? "" + instructions.getFixedFormatDecimalData().getDecimalDelimiter() : "";
-    String result = beforeDelimiter + delimiter + afterDelimiter;
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("result[" + result + "]");
+    String delimiter = decimalData.isUseDecimalDelimiter() ? "" + decimalData.getDecimalDelimiter() : "";
+    return beforeDelimiter + delimiter + afterDelimiter;
+  }
+
+  private static String scaledString(BigDecimal value, FixedFormatDecimalData decimalData) {
+    BigInteger unscaled = value.unscaledValue();
+    if (unscaled.bitLength() >= Long.SIZE - 1) {
+      return null;
+    }
+    return scaledString(unscaled.signum() < 0, Math.abs(unscaled.longValue()), value.scale(), decimalData);
+  }
+
+  /**
+   * Reads the digits of {@link Double#toString(double)} into a long the same way as
+   * {@link BigDecimal#valueOf(double)} does.
+   */
+  private static String scaledString(String value, FixedFormatDecimalData decimalData) {
+    int index = 0;
+    int length = value.length();
+    boolean negative = value.charAt(0) == '-';
+    if (negative) {
+      index++;
+    }
+    long unscaled = 0;
+    int scale = 0;
+    int significantDigits = 0;
+    boolean fraction = false;
+    for (; index < length; index++) {
+      char c = value.charAt(index);
+      if (c >= '0' && c <= '9') {
+        unscaled = unscaled * 10 + (c - '0');
+        if (unscaled != 0 && ++significantDigits >= POWERS_OF_TEN.length) {
+          return null;
+        }
+        if (fraction) {
+          scale++;
+        }
+      } else if (c == '.') {
+        fraction = true;
+      } else if (c == 'E') {
+        scale -= Integer.parseInt(value.substring(index + 1));
+        break;
+      } else {
+        //NaN and Infinity fails the BigDecimal way
+        return null;
+      }
+    }
+    return scaledString(negative, unscaled, scale, decimalData);
+  }
+
+  /**
+   * Rescales the value to the number of decimals, rounds it with the rounding mode and writes the digits.
+   *
+   * @param negative <code>true</code> if the value is negative
+   * @param unscaled the digits of the value without the sign
+   * @param scale the number of digits in unscaled after the decimal delimiter
+   * @param decimalData the decimals, rounding and delimiter to use
+   * @return the formatted value or <code>null</code> if it has to be formatted as a {@link BigDecimal}
+   */
+  private static String scaledString(boolean negative, long unscaled, int scale, FixedFormatDecimalData decimalData) {
+    int decimals = decimalData.getDecimals();
+    long value = unscaled;
+    if (scale < decimals) {
+      long shift = (long) decimals - scale;
+      if (shift >= POWERS_OF_TEN.length || value > Long.MAX_VALUE / POWERS_OF_TEN[(int) shift]) {
+        return null;
+      }
+      value *= POWERS_OF_TEN[(int) shift];
+    } else if (scale > decimals) {
+      int shift = scale - decimals;
+      RoundingMode roundingMode = decimalData.getRoundingMode();
+      if (shift >= POWERS_OF_TEN.length || roundingMode == RoundingMode.UNNECESSARY) {
+        //UNNECESSARY fails the BigDecimal way if the value has to be rounded
+        return null;
+      }
+      long divisor = POWERS_OF_TEN[shift];
+      value = unscaled / divisor;
+      long remainder = unscaled % divisor;
+      if (remainder != 0 && roundUp(roundingMode, negative, value, remainder, divisor)) {
+        value++;
+      }
+    }
+    negative = negative && value != 0;
+
+    boolean useDecimalDelimiter = decimalData.isUseDecimalDelimiter();
+    long integerPart = value / POWERS_OF_TEN[decimals];
+    long fractionPart = value % POWERS_OF_TEN[decimals];
+    char[] chars = new char[(negative ? 1 : 0) + digitCount(integerPart) + (useDecimalDelimiter ? 1 : 0) + decimals];
+    int index = chars.length;
+    for (int i = 0; i < decimals; i++) {
+      chars[--index] = (char) ('0' + fractionPart % 10);
+      fractionPart /= 10;
+    }
+    if (useDecimalDelimiter) {
+      chars[--index] = decimalData.getDecimalDelimiter();
+    }
+    do {
+      chars[--index] = (char) ('0' + integerPart % 10);
+      integerPart /= 10;
+    } while (integerPart != 0);
+    if (negative) {
+      chars[--index] = '-';
+    }
+    return new String(chars);
+  }
+
+  /**
+   * @return <code>true</code> if the magnitude of the truncated value has to be rounded up to the next number
+   */
+  private static boolean roundUp(RoundingMode roundingMode, boolean negative, long truncated, long remainder, long divisor) {
+    long rest = divisor - remainder;
+    switch (roundingMode) {
+      case UP:
+        return true;
+      case DOWN:
+        return false;
+      case CEILING:
+        return !negative;
+      case FLOOR:
+        return negative;
+      case HALF_UP:
+        return remainder >= rest;
+      case HALF_DOWN:
+        return remainder > rest;
+      case HALF_EVEN:
+        return remainder > rest || (remainder == rest && (truncated & 1) == 1);
+      default:
+        throw new IllegalArgumentException("unsupported rounding mode " + roundingMode);
     }
-    return result;
   }
  
+  /**
+   * Parses the string the way {@link #getStringToConvert(String, FormatInstructions)} converts it, accumulating the
+   * digits into an unscaled long while skipping the decimal delimiter.
+   *
+   * @param string the value without sign and padding
+   * @param instructions the instructions
+   * @return the value made by {@link #asObject(boolean, long, int)} or <code>null</code> if the value has to be
+   * parsed from the converted string
+   */
+  protected T asScaledObject(String string, FormatInstructions instructions) {
+    FixedFormatDecimalData decimalData = instructions.getFixedFormatDecimalData();
+    int length = string.length();
+    int delimiterIndex = -1;
+    int scale = 0;
+    if (decimalData.isUseDecimalDelimiter()) {
+      char delimiter = decimalData.getDecimalDelimiter();
+      if (delimiter >= '0' && delimiter <= '9') {
+        return null;
+      }
+      delimiterIndex = string.indexOf(delimiter);
+      scale = delimiterIndex < 0 ? 0 : length - delimiterIndex - 1;
+    } else {
+      int decimals = decimalData.getDecimals();
+      if (decimals > 0 && length >= decimals) {
+        if (length == decimals && length > 0 && isSign(string.charAt(0))) {
+          //the delimiter is inserted in front of the sign
+          return null;
+        }
+        scale = decimals;
+      }
+    }
+    long unscaled = parseUnscaled(string, delimiterIndex);
+    if (unscaled < 0) {
+      return null;
+    }
+    return asObject(string.charAt(0) == '-' && delimiterIndex != 0, unscaled, scale);
+  }
+
+  /**
+   * Override to make the value from the digits parsed by {@link #asScaledObject(String, FormatInstructions)}.
+   *
+   * @param negative <code>true</code> if the value is negative
+   * @param unscaled the digits of the value without the sign
+   * @param scale the number of digits in unscaled after the decimal delimiter
+   * @return the value or <code>null</code> if it can't be made exactly from the digits
+   */
+  protected T asObject(boolean negative, long unscaled, int scale) {
+    return null;
+  }
+
+  /**
+   * @return the digits without the sign and the char at skipIndex or -1 if there is anything else in the value
+   */
+  private static long parseUnscaled(String value, int skipIndex) {
+    int length = value.length();
+    int index = 0;
+    if (length > 0 && skipIndex != 0 && isSign(value.charAt(0))) {
+      index++;
+    }
+    long result = 0;
+    int significantDigits = 0;
+    boolean digits = false;
+    for (; index < length; index++) {
+      if (index == skipIndex) {
+        continue;
+      }
+      char c = value.charAt(index);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      digits = true;
+      result = result * 10 + (c - '0');
+      if (result != 0 && ++significantDigits >= POWERS_OF_TEN.length) {
+        return -1;
+      }
+    }
+    return digits ? result : -1;
+  }
+
+  private static boolean isSign(char c) {
+    return c == '-' || c == '+';
+  }
+
   protected String getStringToConvert(String string, FormatInstructions instructions) {
     String toConvert;
     boolean useDecimalDelimiter = instructions.getFixedFormatDecimalData().isUseDecimalDelimiter();
@@ -27,6 +27,18 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  */
 public abstract class AbstractNumberFormatter<T> extends AbstractFixedFormatter<T> {
 
+  /**
+   * The powers of ten fitting in a long, indexed by the exponent.
+   */
+  protected static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
   /**
    * Override and applies signing instead of align.
    *
@@ -54,4 +66,16 @@ public abstract class AbstractNumberFormatter<T> extends AbstractFixedFormatter<
     public String format(T obj, FormatInstructions instructions) {
       return instructions.getFixedFormatNumberData().getSigning().apply(asString(obj, instructions), instructions);
     }
+
+  /**
+   * @param digits a number that isn't negative
+   * @return the number of digits in the number
+   */
+  protected static int digitCount(long digits) {
+    int count = 1;
+    while (count < POWERS_OF_TEN.length && digits >= POWERS_OF_TEN[count]) {
+      count++;
+    }
+    return count;
+  }
 }
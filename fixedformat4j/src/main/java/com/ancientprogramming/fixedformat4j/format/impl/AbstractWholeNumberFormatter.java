@@ -0,0 +1,246 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatByteParser;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatCharParser;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatCharWriter;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Base class for formatting whole numbers.
+ * <p/>
+ * Fields are parsed in a single scan removing the sign and the padding and accumulating the digits into a long, which
+ * gives the same result as removing them through {@link Sign} and {@link Align} and parsing the rest. Values the scan
+ * doesn't handle, like invalid or out of range numbers, are parsed the old way to get the exact same result and errors.
+ * Subclasses overriding {@link #asObject(String, FormatInstructions)} or {@link #asString(Object, FormatInstructions)}
+ * are always parsed or formatted through strings, so the override is used.
+ * Unsigned fields are parsed straight from the bytes of a record.
+ * <p/>
+ * Fields are exported by writing the digits, padding and sign straight into the record from right to left, truncated
+ * the same way as {@link Sign#apply(String, FormatInstructions)} does.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public abstract class AbstractWholeNumberFormatter<T> extends AbstractNumberFormatter<T> implements FixedFormatByteParser<T>, FixedFormatCharParser<T>, FixedFormatCharWriter<T> {
+
+  //any number of this many chars fits in a long
+  private static final int MAX_LONG_CHARS = 18;
+
+  //returned by the scan when the value has to be parsed the old way. Can't be the result of 18 digits
+  private static final long NOT_SCANNED = Long.MIN_VALUE;
+
+  //false if a subclass parses or formats the string itself
+  private final boolean scanning = isBuiltIn(getClass(), "asObject", String.class);
+  private final boolean writing = isBuiltIn(getClass(), "asString", Object.class);
+
+  public T parse(String value, FormatInstructions instructions) {
+    return value != null ? parse(value, 0, value.length(), instructions) : null;
+  }
+
+  public T parse(CharSequence data, int start, int end, FormatInstructions instructions) {
+    long value = scanning ? scan(data, start, end, instructions) : NOT_SCANNED;
+    T result = value != NOT_SCANNED ? asObject(value) : null;
+    return result != null ? result : super.parse(data.subSequence(start, end).toString(), instructions);
+  }
+
+  /**
+   * Accumulates the digits left after the padding is removed. Signed fields, numbers out of range and anything else
+   * the plain digit loop doesn't handle are parsed from the decoded string to get the exact same result and errors.
+   */
+  public T parse(ByteBuffer data, int offset, int length, SingleByteCharset charset, FormatInstructions instructions) {
+    if (!scanning || instructions.getFixedFormatNumberData().getSigning() != Sign.NOSIGN) {
+      return parse(charset.decode(data, offset, length), instructions);
+    }
+    int from = removePaddingStart(data, offset, offset + length, charset, instructions);
+    int to = removePaddingEnd(data, from, offset + length, charset, instructions);
+    if (from == to) {
+      return asObject(0L);
+    }
+    T result = null;
+    if (to - from <= MAX_LONG_CHARS) {
+      int index = from;
+      char first = charset.decode(data.get(index));
+      boolean negative = first == '-';
+      if (negative || first == '+') {
+        index++;
+      }
+      long value = 0;
+      boolean digits = index < to;
+      for (; index < to && digits; index++) {
+        char c = charset.decode(data.get(index));
+        digits = c >= '0' && c <= '9';
+        value = value * 10 + (c - '0');
+      }
+      if (digits) {
+        result = asObject(negative ? -value : value);
+      }
+    }
+    return result != null ? result : asObject(charset.decode(data, from, to - from), instructions);
+  }
+
+  public void format(T value, FormatInstructions instructions, char[] target, int start) {
+    long number = value != null ? ((Number) value).longValue() : 0;
+    if (!writing || number == Long.MIN_VALUE) {
+      //Long.MIN_VALUE can't be negated
+      String result = format(value, instructions);
+      result.getChars(0, result.length(), target, start);
+      return;
+    }
+    boolean negative = number < 0;
+    long digits = negative ? -number : number;
+    int digitCount = value != null ? digitCount(digits) : 0;
+    Sign signing = instructions.getFixedFormatNumberData().getSigning();
+    if (signing == Sign.NOSIGN) {
+      writeAligned(target, start, 0, digits, digitCount, negative, instructions);
+    } else {
+      //the sign replaces the first char of the aligned digits
+      char sign = negative ? '-' : '+';
+      if (signing == Sign.PREPEND) {
+        writeAligned(target, start + 1, 1, digits, digitCount, false, instructions);
+        target[start] = sign;
+      } else {
+        writeAligned(target, start, 1, digits, digitCount, false, instructions);
+        target[start + instructions.getLength() - 1] = sign;
+      }
+    }
+  }
+
+  /**
+   * Writes the digits aligned like {@link Align#apply(String, int, char)} from right to left, leaving out the first
+   * <code>skip</code> chars of the aligned value.
+   */
+  private static void writeAligned(char[] target, int at, int skip, long digits, int digitCount, boolean minus, FormatInstructions instructions) {
+    int length = instructions.getLength();
+    char paddingChar = instructions.getPaddingChar();
+    int valueLength = minus ? digitCount + 1 : digitCount;
+    //index in the value of the first char of the field. Right aligned values are truncated from the left
+    int shift = instructions.getAlignment() == Align.RIGHT ? valueLength - length : 0;
+    long remaining = -1;
+    for (int i = length - 1; i >= skip; i--) {
+      int index = i + shift;
+      char c;
+      if (index < 0 || index >= valueLength) {
+        c = paddingChar;
+      } else if (minus && index == 0) {
+        c = '-';
+      } else {
+        if (remaining < 0) {
+          //drop the digits truncated from the right
+          remaining = digits / POWERS_OF_TEN[valueLength - 1 - index];
+        }
+        c = (char) ('0' + remaining % 10);
+        remaining /= 10;
+      }
+      target[at + i - skip] = c;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the method is declared by one of the formatters of this package
+   */
+  private static boolean isBuiltIn(Class<?> formatterClass, String methodName, Class<?> valueType) {
+    Class<?> declaringClass;
+    try {
+      declaringClass = formatterClass.getMethod(methodName, valueType, FormatInstructions.class).getDeclaringClass();
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+    return declaringClass == IntegerFormatter.class || declaringClass == LongFormatter.class || declaringClass == ShortFormatter.class;
+  }
+
+  /**
+   * Removes the sign and padding like {@link Sign#remove(String, FormatInstructions)} and parses the rest like
+   * {@link Long#parseLong(String)} in one pass over the chars.
+   *
+   * @return the value or {@link #NOT_SCANNED}
+   */
+  private static long scan(CharSequence data, int start, int end, FormatInstructions instructions) {
+    FixedFormatNumberData numberData = instructions.getFixedFormatNumberData();
+    Sign signing = numberData.getSigning();
+    char sign = 0;
+    if (signing != Sign.NOSIGN) {
+      if (start == end) {
+        return NOT_SCANNED;
+      }
+      sign = signing == Sign.PREPEND ? data.charAt(start++) : data.charAt(--end);
+    }
+    char paddingChar = instructions.getPaddingChar();
+    if (instructions.getAlignment() == Align.RIGHT) {
+      while (start < end && data.charAt(start) == paddingChar) {
+        start++;
+      }
+    } else {
+      while (end > start && data.charAt(end - 1) == paddingChar) {
+        end--;
+      }
+    }
+    if (start == end || (signing != Sign.NOSIGN && end - start == 1 && data.charAt(start) == '0')) {
+      return 0;
+    }
+    boolean keepSign = signing != Sign.NOSIGN && !numberData.getPositiveSign().equals(sign);
+    return parseDigits(keepSign, sign, data, start, end);
+  }
+
+  /**
+   * Parses the optional first char followed by the range like {@link Long#parseLong(String)}.
+   */
+  private static long parseDigits(boolean hasFirst, char first, CharSequence data, int start, int end) {
+    int index = start;
+    if (!hasFirst) {
+      first = data.charAt(index++);
+    }
+    boolean negative = first == '-';
+    boolean digits = false;
+    int significantDigits = 0;
+    long value = 0;
+    if (first >= '0' && first <= '9') {
+      digits = true;
+      value = first - '0';
+      significantDigits = value == 0 ? 0 : 1;
+    } else if (!negative && first != '+') {
+      return NOT_SCANNED;
+    }
+    for (; index < end; index++) {
+      char c = data.charAt(index);
+      if (c < '0' || c > '9') {
+        return NOT_SCANNED;
+      }
+      digits = true;
+      value = value * 10 + (c - '0');
+      if (value != 0 && ++significantDigits > MAX_LONG_CHARS) {
+        return NOT_SCANNED;
+      }
+    }
+    if (!digits) {
+      return NOT_SCANNED;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * @param value the parsed value
+   * @return the value as T or <code>null</code> if it is out of range
+   */
+  protected abstract T asObject(long value);
+}
@@ -28,7 +28,15 @@ import java.math.BigDecimal;
 public class BigDecimalFormatter extends AbstractDecimalFormatter<BigDecimal> {
 
     public BigDecimal asObject(String string, FormatInstructions instructions) {
-      String toConvert = getStringToConvert(string, instructions);
-      return new BigDecimal("".equals(toConvert) ? "0" : toConvert);
+      BigDecimal result = asScaledObject(string, instructions);
+      if (result == null) {
+        String toConvert = getStringToConvert(string, instructions);
+        result = new BigDecimal("".equals(toConvert) ? "0" : toConvert);
+      }
+      return result;
+    }
+
+    protected BigDecimal asObject(boolean negative, long unscaled, int scale) {
+      return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
     }
 }
@@ -17,16 +17,37 @@ package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatByteParser;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
 import org.apache.commons.lang.StringUtils;
 
+import java.nio.ByteBuffer;
+
 /**
  * Formatter for {@link Boolean} data
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class BooleanFormatter extends AbstractFixedFormatter<Boolean> {
+public class BooleanFormatter extends AbstractFixedFormatter<Boolean> implements FixedFormatByteParser<Boolean> {
+
+  /**
+   * Compares the bytes left after the padding is removed with the true and false values.
+   */
+  public Boolean parse(ByteBuffer data, int offset, int length, SingleByteCharset charset, FormatInstructions instructions) {
+    int from = removePaddingStart(data, offset, offset + length, charset, instructions);
+    int to = removePaddingEnd(data, from, offset + length, charset, instructions);
+    if (from == to) {
+      return false;
+    }
+    if (charset.equals(data, from, to, instructions.getFixedFormatBooleanData().getTrueValue())) {
+      return true;
+    } else if (charset.equals(data, from, to, instructions.getFixedFormatBooleanData().getFalseValue())) {
+      return false;
+    }
+    return asObject(charset.decode(data, from, to - from), instructions);
+  }
 
   public Boolean asObject(String string, FormatInstructions instructions) throws FixedFormatException {
     Boolean result = false;
@@ -38,58 +38,81 @@ import java.util.Map;
  */
 public class ByTypeFormatter implements FixedFormatter<Object> {
   private FormatContext context;
+  private FixedFormatter formatter;
 
-  private static final Map<Class<? extends Serializable>, Class<? extends FixedFormatter>> KNOWN_FORMATTERS = new HashMap<Class<? extends Serializable>, Class<? extends FixedFormatter>>();
+  private static final Map<Class<? extends Serializable>, FixedFormatter> KNOWN_FORMATTERS = new HashMap<Class<? extends Serializable>, FixedFormatter>();
 
   static {
-    KNOWN_FORMATTERS.put(String.class, StringFormatter.class);
-    KNOWN_FORMATTERS.put(short.class, ShortFormatter.class);
-    KNOWN_FORMATTERS.put(Short.class, ShortFormatter.class);
-    KNOWN_FORMATTERS.put(int.class, IntegerFormatter.class);
-    KNOWN_FORMATTERS.put(Integer.class, IntegerFormatter.class);
-    KNOWN_FORMATTERS.put(long.class, LongFormatter.class);
-    KNOWN_FORMATTERS.put(Long.class, LongFormatter.class);
-    KNOWN_FORMATTERS.put(Date.class, DateFormatter.class);
-    KNOWN_FORMATTERS.put(LocalDate.class, LocalDateFormatter.class);
-    KNOWN_FORMATTERS.put(char.class, CharacterFormatter.class);
-    KNOWN_FORMATTERS.put(Character.class, CharacterFormatter.class);
-    KNOWN_FORMATTERS.put(boolean.class, BooleanFormatter.class);
-    KNOWN_FORMATTERS.put(Boolean.class, BooleanFormatter.class);
-    KNOWN_FORMATTERS.put(double.class, DoubleFormatter.class);
-    KNOWN_FORMATTERS.put(Double.class, DoubleFormatter.class);
-    KNOWN_FORMATTERS.put(float.class, FloatFormatter.class);
-    KNOWN_FORMATTERS.put(Float.class, FloatFormatter.class);
-    KNOWN_FORMATTERS.put(BigDecimal.class,  BigDecimalFormatter.class);
+    StringFormatter stringFormatter = new StringFormatter();
+    ShortFormatter shortFormatter = new ShortFormatter();
+    IntegerFormatter integerFormatter = new IntegerFormatter();
+    LongFormatter longFormatter = new LongFormatter();
+    CharacterFormatter characterFormatter = new CharacterFormatter();
+    BooleanFormatter booleanFormatter = new BooleanFormatter();
+    DoubleFormatter doubleFormatter = new DoubleFormatter();
+    FloatFormatter floatFormatter = new FloatFormatter();
+    KNOWN_FORMATTERS.put(String.class, stringFormatter);
+    KNOWN_FORMATTERS.put(short.class, shortFormatter);
+    KNOWN_FORMATTERS.put(Short.class, shortFormatter);
+    KNOWN_FORMATTERS.put(int.class, integerFormatter);
+    KNOWN_FORMATTERS.put(Integer.class, integerFormatter);
+    KNOWN_FORMATTERS.put(long.class, longFormatter);
+    KNOWN_FORMATTERS.put(Long.class, longFormatter);
+    KNOWN_FORMATTERS.put(Date.class, new DateFormatter());
+    KNOWN_FORMATTERS.put(LocalDate.class, new LocalDateFormatter());
+    KNOWN_FORMATTERS.put(char.class, characterFormatter);
+    KNOWN_FORMATTERS.put(Character.class, characterFormatter);
+    KNOWN_FORMATTERS.put(boolean.class, booleanFormatter);
+    KNOWN_FORMATTERS.put(Boolean.class, booleanFormatter);
+    KNOWN_FORMATTERS.put(double.class, doubleFormatter);
+    KNOWN_FORMATTERS.put(Double.class, doubleFormatter);
+    KNOWN_FORMATTERS.put(float.class, floatFormatter);
+    KNOWN_FORMATTERS.put(Float.class, floatFormatter);
+    KNOWN_FORMATTERS.put(BigDecimal.class, new BigDecimalFormatter());
   }
 
   public ByTypeFormatter(FormatContext context) {
     this.context = context;
+    //resolved once. The lookup is postponed to first use for datatypes we don't know, ex. nested records
+    this.formatter = KNOWN_FORMATTERS.get(context.getDataType());
   }
 
 
   public Object parse(String value, FormatInstructions instructions) {
-    FixedFormatter formatter = actualFormatter(context.getDataType());
-    return formatter.parse(value, instructions);
+    return formatter().parse(value, instructions);
   }
 
   public String format(Object value, FormatInstructions instructions) {
-    FixedFormatter formatter = actualFormatter(context.getDataType());
-    return formatter.format(value, instructions);
+    return formatter().format(value, instructions);
   }
 
-  public FixedFormatter actualFormatter(final Class<? extends Object> dataType) {
-    Class<? extends FixedFormatter> formatterClass = KNOWN_FORMATTERS.get(dataType);
+  private FixedFormatter formatter() {
+    return formatter != null ? formatter : actualFormatter(context.getDataType());
+  }
 
-    if (formatterClass != null) {
-      try {
-        return formatterClass.getConstructor().newInstance();
-      } catch (NoSuchMethodException e) {
-        throw new FixedFormatException("Could not create instance of[" + formatterClass.getName() + "] because no default constructor exists");
-      } catch (Exception e) {
-        throw new FixedFormatException("Could not create instance of[" + formatterClass.getName() + "]", e);
-      }
-    } else {
+  /**
+   * Get the formatter used for the given datatype. The built-in formatters are stateless and shared.
+   *
+   * @param dataType the datatype to format
+   * @return the formatter used for the datatype
+   * @throws FixedFormatException if the datatype isn't supported
+   */
+  public FixedFormatter actualFormatter(final Class<? extends Object> dataType) {
+    FixedFormatter result = getKnownFormatter(dataType);
+    if (result == null) {
       throw new FixedFormatException(ByTypeFormatter.class.getName() + " cannot handle datatype[" + dataType.getName() + "]. Provide your own custom FixedFormatter for this datatype.");
     }
+    return result;
+  }
+
+  /**
+   * Get the shared built-in formatter for the given datatype.
+   *
+   * @param dataType the datatype to format
+   * @return the built-in formatter or <code>null</code> if the datatype isn't supported
+   * @since 1.6.0
+   */
+  public static FixedFormatter getKnownFormatter(Class<?> dataType) {
+    return KNOWN_FORMATTERS.get(dataType);
   }
 }
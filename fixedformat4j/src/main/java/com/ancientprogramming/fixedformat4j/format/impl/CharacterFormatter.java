@@ -16,21 +16,41 @@
 package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatByteParser;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.lang.StringUtils;
 
+import java.nio.ByteBuffer;
+
 /**
  * Formatter for {@link Character} data
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class CharacterFormatter extends AbstractFixedFormatter<Character> {
+public class CharacterFormatter extends AbstractFixedFormatter<Character> implements FixedFormatByteParser<Character> {
 
   private static final Log LOG = LogFactory.getLog(CharacterFormatter.class);
 
+  /**
+   * Decodes the first byte left after the padding is removed.
+   */
+  public Character parse(ByteBuffer data, int offset, int length, SingleByteCharset charset, FormatInstructions instructions) {
+    int from = removePaddingStart(data, offset, offset + length, charset, instructions);
+    int to = removePaddingEnd(data, from, offset + length, charset, instructions);
+    if (from == to) {
+      return null;
+    }
+    Character result = charset.decode(data.get(from));
+    if (to - from > 1) {
+      LOG.warn("found more than one character[" + charset.decode(data, from, to - from) + "] after reading instructions from record. Will return first character[" + result + "]");
+    }
+    return result;
+  }
+
   public Character asObject(String string, FormatInstructions instructions) {
     Character result = null;
     if (!StringUtils.isEmpty(string)) {
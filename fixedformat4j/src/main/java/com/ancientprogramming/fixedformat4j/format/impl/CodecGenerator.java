@@ -0,0 +1,476 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatterRegistry;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.codec.CodecWriter;
+import com.ancientprogramming.fixedformat4j.format.codec.FieldModel;
+import com.ancientprogramming.fixedformat4j.format.codec.RecordCodec;
+import com.ancientprogramming.fixedformat4j.format.codec.RecordModel;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.getCodecClassName;
+import static java.lang.String.format;
+
+/**
+ * Generates a {@link RecordCodec} for a {@link RecordLayout} at runtime.
+ * <p/>
+ * The codec source is written by the same {@link CodecWriter} as used by the fixedformat4j-processor and compiled in
+ * memory by the java compiler found through {@link ToolProvider#getSystemJavaCompiler()}. Starting the compiler takes
+ * a few seconds the first time a codec is generated. No codecs are generated when running on a JRE without the
+ * compiler. The class is defined in the package of the record through {@link MethodHandles.Lookup}, as a hidden class
+ * when the JVM supports it. On a Java 8 JVM the class is defined by the class loader of the record.
+ * <p/>
+ * Compiled codec classes are shared between managers producing the same source for a record class.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+class CodecGenerator {
+
+  private static final Log LOG = LogFactory.getLog(CodecGenerator.class);
+
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+
+  //null if running on a JRE
+  private static final JavaCompiler COMPILER = findCompiler();
+
+  //marks sources the codec couldn't be compiled or defined for
+  private static final Object FAILED = new Object();
+
+  private static final ClassValue<ConcurrentMap<String, Object>> CODEC_CLASSES = new ClassValue<ConcurrentMap<String, Object>>() {
+    protected ConcurrentMap<String, Object> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<String, Object>();
+    }
+  };
+
+  private CodecGenerator() {
+  }
+
+  /**
+   * Generate a codec for the layout.
+   *
+   * @param layout the layout of the record
+   * @param formatterRegistry the registry used to tell if formatters are stateful
+   * @return the codec or <code>null</code> if no codec could be generated for the record
+   */
+  @SuppressWarnings({"unchecked"})
+  static <T> RecordCodec<T> generate(RecordLayout<T> layout, FixedFormatterRegistry formatterRegistry) {
+    if (COMPILER == null) {
+      return null;
+    }
+    Class<T> recordClass = layout.getRecordClass();
+    String codecName = simpleName(getCodecClassName(recordClass.getName()));
+    Access access = new Access(recordClass);
+    RecordModel model;
+    try {
+      model = createModel(layout, formatterRegistry, codecName, access);
+    } catch (CodecGenerationException e) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(format("no codec generated for %s: %s", recordClass.getName(), e.getMessage()));
+      }
+      return null;
+    }
+
+    String source = CodecWriter.write(model, CodecGenerator.class.getName());
+    ConcurrentMap<String, Object> codecClasses = CODEC_CLASSES.get(recordClass);
+    Object codecClass = codecClasses.get(source);
+    if (codecClass == null) {
+      codecClass = compileAndDefine(layout, formatterRegistry, codecName + "_" + COUNTER.incrementAndGet(), access);
+      Object existing = codecClasses.putIfAbsent(source, codecClass);
+      if (existing != null) {
+        codecClass = existing;
+      }
+    }
+    if (codecClass == FAILED) {
+      return null;
+    }
+    try {
+      return (RecordCodec<T>) ((Class<?>) codecClass).getConstructor().newInstance();
+    } catch (Exception e) {
+      LOG.warn(format("unable to create instance of generated codec for %s. Falling back to reflection", recordClass.getName()), e);
+      return null;
+    }
+  }
+
+  private static Object compileAndDefine(RecordLayout<?> layout, FixedFormatterRegistry formatterRegistry, String codecName, Access access) {
+    Class<?> recordClass = layout.getRecordClass();
+    try {
+      RecordModel model = createModel(layout, formatterRegistry, codecName, access);
+      String source = CodecWriter.write(model, CodecGenerator.class.getName());
+      byte[] bytes = compile(model.getQualifiedCodecName(), source, access.referencedClasses);
+      Class<?> codecClass = define(recordClass, model.getQualifiedCodecName(), bytes, access.packageAccess);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(format("generated codec %s for %s", codecClass.getName(), recordClass.getName()));
+      }
+      return codecClass;
+    } catch (CodecGenerationException e) {
+      LOG.warn(format("could not generate codec for %s. Falling back to reflection: %s", recordClass.getName(), e.getMessage()));
+      return FAILED;
+    }
+  }
+
+  private static RecordModel createModel(RecordLayout<?> layout, FixedFormatterRegistry formatterRegistry, String codecName, Access access) throws CodecGenerationException {
+    Class<?> recordClass = layout.getRecordClass();
+    assertInstantiable(recordClass, access);
+    Map<FieldLayout, FieldModel> models = new HashMap<FieldLayout, FieldModel>();
+    List<FieldModel> loadFields = new ArrayList<FieldModel>();
+    for (FieldLayout field : layout.getLoadFields()) {
+      loadFields.add(fieldModel(models, field, formatterRegistry, access));
+    }
+    List<FieldModel> exportFields = new ArrayList<FieldModel>();
+    for (FieldLayout field : layout.getExportFields()) {
+      exportFields.add(fieldModel(models, field, formatterRegistry, access));
+    }
+    String packageName = packageName(recordClass.getName());
+    return new RecordModel(packageName, codecName, recordClass.getCanonicalName(), layout.getRecord().length(), layout.getRecord().paddingChar(), loadFields, exportFields);
+  }
+
+  private static void assertInstantiable(Class<?> recordClass, Access access) throws CodecGenerationException {
+    if (recordClass.getCanonicalName() == null) {
+      throw new CodecGenerationException("local and anonymous classes are not supported");
+    }
+    if (recordClass.getEnclosingClass() != null && !Modifier.isStatic(recordClass.getModifiers())) {
+      throw new CodecGenerationException("inner classes are not supported");
+    }
+    if (Modifier.isAbstract(recordClass.getModifiers())) {
+      throw new CodecGenerationException("the class is abstract");
+    }
+    access.assertAccessible(recordClass);
+    Constructor<?> constructor;
+    try {
+      constructor = recordClass.getDeclaredConstructor();
+    } catch (NoSuchMethodException e) {
+      throw new CodecGenerationException("the class has no default constructor");
+    }
+    if (Modifier.isPrivate(constructor.getModifiers())) {
+      throw new CodecGenerationException("the default constructor is private");
+    }
+    if (!Modifier.isPublic(constructor.getModifiers())) {
+      access.packageAccess = true;
+    }
+  }
+
+  private static FieldModel fieldModel(Map<FieldLayout, FieldModel> models, FieldLayout field, FixedFormatterRegistry formatterRegistry, Access access) throws CodecGenerationException {
+    FieldModel model = models.get(field);
+    if (model == null) {
+      model = createFieldModel(field, formatterRegistry, access);
+      models.put(field, model);
+    }
+    return model;
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static FieldModel createFieldModel(FieldLayout field, FixedFormatterRegistry formatterRegistry, Access access) throws CodecGenerationException {
+    Class<?> datatype = field.getDatatype();
+    access.assertAccessible(datatype);
+    String typeName = datatype.getCanonicalName();
+    if (typeName == null) {
+      throw new CodecGenerationException(format("the datatype %s has no canonical name", datatype.getName()));
+    }
+    String boxedTypeName = datatype.isPrimitive() ? MethodType.methodType(datatype).wrap().returnType().getName() : typeName;
+
+    Class<? extends FixedFormatter> formatterClass = field.getContext().getFormatter();
+    access.assertAccessible(formatterClass);
+    Class<?> formatterImplClass;
+    boolean takesContext;
+    boolean stateful;
+    FixedFormatter knownFormatter = ByTypeFormatter.getKnownFormatter(datatype);
+    if (formatterClass == ByTypeFormatter.class && knownFormatter != null) {
+      formatterImplClass = knownFormatter.getClass();
+      takesContext = false;
+      stateful = false;
+    } else {
+      if (Modifier.isAbstract(formatterClass.getModifiers())) {
+        throw new CodecGenerationException(format("the formatter %s is abstract", formatterClass.getName()));
+      }
+      formatterImplClass = formatterClass;
+      takesContext = hasPublicConstructor(formatterClass, FormatContext.class);
+      if (!takesContext && !hasPublicConstructor(formatterClass)) {
+        throw new CodecGenerationException(format("the formatter %s has no default constructor and no constructor with %s as argument", formatterClass.getName(), FormatContext.class.getName()));
+      }
+      stateful = !formatterRegistry.isShared(formatterClass);
+    }
+    access.assertAccessible(formatterImplClass);
+
+    Method setter = field.getSetter();
+    boolean recordValuePossible = !datatype.isPrimitive() && (field.isNestedRecord() || !Modifier.isFinal(datatype.getModifiers()));
+    return new FieldModel(field.getGetter().getName(), setter != null ? setter.getName() : null, typeName, boxedTypeName, field.getOffset(), field.getInstructions(),
+        formatterClass.getCanonicalName(), formatterImplClass.getCanonicalName(), takesContext, stateful, field.isNestedRecord(), recordValuePossible);
+  }
+
+  private static boolean hasPublicConstructor(Class<?> type, Class<?>... parameterTypes) {
+    try {
+      type.getConstructor(parameterTypes);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static JavaCompiler findCompiler() {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      LOG.warn("no java compiler available. Codecs can only be generated when running on a JDK, records without a compiled codec are handled through reflection");
+    }
+    return compiler;
+  }
+
+  private static byte[] compile(String className, final String source, Set<Class<?>> referencedClasses) throws CodecGenerationException {
+    JavaCompiler compiler = COMPILER;
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+    InMemoryFileManager fileManager = new InMemoryFileManager(compiler.getStandardFileManager(diagnostics, null, Charset.forName("UTF-8")));
+    JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+    List<String> options = Arrays.asList("-classpath", classpath(referencedClasses), "-proc:none", "-nowarn", "-g:source,lines");
+    Boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, Collections.singletonList(sourceFile)).call();
+    byte[] bytes = fileManager.classes.get(className);
+    if (!Boolean.TRUE.equals(success) || bytes == null) {
+      throw new CodecGenerationException(format("compilation failed %s", diagnostics.getDiagnostics()));
+    }
+    return bytes;
+  }
+
+  /**
+   * The classpath of the application and the locations of every class the codec refers to, so codecs can be compiled
+   * for classes loaded by other class loaders than the application class loader.
+   */
+  private static String classpath(Set<Class<?>> referencedClasses) {
+    Set<String> entries = new LinkedHashSet<String>();
+    entries.add(location(RecordCodec.class));
+    for (Class<?> type : referencedClasses) {
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        entries.add(location(c));
+        for (Class<?> i : c.getInterfaces()) {
+          entries.add(location(i));
+        }
+      }
+    }
+    entries.addAll(Arrays.asList(System.getProperty("java.class.path", "").split(File.pathSeparator)));
+    entries.remove(null);
+    entries.remove("");
+    StringBuilder result = new StringBuilder();
+    for (String entry : entries) {
+      if (result.length() > 0) {
+        result.append(File.pathSeparatorChar);
+      }
+      result.append(entry);
+    }
+    return result.toString();
+  }
+
+  private static String location(Class<?> type) {
+    try {
+      CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+      URL location = codeSource != null ? codeSource.getLocation() : null;
+      return location != null ? new File(location.toURI()).getPath() : null;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Define the class in the package of the record through a private lookup (java 9 and later),
+   * or by the class loader of the record (java 8).
+   */
+  private static Class<?> define(Class<?> recordClass, String className, byte[] bytes, boolean packageAccess) throws CodecGenerationException {
+    MethodHandles.Lookup lookup;
+    try {
+      Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+      lookup = (MethodHandles.Lookup) privateLookupIn.invoke(null, recordClass, MethodHandles.lookup());
+    } catch (NoSuchMethodException e) {
+      lookup = null;
+    } catch (InvocationTargetException e) {
+      throw new CodecGenerationException(format("no access to the package of the record: %s", e.getCause()));
+    } catch (IllegalAccessException e) {
+      throw new CodecGenerationException(format("no access to the package of the record: %s", e));
+    }
+
+    if (lookup == null) {
+      return defineByClassLoader(recordClass, className, bytes, packageAccess);
+    }
+
+    try {
+      try {
+        Class<?> optionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+        Method defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, Array.newInstance(optionClass, 0).getClass());
+        MethodHandles.Lookup hidden = (MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true, Array.newInstance(optionClass, 0));
+        return hidden.lookupClass();
+      } catch (ClassNotFoundException e) {
+        return (Class<?>) MethodHandles.Lookup.class.getMethod("defineClass", byte[].class).invoke(lookup, new Object[]{bytes});
+      } catch (NoSuchMethodException e) {
+        return (Class<?>) MethodHandles.Lookup.class.getMethod("defineClass", byte[].class).invoke(lookup, new Object[]{bytes});
+      }
+    } catch (InvocationTargetException e) {
+      throw new CodecGenerationException(format("could not define the codec: %s", e.getCause()));
+    } catch (Exception e) {
+      throw new CodecGenerationException(format("could not define the codec: %s", e));
+    }
+  }
+
+  /**
+   * Define the class by the class loader of the record, so it is in the same runtime package as the record. If the
+   * class loader can't be accessed the class is defined by a child class loader, which only works if the codec
+   * doesn't need package access.
+   */
+  private static Class<?> defineByClassLoader(Class<?> recordClass, String className, byte[] bytes, boolean packageAccess) throws CodecGenerationException {
+    ClassLoader classLoader = recordClass.getClassLoader();
+    try {
+      Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class, int.class, ProtectionDomain.class);
+      defineClass.setAccessible(true);
+      return (Class<?>) defineClass.invoke(classLoader, className, bytes, 0, bytes.length, recordClass.getProtectionDomain());
+    } catch (InvocationTargetException e) {
+      throw new CodecGenerationException(format("could not define the codec: %s", e.getCause()));
+    } catch (Exception e) {
+      if (packageAccess) {
+        throw new CodecGenerationException(format("the codec needs package access to the record but the class loader of the record is not accessible: %s", e));
+      }
+      return new CodecClassLoader(classLoader).define(className, bytes);
+    }
+  }
+
+  private static String packageName(String className) {
+    int index = className.lastIndexOf('.');
+    return index == -1 ? "" : className.substring(0, index);
+  }
+
+  private static String simpleName(String className) {
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * Tracks the classes referred to by the codec and whether the codec needs access to package private members.
+   */
+  private static class Access {
+    private final Class<?> recordClass;
+    private final Set<Class<?>> referencedClasses = new LinkedHashSet<Class<?>>();
+    private boolean packageAccess;
+
+    Access(Class<?> recordClass) {
+      this.recordClass = recordClass;
+    }
+
+    void assertAccessible(Class<?> type) throws CodecGenerationException {
+      while (type.isArray()) {
+        type = type.getComponentType();
+      }
+      if (type.isPrimitive()) {
+        return;
+      }
+      referencedClasses.add(type);
+      for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+        if (Modifier.isPrivate(c.getModifiers())) {
+          throw new CodecGenerationException(format("%s is private", type.getName()));
+        }
+        if (!Modifier.isPublic(c.getModifiers())) {
+          if (c.getClassLoader() != recordClass.getClassLoader() || !packageName(c.getName()).equals(packageName(recordClass.getName()))) {
+            throw new CodecGenerationException(format("%s is not accessible from the package of the record", type.getName()));
+          }
+          packageAccess = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the compiled classes in memory.
+   */
+  private static class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private final Map<String, byte[]> classes = new HashMap<String, byte[]>();
+
+    InMemoryFileManager(StandardJavaFileManager fileManager) {
+      super(fileManager);
+    }
+
+    public JavaFileObject getJavaFileForOutput(Location location, final String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+      return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+        public OutputStream openOutputStream() {
+          return new ByteArrayOutputStream() {
+            public void close() throws IOException {
+              super.close();
+              classes.put(className, toByteArray());
+            }
+          };
+        }
+      };
+    }
+  }
+
+  /**
+   * Defines codecs on JVMs without {@link MethodHandles.Lookup} support for defining classes if the class loader of
+   * the record is not accessible.
+   */
+  private static class CodecClassLoader extends ClassLoader {
+    CodecClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String className, byte[] bytes) {
+      return defineClass(className, bytes, 0, bytes.length);
+    }
+  }
+
+  /**
+   * Thrown when no codec can be generated for a record.
+   */
+  private static class CodecGenerationException extends Exception {
+    CodecGenerationException(String message) {
+      super(message);
+    }
+  }
+}
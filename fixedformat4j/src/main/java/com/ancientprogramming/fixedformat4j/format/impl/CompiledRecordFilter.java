@@ -0,0 +1,342 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FieldCondition;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.RecordFilter;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link RecordFilter} compiled against a {@link RecordLayout}. Each condition is turned into a matcher knowing the
+ * range of its field and the expected chars. Matchers that parse their field run last.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+class CompiledRecordFilter<T> implements RecordFilter<T> {
+
+  //above this many values the raw field is looked up by hash instead of compared with each value
+  private static final int MAX_LINEAR_VALUES = 4;
+
+  private final FixedFormatManagerImpl manager;
+  private final RecordLayout<T> layout;
+  private final FieldMatcher[] matchers;
+
+  CompiledRecordFilter(FixedFormatManagerImpl manager, RecordLayout<T> layout) {
+    this(manager, layout, new FieldMatcher[0]);
+  }
+
+  private CompiledRecordFilter(FixedFormatManagerImpl manager, RecordLayout<T> layout, FieldMatcher[] matchers) {
+    this.manager = manager;
+    this.layout = layout;
+    this.matchers = matchers;
+  }
+
+  public Class<T> getRecordClass() {
+    return layout.getRecordClass();
+  }
+
+  public RecordFilter<T> where(String getterName, FieldCondition condition) {
+    FieldLayout field = null;
+    for (FieldLayout candidate : layout.getLoadFields()) {
+      if (field == null && candidate.getGetter().getName().equals(getterName)) {
+        field = candidate;
+      }
+    }
+    if (field == null) {
+      throw new FixedFormatException(format("%s isn't a field of %s", getterName, layout.getRecordClass().getName()));
+    }
+    if (field.isNestedRecord()) {
+      throw new FixedFormatException(format("%s of %s is a nested record and can't be filtered on", getterName, layout.getRecordClass().getName()));
+    }
+    if (condition.getKind() != FieldCondition.Kind.STARTS_WITH) {
+      Class<?> datatype = MethodType.methodType(field.getDatatype()).wrap().returnType();
+      for (Object value : condition.getValues()) {
+        if (value != null && !datatype.isInstance(value)) {
+          throw new FixedFormatException(format("%s of %s is a %s and can't be compared with the %s %s", getterName, layout.getRecordClass().getName(), field.getDatatype().getName(), value.getClass().getName(), value));
+        }
+      }
+    }
+    FieldMatcher matcher;
+    switch (condition.getKind()) {
+      case IN:
+        matcher = new InMatcher(field, condition.getValues());
+        break;
+      case BETWEEN:
+        matcher = new RangeMatcher(manager, layout.getRecordClass(), field, condition.getValues());
+        break;
+      default:
+        matcher = new PrefixMatcher(field, (String) condition.getValues().get(0));
+    }
+    FieldMatcher[] newMatchers = Arrays.copyOf(matchers, matchers.length + 1);
+    int i = newMatchers.length - 1;
+    if (!matcher.parses()) {
+      for (; i > 0 && newMatchers[i - 1].parses(); i--) {
+        newMatchers[i] = newMatchers[i - 1];
+      }
+    }
+    newMatchers[i] = matcher;
+    return new CompiledRecordFilter<T>(manager, layout, newMatchers);
+  }
+
+  public boolean matches(CharSequence data) {
+    return matches(data, 0, data.length());
+  }
+
+  public boolean matches(CharSequence data, int start, int end) {
+    for (FieldMatcher matcher : matchers) {
+      if (!matcher.matches(data, start, end)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public boolean matches(ByteBuffer data, int offset, int length, SingleByteCharset charset) {
+    return matches(new DecodedBytes(data, offset, length, charset), 0, length);
+  }
+
+  public String toString() {
+    return "RecordFilter{" + layout.getRecordClass().getName() + ", " + Arrays.toString(matchers) + '}';
+  }
+
+  private abstract static class FieldMatcher {
+
+    final FieldLayout field;
+    final int offset;
+
+    FieldMatcher(FieldLayout field) {
+      this.field = field;
+      this.offset = field.getOffset() - 1;
+    }
+
+    boolean parses() {
+      return false;
+    }
+
+    abstract boolean matches(CharSequence data, int start, int end);
+
+    /**
+     * @return the index after the last char of the field in the record
+     */
+    int fieldEnd(int start, int end) {
+      return Math.min(end, start + offset + field.getLength());
+    }
+
+    public String toString() {
+      return getClass().getSimpleName() + "{" + field.getGetter().getName() + '}';
+    }
+  }
+
+  /**
+   * Compares the raw field with the values formatted by the formatter of the field. Values longer than the field can't
+   * be held by a record and never match.
+   */
+  private static final class InMatcher extends FieldMatcher {
+
+    private final char[][] values;
+    private final Map<Integer, char[][]> byHash;
+
+    @SuppressWarnings({"unchecked"})
+    InMatcher(FieldLayout field, List<Object> values) {
+      super(field);
+      List<char[]> formatted = new ArrayList<char[]>(values.size());
+      for (Object value : values) {
+        if (value == null || !isTooLong(field, value)) {
+          formatted.add(field.getFormatter().format(value, field.getInstructions()).toCharArray());
+        }
+      }
+      this.values = formatted.toArray(new char[formatted.size()][]);
+      if (this.values.length > MAX_LINEAR_VALUES) {
+        byHash = new HashMap<Integer, char[][]>();
+        for (char[] value : this.values) {
+          int hash = hash(value, 0, value.length);
+          char[][] existing = byHash.get(hash);
+          char[][] bucket = existing == null ? new char[1][] : Arrays.copyOf(existing, existing.length + 1);
+          bucket[bucket.length - 1] = value;
+          byHash.put(hash, bucket);
+        }
+      } else {
+        byHash = null;
+      }
+    }
+
+    boolean matches(CharSequence data, int start, int end) {
+      int from = start + offset;
+      int to = fieldEnd(start, end);
+      char[][] candidates = byHash == null ? values : byHash.get(hash(data, from, to));
+      if (candidates != null) {
+        for (char[] candidate : candidates) {
+          if (candidate.length == to - from && regionMatches(data, from, candidate)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private int hash(char[] value, int from, int to) {
+      int hash = 0;
+      for (int i = from; i < to; i++) {
+        hash = 31 * hash + value[i];
+      }
+      return hash;
+    }
+
+    private int hash(CharSequence value, int from, int to) {
+      int hash = 0;
+      for (int i = from; i < to; i++) {
+        hash = 31 * hash + value.charAt(i);
+      }
+      return hash;
+    }
+  }
+
+  /**
+   * Compares the start of the raw field, after the padding of right aligned fields, with the prefix.
+   */
+  private static final class PrefixMatcher extends FieldMatcher {
+
+    private final char[] prefix;
+
+    PrefixMatcher(FieldLayout field, String prefix) {
+      super(field);
+      this.prefix = prefix.toCharArray();
+    }
+
+    boolean matches(CharSequence data, int start, int end) {
+      int from = start + offset;
+      int to = fieldEnd(start, end);
+      if (field.getInstructions().getAlignment() == Align.RIGHT) {
+        char paddingChar = field.getInstructions().getPaddingChar();
+        while (from < to && data.charAt(from) == paddingChar) {
+          from++;
+        }
+      }
+      return to - from >= prefix.length && regionMatches(data, from, prefix);
+    }
+  }
+
+  /**
+   * Parses the field, and only the field, and compares it with the bounds.
+   */
+  private static final class RangeMatcher extends FieldMatcher {
+
+    private final FixedFormatManagerImpl manager;
+    private final Class<?> recordClass;
+    private final Comparable<Object> from;
+    private final Comparable<Object> to;
+
+    @SuppressWarnings({"unchecked"})
+    RangeMatcher(FixedFormatManagerImpl manager, Class<?> recordClass, FieldLayout field, List<Object> bounds) {
+      super(field);
+      this.manager = manager;
+      this.recordClass = recordClass;
+      this.from = (Comparable<Object>) bounds.get(0);
+      this.to = (Comparable<Object>) bounds.get(1);
+    }
+
+    boolean parses() {
+      return true;
+    }
+
+    boolean matches(CharSequence data, int start, int end) {
+      Object value = manager.readDataAccordingFieldLayout(recordClass, data, start, end, field);
+      return value != null && (from == null || from.compareTo(value) <= 0) && (to == null || to.compareTo(value) >= 0);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the value is longer than the field before it is padded, and so would be cut by the
+   * formatter
+   */
+  @SuppressWarnings({"unchecked"})
+  private static boolean isTooLong(FieldLayout field, Object value) {
+    FormatInstructions instructions = field.getInstructions();
+    FixedFormatter formatter = field.getFormatter();
+    if (formatter instanceof ByTypeFormatter) {
+      formatter = ((ByTypeFormatter) formatter).actualFormatter(field.getDatatype());
+    }
+    String text;
+    if (formatter instanceof AbstractFixedFormatter) {
+      text = ((AbstractFixedFormatter) formatter).asString(value, instructions);
+    } else {
+      //formatters of their own are only known by their padded result. Format one char wider than the field
+      FormatInstructions wider = new FormatInstructions(instructions.getLength() + 1, instructions.getAlignment(), instructions.getPaddingChar(),
+          instructions.getFixedFormatPatternData(), instructions.getFixedFormatBooleanData(), instructions.getFixedFormatNumberData(), instructions.getFixedFormatDecimalData());
+      text = instructions.getAlignment().remove(formatter.format(value, wider), instructions.getPaddingChar());
+    }
+    return text != null && text.length() > instructions.getLength();
+  }
+
+  private static boolean regionMatches(CharSequence data, int from, char[] expected) {
+    for (int i = 0; i < expected.length; i++) {
+      if (data.charAt(from + i) != expected[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The bytes of a record in a single byte charset seen as chars, decoded one by one when read.
+   */
+  private static final class DecodedBytes implements CharSequence {
+
+    private final ByteBuffer data;
+    private final int offset;
+    private final int length;
+    private final SingleByteCharset charset;
+
+    DecodedBytes(ByteBuffer data, int offset, int length, SingleByteCharset charset) {
+      this.data = data;
+      this.offset = offset;
+      this.length = length;
+      this.charset = charset;
+    }
+
+    public int length() {
+      return length;
+    }
+
+    public char charAt(int index) {
+      return charset.decode(data.get(offset + index));
+    }
+
+    public CharSequence subSequence(int start, int end) {
+      return charset.decode(data, offset + start, end - start);
+    }
+
+    public String toString() {
+      return charset.decode(data, offset, length);
+    }
+  }
+}
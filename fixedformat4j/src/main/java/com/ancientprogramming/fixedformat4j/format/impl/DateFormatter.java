@@ -24,16 +24,32 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * Formatter for {@link java.util.Date} data.
  * The formatting and parsing is perfomed by using an instance of the {@link SimpleDateFormat} class.
+ * <p/>
+ * As {@link SimpleDateFormat} isn't thread safe, each thread keeps its own instance per pattern. The instances are
+ * created again if the default locale changes and are set to the default time zone before they are used. A thread
+ * keeps the instances of the {@link #MAX_PATTERNS} most recently used patterns.
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
 public class DateFormatter extends AbstractFixedFormatter<Date> {
 
+  static final int MAX_PATTERNS = 64;
+
+  private static final ThreadLocal<ThreadFormatters> FORMATTERS = new ThreadLocal<ThreadFormatters>() {
+    protected ThreadFormatters initialValue() {
+      return new ThreadFormatters();
+    }
+  };
+
   public Date asObject(String string, FormatInstructions instructions) throws FixedFormatException {
     Date result = null;
 
@@ -56,6 +72,32 @@ public class DateFormatter extends AbstractFixedFormatter<Date> {
   }
 
   DateFormat getFormatter(String pattern) {
-    return new SimpleDateFormat(pattern);
+    ThreadFormatters threadFormatters = FORMATTERS.get();
+    Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    if (!locale.equals(threadFormatters.locale)) {
+      threadFormatters.formatters.clear();
+      threadFormatters.locale = locale;
+    }
+    DateFormat formatter = threadFormatters.formatters.get(pattern);
+    if (formatter == null) {
+      formatter = new SimpleDateFormat(pattern);
+      threadFormatters.formatters.put(pattern, formatter);
+    } else {
+      //parsing a zone changes the zone of the formatter
+      formatter.setTimeZone(TimeZone.getDefault());
+    }
+    return formatter;
+  }
+
+  /**
+   * The formatters created by a thread for the locale.
+   */
+  private static final class ThreadFormatters {
+    private final Map<String, DateFormat> formatters = new LinkedHashMap<String, DateFormat>(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<String, DateFormat> eldest) {
+        return size() > MAX_PATTERNS;
+      }
+    };
+    private Locale locale;
   }
 }
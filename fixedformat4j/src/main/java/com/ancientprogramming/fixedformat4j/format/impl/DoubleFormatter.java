@@ -25,8 +25,28 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  */
 public class DoubleFormatter extends AbstractDecimalFormatter<Double> {
 
+  //the biggest number of digits and power of ten that converts exactly to a double
+  private static final long MAX_EXACT_DIGITS = 1L << 53;
+  private static final int MAX_EXACT_SCALE = 18;
+
   public Double asObject(String string, FormatInstructions instructions) {
-    String toConvert = getStringToConvert(string, instructions);
-    return Double.parseDouble("".equals(toConvert) ? "0" : toConvert);
+    Double result = asScaledObject(string, instructions);
+    if (result == null) {
+      String toConvert = getStringToConvert(string, instructions);
+      result = Double.parseDouble("".equals(toConvert) ? "0" : toConvert);
+    }
+    return result;
+  }
+
+  /**
+   * Divides the digits by the power of ten if both are exact doubles. The division is then rounded the same way as
+   * {@link Double#parseDouble(String)}.
+   */
+  protected Double asObject(boolean negative, long unscaled, int scale) {
+    if (unscaled > MAX_EXACT_DIGITS || scale > MAX_EXACT_SCALE) {
+      return null;
+    }
+    double value = unscaled / (double) POWERS_OF_TEN[scale];
+    return negative ? -value : value;
   }
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatByteParser;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatCharParser;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatCharWriter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatterRegistry;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Immutable description of a single {@link Field} annotation on a getter in a record.
+ * Holds everything that is needed to load and export the field, so nothing has to be looked up per record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class FieldLayout {
+
+  private final String propertyName;
+  private final Method getter;
+  private final Method setter;
+  private final Class<?> datatype;
+  private final Field fieldAnnotation;
+  private final FormatContext context;
+  private final FormatInstructions instructions;
+  private final FixedFormatterRegistry formatterRegistry;
+  private final FixedFormatter formatter;
+  private final boolean nestedRecord;
+  private final FixedFormatByteParser byteParser;
+  private final FixedFormatCharParser charParser;
+  private final FixedFormatCharWriter charWriter;
+  private final Function<Object, Object> getterAccessor;
+  private final BiConsumer<Object, Object> setterAccessor;
+
+  FieldLayout(String propertyName, Method getter, Method setter, Class<?> datatype, Field fieldAnnotation, FormatContext context, FormatInstructions instructions, FixedFormatterRegistry formatterRegistry, boolean nestedRecord) {
+    this.propertyName = propertyName;
+    this.getter = getter;
+    this.setter = setter;
+    this.datatype = datatype;
+    this.fieldAnnotation = fieldAnnotation;
+    this.context = context;
+    this.instructions = instructions;
+    this.formatterRegistry = formatterRegistry;
+    this.formatter = formatterRegistry.isShared(context.getFormatter()) ? formatterRegistry.getFormatter(context) : null;
+    this.nestedRecord = nestedRecord;
+    this.byteParser = byteParser(context, datatype);
+    this.charParser = charParser(context, datatype);
+    this.charWriter = charWriter(context, datatype, instructions);
+    this.getterAccessor = PropertyAccessors.getter(getter);
+    this.setterAccessor = setter != null ? PropertyAccessors.setter(setter) : null;
+  }
+
+  /**
+   * Reads the value of the field from the record through the bound getter.
+   *
+   * @param record the record to read from
+   * @return the value returned by the getter
+   */
+  public Object getValue(Object record) {
+    return getterAccessor.apply(record);
+  }
+
+  /**
+   * Writes the value to the record through the bound setter.
+   *
+   * @param record the record to write to
+   * @param value the value to pass to the setter
+   * @throws NullPointerException if the field has no setter
+   */
+  public void setValue(Object record, Object value) {
+    setterAccessor.accept(record, value);
+  }
+
+  /**
+   * @return the name of the property without the get/is prefix. Ex. <code>StringData</code>
+   */
+  public String getPropertyName() {
+    return propertyName;
+  }
+
+  public Method getGetter() {
+    return getter;
+  }
+
+  /**
+   * @return the setter matching the getter or <code>null</code> if the property is export only
+   */
+  public Method getSetter() {
+    return setter;
+  }
+
+  public Class<?> getDatatype() {
+    return datatype;
+  }
+
+  public Field getFieldAnnotation() {
+    return fieldAnnotation;
+  }
+
+  /**
+   * @return the one based offset of the field
+   */
+  public int getOffset() {
+    return context.getOffset();
+  }
+
+  public int getLength() {
+    return instructions.getLength();
+  }
+
+  public FormatContext getContext() {
+    return context;
+  }
+
+  public FormatInstructions getInstructions() {
+    return instructions;
+  }
+
+  /**
+   * @return the shared formatter of the field or a new instance if the formatter is stateful
+   */
+  @SuppressWarnings({"unchecked"})
+  public FixedFormatter getFormatter() {
+    return formatter != null ? formatter : formatterRegistry.getFormatter(context);
+  }
+
+  /**
+   * @return the built-in formatter parsing the field straight from bytes or <code>null</code> if the field is parsed
+   * from a decoded string
+   */
+  public FixedFormatByteParser getByteParser() {
+    return byteParser;
+  }
+
+  /**
+   * Only the built-in formatters are used, as a subclass may override how the string is parsed.
+   */
+  private static FixedFormatByteParser byteParser(FormatContext context, Class<?> datatype) {
+    FixedFormatter known = ByTypeFormatter.getKnownFormatter(datatype);
+    if (known instanceof FixedFormatByteParser && (context.getFormatter() == ByTypeFormatter.class || context.getFormatter() == known.getClass())) {
+      return (FixedFormatByteParser) known;
+    }
+    return null;
+  }
+
+  /**
+   * @return the built-in formatter parsing the field straight from the record chars or <code>null</code> if the field
+   * is parsed from a string
+   */
+  public FixedFormatCharParser getCharParser() {
+    return charParser;
+  }
+
+  private static FixedFormatCharParser charParser(FormatContext context, Class<?> datatype) {
+    FixedFormatter known = ByTypeFormatter.getKnownFormatter(datatype);
+    if (known instanceof FixedFormatCharParser && (context.getFormatter() == ByTypeFormatter.class || context.getFormatter() == known.getClass())) {
+      return (FixedFormatCharParser) known;
+    }
+    return null;
+  }
+
+  /**
+   * @return the formatter writing the field straight into the exported record or <code>null</code> if the field is
+   * exported as a string
+   */
+  public FixedFormatCharWriter getCharWriter() {
+    return charWriter;
+  }
+
+  private static FixedFormatCharWriter charWriter(FormatContext context, Class<?> datatype, FormatInstructions instructions) {
+    FixedFormatter known = ByTypeFormatter.getKnownFormatter(datatype);
+    if (known instanceof FixedFormatCharWriter && instructions.getLength() > 0 && (context.getFormatter() == ByTypeFormatter.class || context.getFormatter() == known.getClass())) {
+      return (FixedFormatCharWriter) known;
+    }
+    return null;
+  }
+
+  /**
+   * @return <code>true</code> if the datatype of the field is itself annotated with the @Record annotation
+   */
+  public boolean isNestedRecord() {
+    return nestedRecord;
+  }
+
+  public String toString() {
+    return "FieldLayout{" +
+        "propertyName=" + propertyName +
+        ", context=" + context +
+        ", instructions=" + instructions +
+        '}';
+  }
+}
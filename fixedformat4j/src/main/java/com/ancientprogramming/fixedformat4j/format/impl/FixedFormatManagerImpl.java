@@ -15,40 +15,50 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
-import com.ancientprogramming.fixedformat4j.annotation.Field;
-import com.ancientprogramming.fixedformat4j.annotation.Fields;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
 import com.ancientprogramming.fixedformat4j.annotation.Record;
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatByteParser;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatCharWriter;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
-import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatterRegistry;
 import com.ancientprogramming.fixedformat4j.format.FormatContext;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
 import com.ancientprogramming.fixedformat4j.format.ParseException;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
-import org.apache.commons.lang.StringUtils;
+import com.ancientprogramming.fixedformat4j.format.Projection;
+import com.ancientprogramming.fixedformat4j.format.RecordFactory;
+import com.ancientprogramming.fixedformat4j.format.RecordFilter;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import com.ancientprogramming.fixedformat4j.format.codec.CodecStrategy;
+import com.ancientprogramming.fixedformat4j.format.codec.RecordCodec;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.math.RoundingMode;
-import java.util.HashMap;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.fetchData;
-import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.getFixedFormatterInstance;
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.getCodecClassName;
 import static java.lang.String.format;
 
 /**
  * Load and export objects to and from fixed formatted string representation
+ * <p/>
+ * Records with a {@link RecordCodec} generated by the fixedformat4j-processor are loaded and exported through the codec.
+ * All other records are loaded and exported by reading their annotations, unless the manager is created with the
+ * {@link CodecStrategy#GENERATED} strategy in which case a codec is generated at first use.
+ * <p/>
+ * Records declared as interfaces can be viewed instead of loaded. The view is a proxy parsing the fields on demand.
+ * Views are an optional operation of this implementation and not part of {@link FixedFormatManager}.
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
@@ -57,98 +67,112 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
 
   private static final Log LOG = LogFactory.getLog(FixedFormatManagerImpl.class);
 
+  //marks classes without a generated codec
+  private static final Object NO_CODEC = new Object();
+
+  //counts the runtime changes of annotations, see annotationsChanged
+  private static final AtomicInteger ANNOTATION_VERSION = new AtomicInteger();
+
+  //classes declaring annotations changed at runtime. The codecs of the fixedformat4j-processor are outdated for them
+  private static final Set<Class<?>> CHANGED_CLASSES = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<Class<?>, Boolean>()));
+
+  private final CodecStrategy codecStrategy;
+  private final FixedFormatterRegistry formatterRegistry = new FixedFormatterRegistry();
+  private final ConcurrentMap<Class<?>, RecordLayout<?>> layouts = new ConcurrentHashMap<Class<?>, RecordLayout<?>>();
+  private final Set<Class<?>> registeredLayouts = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+  private final ConcurrentMap<Class<?>, Object> codecs = new ConcurrentHashMap<Class<?>, Object>();
+  private final ConcurrentMap<Class<?>, RecordImage> images = new ConcurrentHashMap<Class<?>, RecordImage>();
+  private final ConcurrentMap<Class<?>, RecordView.Layout> views = new ConcurrentHashMap<Class<?>, RecordView.Layout>();
+  private final ConcurrentMap<Class<?>, RecordFactory<?>> recordFactories = new ConcurrentHashMap<Class<?>, RecordFactory<?>>();
+  private volatile int annotationVersion = ANNOTATION_VERSION.get();
+
+  /**
+   * Create a manager using the {@link CodecStrategy#COMPILED} strategy.
+   */
+  public FixedFormatManagerImpl() {
+    this(CodecStrategy.COMPILED);
+  }
+
+  /**
+   * @param codecStrategy decides if records are loaded and exported through codecs or reflection
+   * @since 1.6.0
+   */
+  public FixedFormatManagerImpl(CodecStrategy codecStrategy) {
+    this.codecStrategy = codecStrategy;
+  }
+
+  /**
+   * @return the strategy deciding if records are loaded and exported through codecs or reflection
+   * @since 1.6.0
+   */
+  public CodecStrategy getCodecStrategy() {
+    return codecStrategy;
+  }
+
   /**
    * @inheritDoc
    */
   public <T> T load(Class<T> fixedFormatRecordClass, String data) {
-    HashMap<String, Object> foundData = new HashMap<String, Object>();
-    HashMap<String, Class<?>> methodClass = new HashMap<String, Class<?>>();
-    //assert the record is marked with a Record
-    getAndAssertRecordAnnotation(fixedFormatRecordClass);
+    return load(fixedFormatRecordClass, data, 0, data.length());
+  }
 
-    //create instance to set data into
-    T instance = createRecordInstance(fixedFormatRecordClass);
-
-    //look for setter annotations and read data from the 'data' string
-    Method[] allMethods = fixedFormatRecordClass.getMethods();
-    for (Method method : allMethods) {
-      String methodName = stripMethodPrefix(method.getName());
-      Field fieldAnnotation = method.getAnnotation(Field.class);
-      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
-      if (fieldAnnotation != null) {
-        readFieldData(fixedFormatRecordClass, data, foundData, methodClass, method, methodName, fieldAnnotation);
-      } else if (fieldsAnnotation != null) {
-        //assert that the fields annotation contains minimum one field anno
-        if (fieldsAnnotation.value() == null || fieldsAnnotation.value().length == 0) {
-          throw new FixedFormatException(format("%s annotation must contain minimum one %s annotation", Fields.class.getName(), Field.class.getName()));
-        }
-        readFieldData(fixedFormatRecordClass, data, foundData, methodClass, method, methodName, fieldsAnnotation.value()[0]);
-      }
-    }
+  /**
+   * @inheritDoc
+   */
+  public <T> T load(Class<T> fixedFormatRecordClass, char[] data, int start, int end) {
+    return load(fixedFormatRecordClass, CharBuffer.wrap(data), start, end);
+  }
 
-    Set<String> keys = foundData.keySet();
-    for (String key : keys) {
-      String setterMethodName = "set" + key;
+  /**
+   * @inheritDoc
+   */
+  @SuppressWarnings({"unchecked"})
+  public <T> T load(Class<T> fixedFormatRecordClass, CharSequence data, int start, int end) {
+    RecordFactory<T> factory = (RecordFactory<T>) recordFactories.get(fixedFormatRecordClass);
+    RecordCodec<T> codec = getRecordCodec(fixedFormatRecordClass);
+    if (codec != null) {
+      //codecs are generated to load strings
+      String record = data.subSequence(start, end).toString();
+      return factory != null ? codec.load(record, factory.newInstance(), this) : codec.load(record, this);
+    }
 
-      Object foundDataObj = foundData.get(key);
-      if (foundDataObj != null) {
-        Class datatype = methodClass.get(key);
-        Method method;
-        try {
-          method = fixedFormatRecordClass.getMethod(setterMethodName, datatype);
-        } catch (NoSuchMethodException e) {
-          throw new FixedFormatException(format("setter method named %s.%s(%s) does not exist", fixedFormatRecordClass.getName(), setterMethodName, datatype));
-        }
-        try {
-          method.invoke(instance, foundData.get(key));
-        } catch (Exception e) {
-          throw new FixedFormatException(format("could not invoke method %s.%s(%s)", fixedFormatRecordClass.getName(), setterMethodName, datatype), e);
-        }
-      }
+    //assert the record is marked with a Record
+    RecordLayout<T> layout = getRecordLayout(fixedFormatRecordClass);
+    return loadFields(fixedFormatRecordClass, data, start, end, layout, layout.getLoadFields());
+  }
 
+  /**
+   * @inheritDoc
+   */
+  public <T> T load(Class<T> fixedFormatRecordClass, String data, Projection<T> projection) {
+    if (projection.getRecordClass() != fixedFormatRecordClass) {
+      throw new FixedFormatException(format("%s can't load %s", projection, fixedFormatRecordClass.getName()));
     }
-    return instance;
+    RecordLayout<T> layout = getRecordLayout(fixedFormatRecordClass);
+    return loadFields(fixedFormatRecordClass, data, 0, data.length(), layout, layout.getLoadFields(projection));
   }
 
-  private <T> void readFieldData(Class<T> fixedFormatRecordClass, String data, HashMap<String, Object> foundData, HashMap<String, Class<?>> methodClass, Method method, String methodName, Field fieldAnnotation) {
-    Object loadedData = readDataAccordingFieldAnnotation(fixedFormatRecordClass, data, method, fieldAnnotation);
-    foundData.put(methodName, loadedData);
-    methodClass.put(methodName, method.getReturnType());
+  /**
+   * @inheritDoc
+   */
+  public <T> RecordFilter<T> filter(Class<T> fixedFormatRecordClass) {
+    return new CompiledRecordFilter<T>(this, getRecordLayout(fixedFormatRecordClass));
   }
 
-  private <T> T createRecordInstance(Class<T> fixedFormatRecordClass) {
-    T instance;
-    try {
-      Constructor<T> constructor = fixedFormatRecordClass.getDeclaredConstructor();
-      instance = constructor.newInstance();
-    } catch (NoSuchMethodException e) {
-      //If the class is a possible inner class do some more work
-      Class declaringClass = fixedFormatRecordClass.getDeclaringClass();
-      if (declaringClass != null) {
-        try {
-          Object declaringClassInstance;
-          try {
-            Constructor declaringClassConstructor = declaringClass.getDeclaredConstructor();
-            declaringClassInstance = declaringClassConstructor.newInstance();
-          } catch (NoSuchMethodException dex) {
-            throw new FixedFormatException(format("Trying to create instance of innerclass %s, but the declaring class %s is missing a default constructor which is nessesary to be loaded through %s", fixedFormatRecordClass.getName(), declaringClass.getName(), getClass().getName()));
-          } catch (Exception de) {
-            throw new FixedFormatException(format("unable to create instance of declaring class %s, which is needed to instansiate %s", declaringClass.getName(), fixedFormatRecordClass.getName()), e);
-          }
-          Constructor<T> constructor = fixedFormatRecordClass.getDeclaredConstructor(declaringClass);
-          instance = constructor.newInstance(declaringClassInstance);
-        } catch (FixedFormatException ex) {
-          throw ex;
-        } catch (NoSuchMethodException ex) {
-          throw new FixedFormatException(format("%s is missing a default constructor which is nessesary to be loaded through %s", fixedFormatRecordClass.getName(), getClass().getName()));
-        } catch (Exception ex) {
-          throw new FixedFormatException(format("unable to create instance of %s", fixedFormatRecordClass.getName()), e);
-        }
-      } else {
-        throw new FixedFormatException(format("%s is missing a default constructor which is nessesary to be loaded through %s", fixedFormatRecordClass.getName(), getClass().getName()));
+  @SuppressWarnings({"unchecked"})
+  private <T> T loadFields(Class<T> fixedFormatRecordClass, CharSequence data, int start, int end, RecordLayout<T> layout, List<FieldLayout> fields) {
+    RecordFactory<T> factory = (RecordFactory<T>) recordFactories.get(fixedFormatRecordClass);
+
+    //create instance to set data into
+    T instance = (factory != null ? factory : layout.getRecordFactory()).newInstance();
+
+    //read data from the range of 'data' in offset order and set it through the bound setters
+    for (int i = 0, size = fields.size(); i < size; i++) {
+      FieldLayout field = fields.get(i);
+      Object value = readDataAccordingFieldLayout(fixedFormatRecordClass, data, start, end, field);
+      if (value != null) {
+        setFieldData(fixedFormatRecordClass, instance, field, value);
       }
-    } catch (Exception e) {
-      throw new FixedFormatException(format("unable to create instance of %s", fixedFormatRecordClass.getName()), e);
     }
     return instance;
   }
@@ -156,40 +180,108 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
   /**
    * @inheritDoc
    */
-  public <T> String export(String template, T fixedFormatRecord) {
-    StringBuffer result = new StringBuffer(template);
-    Record record = getAndAssertRecordAnnotation(fixedFormatRecord.getClass());
-
-    Class fixedFormatRecordClass = fixedFormatRecord.getClass();
-    HashMap<Integer, String> foundData = new HashMap<Integer, String>(); // hashmap containing offset and data to write
-    Method[] allMethods = fixedFormatRecordClass.getMethods();
-    for (Method method : allMethods) {
-      Field fieldAnnotation = method.getAnnotation(Field.class);
-      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
-      if (fieldAnnotation != null) {
-        String exportedData = exportDataAccordingFieldAnnotation(fixedFormatRecord, method, fieldAnnotation);
-        foundData.put(fieldAnnotation.offset(), exportedData);
-      } else if (fieldsAnnotation != null) {
-        Field[] fields = fieldsAnnotation.value();
-        for (Field field : fields) {
-          String exportedData = exportDataAccordingFieldAnnotation(fixedFormatRecord, method, field);
-          foundData.put(field.offset(), exportedData);
-        }
+  @SuppressWarnings({"unchecked"})
+  public <T> T load(Class<T> fixedFormatRecordClass, ByteBuffer data, int offset, int length, SingleByteCharset charset) {
+    RecordFactory<T> factory = (RecordFactory<T>) recordFactories.get(fixedFormatRecordClass);
+    RecordLayout<T> layout = getRecordLayout(fixedFormatRecordClass);
+    T instance = (factory != null ? factory : layout.getRecordFactory()).newInstance();
+
+    List<FieldLayout> fields = layout.getLoadFields();
+    for (int i = 0, size = fields.size(); i < size; i++) {
+      FieldLayout field = fields.get(i);
+      Object value = readBytesAccordingFieldLayout(fixedFormatRecordClass, data, offset, length, charset, field);
+      if (value != null) {
+        setFieldData(fixedFormatRecordClass, instance, field, value);
       }
     }
+    return instance;
+  }
 
-    Set<Integer> sortedoffsets = foundData.keySet();
-    for (Integer offset : sortedoffsets) {
-      String data = foundData.get(offset);
-      appendData(result, record.paddingChar(), offset, data);
-    }
+  /**
+   * Create a read only view of the record data. The view decodes a field the first time its getter is called and
+   * caches it, so fields never read are never parsed. The data is referenced, not copied, and mustn't change while
+   * the view is used.
+   *
+   * @param fixedFormatRecordClass the @Record annotated interface to view the data as
+   * @param data the data of the record
+   * @return a view implementing the interface
+   * @throws FixedFormatException in case the class isn't an interface annotated with a @Record annotation
+   * @since 1.6.0
+   */
+  public <T> T view(Class<T> fixedFormatRecordClass, CharSequence data) {
+    return view(fixedFormatRecordClass, data, 0, data.length());
+  }
+
+  /**
+   * Create a read only view of a record found in a range of a larger char sequence.
+   *
+   * @param fixedFormatRecordClass the @Record annotated interface to view the data as
+   * @param data the chars holding the record
+   * @param start the index of the first char of the record
+   * @param end the index after the last char of the record
+   * @return a view implementing the interface
+   * @throws FixedFormatException in case the class isn't an interface annotated with a @Record annotation
+   * @since 1.6.0
+   * @see #view(Class, CharSequence)
+   */
+  public <T> T view(Class<T> fixedFormatRecordClass, CharSequence data, int start, int end) {
+    return newView(fixedFormatRecordClass, new RecordView(this, getViewLayout(fixedFormatRecordClass), data, start, end));
+  }
 
-    if (record.length() != -1) { //pad with paddingchar
-      while (result.length() < record.length()) {
-        result.append(record.paddingChar());
+  /**
+   * Create a read only view of the bytes of a record in a single byte charset. Fields are parsed from the bytes the
+   * first time they are read.
+   *
+   * @param fixedFormatRecordClass the @Record annotated interface to view the data as
+   * @param data the bytes of the record. The position of the buffer isn't changed
+   * @param offset the absolute index of the first byte of the record
+   * @param length the length of the record in bytes
+   * @param charset the charset of the record
+   * @return a view implementing the interface
+   * @throws FixedFormatException in case the class isn't an interface annotated with a @Record annotation
+   * @since 1.6.0
+   * @see #view(Class, CharSequence)
+   */
+  public <T> T view(Class<T> fixedFormatRecordClass, ByteBuffer data, int offset, int length, SingleByteCharset charset) {
+    return newView(fixedFormatRecordClass, new RecordView(this, getViewLayout(fixedFormatRecordClass), data, offset, length, charset));
+  }
+
+  private <T> T newView(Class<T> fixedFormatRecordClass, RecordView view) {
+    return fixedFormatRecordClass.cast(Proxy.newProxyInstance(fixedFormatRecordClass.getClassLoader(), new Class<?>[]{fixedFormatRecordClass}, view));
+  }
+
+  private RecordView.Layout getViewLayout(Class<?> fixedFormatRecordClass) {
+    dropIfAnnotationsChanged();
+    RecordView.Layout layout = views.get(fixedFormatRecordClass);
+    if (layout == null) {
+      if (!fixedFormatRecordClass.isInterface()) {
+        throw new FixedFormatException(format("%s has to be an interface to be viewed", fixedFormatRecordClass.getName()));
+      }
+      layout = new RecordView.Layout(getRecordLayout(fixedFormatRecordClass));
+      RecordView.Layout existing = views.putIfAbsent(fixedFormatRecordClass, layout);
+      if (existing != null) {
+        layout = existing;
       }
     }
-    return result.toString();
+    return layout;
+  }
+
+  private <T> void setFieldData(Class<T> fixedFormatRecordClass, T instance, FieldLayout field, Object value) {
+    if (field.getSetter() == null) {
+      throw new FixedFormatException(format("setter method named %s.set%s(%s) does not exist", fixedFormatRecordClass.getName(), field.getPropertyName(), field.getDatatype()));
+    }
+    try {
+      field.setValue(instance, value);
+    } catch (Exception e) {
+      throw new FixedFormatException(format("could not invoke method %s.set%s(%s)", fixedFormatRecordClass.getName(), field.getPropertyName(), field.getDatatype()), e);
+    }
+  }
+
+  /**
+   * @inheritDoc
+   */
+  public <T> String export(String template, T fixedFormatRecord) {
+    return exportToBuffer(template, fixedFormatRecord).toString();
   }
 
   /**
@@ -199,167 +291,379 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
     return export("", fixedFormatRecord);
   }
 
-  private void appendData(StringBuffer result, Character paddingChar, Integer offset, String data) {
-    int zeroBasedOffset = offset - 1;
-    while (result.length() < zeroBasedOffset) {
-      result.append(paddingChar);
+  /**
+   * @inheritDoc
+   */
+  public <T> void export(String template, T fixedFormatRecord, Appendable sink) {
+    ExportBuffer buffer = exportToBuffer(template, fixedFormatRecord);
+    try {
+      buffer.appendTo(sink);
+    } catch (IOException e) {
+      throw new FixedFormatException(format("could not append exported %s", fixedFormatRecord.getClass().getName()), e);
     }
-    int length = data.length();
-    if (result.length() < zeroBasedOffset + length) {
-      result.append(StringUtils.leftPad("", (zeroBasedOffset + length) - result.length(), paddingChar));
+  }
+
+  /**
+   * @inheritDoc
+   */
+  public <T> void export(T fixedFormatRecord, ByteBuffer target, SingleByteCharset charset) {
+    ExportBuffer buffer = exportToBuffer("", fixedFormatRecord);
+    if (target.remaining() < buffer.length()) {
+      throw new FixedFormatException(format("exported %s is %s bytes, but only %s bytes are left in the buffer", fixedFormatRecord.getClass().getName(), buffer.length(), target.remaining()));
     }
-    result.replace(zeroBasedOffset, zeroBasedOffset + length, data);
+    charset.encode(buffer, target);
   }
 
+  /**
+   * @inheritDoc
+   */
+  public <T> void export(T fixedFormatRecord, ExportBuffer buffer) {
+    exportInto(buffer, "", fixedFormatRecord);
+  }
 
-  private <T> Record getAndAssertRecordAnnotation(Class<T> fixedFormatRecordClass) {
-    Record recordAnno = fixedFormatRecordClass.getAnnotation(Record.class);
-    if (recordAnno == null) {
-      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", fixedFormatRecordClass.getName()));
-    }
-    return recordAnno;
+  private <T> ExportBuffer exportToBuffer(String template, T fixedFormatRecord) {
+    ExportBuffer buffer = new ExportBuffer(0);
+    exportInto(buffer, template, fixedFormatRecord);
+    return buffer;
   }
 
   @SuppressWarnings({"unchecked"})
-  protected <T> Object readDataAccordingFieldAnnotation(Class<T> clazz, String data, Method method, Field fieldAnno) throws ParseException {
-    Class datatype = getDatatype(method, fieldAnno);
+  private <T> void exportInto(ExportBuffer buffer, String template, T fixedFormatRecord) {
+    RecordImage image = getRecordImage(fixedFormatRecord.getClass());
+    RecordCodec<T> codec = (RecordCodec<T>) getRecordCodec(fixedFormatRecord.getClass());
+    if (codec != null) {
+      image.startRecord(buffer, template, codec.getExportLength());
+      codec.export(buffer, fixedFormatRecord, this);
+      return;
+    }
 
-    //recursive follow if the datatype is annotated with the @Record annotation
+    RecordLayout<?> layout = getRecordLayout(fixedFormatRecord.getClass());
+    Record record = layout.getRecord();
+    image.startRecord(buffer, template, layout.getExportLength());
+    List<FieldLayout> fields = layout.getExportFields();
+    for (int i = 0, size = fields.size(); i < size; i++) {
+      FieldLayout field = fields.get(i);
+      FixedFormatCharWriter writer = field.getCharWriter();
+      if (writer != null) {
+        char[] target = buffer.reserve(field.getOffset(), field.getLength(), record.paddingChar());
+        writer.format(fetchExportValue(fixedFormatRecord, field), field.getInstructions(), target, buffer.index(field.getOffset()));
+      } else {
+        buffer.write(field.getOffset(), exportDataAccordingFieldLayout(fixedFormatRecord, field), record.paddingChar());
+      }
+    }
+    //pad with paddingchar
+    buffer.pad(record.length(), record.paddingChar());
+  }
+
+  /**
+   * Register the factory creating the instances of the given record class loaded by this manager.
+   *
+   * @param fixedFormatRecordClass the @{@link Record} annotated class
+   * @param factory the factory creating instances of the class
+   * @since 1.6.0
+   */
+  public <T> void registerRecordFactory(Class<T> fixedFormatRecordClass, RecordFactory<? extends T> factory) {
+    recordFactories.put(fixedFormatRecordClass, factory);
+  }
+
+  /**
+   * Register an instance of the declaring class shared by all instances of the given inner class loaded by this manager.
+   * Without it a new instance of the declaring class is created per loaded record.
+   *
+   * @param innerRecordClass the @{@link Record} annotated inner class
+   * @param enclosingInstance the instance of the declaring class
+   * @throws FixedFormatException in case the record class isn't an inner class of the class of the enclosing instance
+   * @since 1.6.0
+   */
+  public <T> void registerEnclosingInstance(Class<T> innerRecordClass, Object enclosingInstance) {
+    registerRecordFactory(innerRecordClass, RecordFactories.create(innerRecordClass, enclosingInstance));
+  }
 
-    FormatContext context = getFormatContext(datatype, fieldAnno);
-    FixedFormatter formatter = getFixedFormatterInstance(context.getFormatter(), context);
-    FormatInstructions formatdata = getFormatInstructions(method, fieldAnno);
+  /**
+   * Register the layout the record class of the layout is loaded and exported with by this manager instead of the
+   * layout read from its annotations. Ex. a layout changed by a {@link com.ancientprogramming.fixedformat4j.configuration.FixedFormatFieldConfigurer}.
+   * <p/>
+   * Codecs generated by the fixedformat4j-processor describe the annotations, so they are no longer used for the class.
+   * With the {@link CodecStrategy#GENERATED} strategy a codec is generated for the registered layout instead.
+   * The layout should be registered before the manager is used with the class.
+   *
+   * @param layout the layout to use for the record class
+   * @since 1.6.0
+   */
+  public <T> void registerRecordLayout(RecordLayout<T> layout) {
+    Class<T> fixedFormatRecordClass = layout.getRecordClass();
+    registeredLayouts.add(fixedFormatRecordClass);
+    layouts.put(fixedFormatRecordClass, layout);
+    codecs.remove(fixedFormatRecordClass);
+    views.remove(fixedFormatRecordClass);
+  }
 
-    String dataToParse = fetchData(data, formatdata, context);
+  /**
+   * Tell every manager that annotations of the class were changed at runtime, ex. by the deprecated
+   * {@link com.ancientprogramming.fixedformat4j.configuration.FixedFormatFieldConfigurer#apply()}. The managers drop
+   * the layouts, images, views and codecs read from the annotations the next time they are used, so the changed
+   * annotations take effect. Layouts registered through {@link #registerRecordLayout(RecordLayout)} are kept.
+   * Codecs generated by the fixedformat4j-processor are no longer used for the class and its subclasses.
+   *
+   * @param declaringClass the class declaring the changed annotations
+   * @since 1.6.0
+   */
+  public static void annotationsChanged(Class<?> declaringClass) {
+    CHANGED_CLASSES.add(declaringClass);
+    ANNOTATION_VERSION.incrementAndGet();
+  }
 
-    Object loadedData;
+  private static boolean isChanged(Class<?> fixedFormatRecordClass) {
+    for (Class<?> c = fixedFormatRecordClass; c != null; c = c.getSuperclass()) {
+      if (CHANGED_CLASSES.contains(c)) {
+        return true;
+      }
+    }
+    for (Class<?> i : fixedFormatRecordClass.getInterfaces()) {
+      if (CHANGED_CLASSES.contains(i)) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-    Annotation recordAnno = datatype.getAnnotation(Record.class);
-    if (recordAnno != null) {
-      loadedData = load(datatype, dataToParse);
-    } else {
-      try {
-        loadedData = formatter.parse(dataToParse, formatdata);
-      } catch (RuntimeException e) {
-        throw new ParseException(data, dataToParse, clazz, method, context, formatdata, e);
+  private void dropIfAnnotationsChanged() {
+    int version = ANNOTATION_VERSION.get();
+    if (version != annotationVersion) {
+      synchronized (this) {
+        if (version != annotationVersion) {
+          layouts.keySet().retainAll(registeredLayouts);
+          codecs.clear();
+          images.clear();
+          views.clear();
+          annotationVersion = version;
+        }
       }
     }
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("the loaded data[" + loadedData + "]");
+  }
+
+  /**
+   * Get the compiled layout of the given record class.
+   * The layout is computed the first time a class is seen by this manager and reused afterwards, unless a layout is
+   * registered for the class through {@link #registerRecordLayout(RecordLayout)} or the annotations are changed
+   * through {@link #annotationsChanged(Class)}.
+   *
+   * @param fixedFormatRecordClass the @{@link Record} annotated class
+   * @return the layout of the class
+   * @throws FixedFormatException in case the class isn't annotated with @{@link Record}
+   */
+  @SuppressWarnings({"unchecked"})
+  public <T> RecordLayout<T> getRecordLayout(Class<T> fixedFormatRecordClass) {
+    dropIfAnnotationsChanged();
+    RecordLayout<T> layout = (RecordLayout<T>) layouts.get(fixedFormatRecordClass);
+    if (layout == null) {
+      layout = RecordLayout.create(fixedFormatRecordClass, formatterRegistry);
+      RecordLayout<T> existing = (RecordLayout<T>) layouts.putIfAbsent(fixedFormatRecordClass, layout);
+      if (existing != null) {
+        layout = existing;
+      }
     }
-    return loadedData;
+    return layout;
   }
 
-  private Class getDatatype(Method method, Field fieldAnno) {
-    Class datatype;
-    if (followsBeanStandard(method)) {
-      datatype = method.getReturnType();
-    } else {
-      throw new FixedFormatException(format("Cannot annotate method %s, with %s annotation. %s annotations must be placed on methods starting with 'get' or 'is'", method.getName(), fieldAnno.getClass().getName(), fieldAnno.getClass().getName()));
+  /**
+   * Get the image the given record class is exported on top of.
+   * The image is computed the first time a class is exported by this manager and reused afterwards.
+   *
+   * @param fixedFormatRecordClass the @{@link Record} annotated class
+   * @return the image of the class
+   * @throws FixedFormatException in case the class isn't annotated with @{@link Record}
+   * @since 1.6.0
+   */
+  public RecordImage getRecordImage(Class<?> fixedFormatRecordClass) {
+    dropIfAnnotationsChanged();
+    RecordImage image = images.get(fixedFormatRecordClass);
+    if (image == null) {
+      image = RecordImage.create(fixedFormatRecordClass);
+      RecordImage existing = images.putIfAbsent(fixedFormatRecordClass, image);
+      if (existing != null) {
+        image = existing;
+      }
     }
-    return datatype;
+    return image;
   }
 
+  /**
+   * Get the codec generated for the given record class.
+   * The codec is looked up through the class loader of the record the first time a class is seen by this manager.
+   * With the {@link CodecStrategy#GENERATED} strategy a codec is generated if none was found.
+   *
+   * @param fixedFormatRecordClass the @{@link Record} annotated class
+   * @return the codec or <code>null</code> if the record is loaded and exported through reflection
+   * @throws FixedFormatException in case the codec couldn't be instantiated
+   */
   @SuppressWarnings({"unchecked"})
-  private <T> String exportDataAccordingFieldAnnotation(T fixedFormatRecord, Method method, Field fieldAnno) {
-    String result;
-    Class datatype = getDatatype(method, fieldAnno);
+  public <T> RecordCodec<T> getRecordCodec(Class<T> fixedFormatRecordClass) {
+    dropIfAnnotationsChanged();
+    Object codec = codecs.get(fixedFormatRecordClass);
+    if (codec == null) {
+      codec = findRecordCodec(fixedFormatRecordClass);
+      Object existing = codecs.putIfAbsent(fixedFormatRecordClass, codec);
+      if (existing != null) {
+        codec = existing;
+      }
+    }
+    return codec != NO_CODEC ? (RecordCodec<T>) codec : null;
+  }
 
-    FormatContext<T> context = getFormatContext(datatype, fieldAnno);
-    FixedFormatter formatter = getFixedFormatterInstance(context.getFormatter(), context);
-    FormatInstructions formatdata = getFormatInstructions(method, fieldAnno);
-    Object valueObject;
+  private Object findRecordCodec(Class<?> fixedFormatRecordClass) {
+    ClassLoader classLoader = fixedFormatRecordClass.getClassLoader();
+    if (codecStrategy == CodecStrategy.REFLECTION || classLoader == null || fixedFormatRecordClass.getAnnotation(Record.class) == null) {
+      return NO_CODEC;
+    }
+    Object codec = registeredLayouts.contains(fixedFormatRecordClass) || isChanged(fixedFormatRecordClass) ? NO_CODEC : findCompiledCodec(fixedFormatRecordClass, classLoader);
+    if (codec == NO_CODEC && codecStrategy == CodecStrategy.GENERATED) {
+      try {
+        RecordCodec<?> generated = CodecGenerator.generate(getRecordLayout(fixedFormatRecordClass), formatterRegistry);
+        if (generated != null) {
+          codec = generated;
+        }
+      } catch (LinkageError e) {
+        //the java.compiler module is missing from the runtime
+        LOG.warn(format("could not generate codec for %s. Falling back to reflection", fixedFormatRecordClass.getName()), e);
+      }
+    }
+    return codec;
+  }
+
+  private Object findCompiledCodec(Class<?> fixedFormatRecordClass, ClassLoader classLoader) {
+    String codecClassName = getCodecClassName(fixedFormatRecordClass.getName());
+    Class<?> codecClass;
     try {
-      valueObject = method.invoke(fixedFormatRecord);
+      codecClass = Class.forName(codecClassName, true, classLoader);
+    } catch (ClassNotFoundException e) {
+      return NO_CODEC;
+    } catch (LinkageError e) {
+      LOG.warn(format("could not load codec %s. Falling back to reflection", codecClassName), e);
+      return NO_CODEC;
+    }
+    if (!RecordCodec.class.isAssignableFrom(codecClass)) {
+      LOG.warn(format("%s doesn't implement %s. Falling back to reflection", codecClassName, RecordCodec.class.getName()));
+      return NO_CODEC;
+    }
+    RecordCodec<?> codec;
+    try {
+      codec = (RecordCodec<?>) codecClass.getConstructor().newInstance();
     } catch (Exception e) {
-      throw new FixedFormatException(format("could not invoke method %s.%s(%s)", fixedFormatRecord.getClass().getName(), method.getName(), datatype), e);
+      throw new FixedFormatException(format("unable to create instance of codec %s", codecClassName), e);
     }
-
-    //recursivly follow if the valueObject is annotated as a record
-    if (valueObject != null && valueObject.getClass().getAnnotation(Record.class) != null) {
-      result = export(valueObject);
-    } else {
-      result = formatter.format(valueObject, formatdata);
+    if (codec.getRecordClass() != fixedFormatRecordClass) {
+      return NO_CODEC;
     }
     if (LOG.isDebugEnabled()) {
-      LOG.debug(format("exported %s ", result));
+      LOG.debug(format("using codec %s for %s", codecClassName, fixedFormatRecordClass.getName()));
     }
-    return result;
+    return codec;
   }
 
-  private String stripMethodPrefix(String name) {
-
-    if (name.startsWith("get") || name.startsWith("set")) {
-      return name.substring(3);
-    } else if (name.startsWith("is")) {
-      return name.substring(2);
-    } else {
-      return name;
-    }
-
+  protected <T> Object readDataAccordingFieldLayout(Class<T> clazz, String data, FieldLayout field) throws ParseException {
+    return readDataAccordingFieldLayout(clazz, data, 0, data.length(), field);
   }
 
-
+  /**
+   * Parse the field from a record found in a range of the data. Fields of the built-in whole number types are parsed
+   * straight from the range, others copy only the data of the field into a string.
+   */
   @SuppressWarnings({"unchecked"})
-  private <T> FormatContext<T> getFormatContext(Class<T> datatype, Field fieldAnno) {
-    FormatContext<T> context = null;
-    if (fieldAnno != null) {
-      context = new FormatContext(fieldAnno.offset(), datatype, fieldAnno.formatter());
-    }
-    return context;
-
-  }
+  protected <T> Object readDataAccordingFieldLayout(Class<T> clazz, CharSequence data, int start, int end, FieldLayout field) throws ParseException {
+    FormatContext context = field.getContext();
+    FormatInstructions formatdata = field.getInstructions();
 
-  private FormatInstructions getFormatInstructions(Method method, Field fieldAnno) {
-    FixedFormatPatternData patternData = getFixedFormatPatternData(method.getAnnotation(FixedFormatPattern.class));
-    FixedFormatBooleanData booleanData = getFixedFormatBooleanData(method.getAnnotation(FixedFormatBoolean.class));
-    FixedFormatNumberData numberData = getFixedFormatNumberData(method.getAnnotation(FixedFormatNumber.class));
-    FixedFormatDecimalData decimalData = getFixedFormatDecimalData(method.getAnnotation(FixedFormatDecimal.class));
-    return new FormatInstructions(fieldAnno.length(), fieldAnno.align(), fieldAnno.paddingChar(), patternData, booleanData, numberData, decimalData);
-  }
+    Object loadedData;
 
-  private FixedFormatPatternData getFixedFormatPatternData(FixedFormatPattern annotation) {
-    FixedFormatPatternData result;
-    if (annotation != null) {
-      result = new FixedFormatPatternData(annotation.value());
+    //recursive follow if the datatype is annotated with the @Record annotation
+    if (field.isNestedRecord()) {
+      int fieldStart = start + field.getOffset() - 1;
+      if (fieldStart >= end) {
+        return null;
+      }
+      loadedData = load(field.getDatatype(), data, fieldStart, Math.min(end, fieldStart + field.getLength()));
+    } else if (field.getCharParser() != null) {
+      int fieldStart = start + field.getOffset() - 1;
+      if (fieldStart >= end) {
+        return null;
+      }
+      int fieldEnd = Math.min(end, fieldStart + field.getLength());
+      try {
+        loadedData = field.getCharParser().parse(data, fieldStart, fieldEnd, formatdata);
+      } catch (RuntimeException e) {
+        throw new ParseException(data.subSequence(start, end).toString(), data.subSequence(fieldStart, fieldEnd).toString(), clazz, field.getGetter(), context, formatdata, e);
+      }
     } else {
-      result = FixedFormatPatternData.DEFAULT;
+      String dataToParse = fetchData(data, start, end, formatdata, context);
+      try {
+        loadedData = field.getFormatter().parse(dataToParse, formatdata);
+      } catch (RuntimeException e) {
+        throw new ParseException(data.subSequence(start, end).toString(), dataToParse, clazz, field.getGetter(), context, formatdata, e);
+      }
     }
-    return result;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("the loaded data[" + loadedData + "]");
+    }
+    return loadedData;
   }
 
-  private FixedFormatBooleanData getFixedFormatBooleanData(FixedFormatBoolean annotation) {
-    FixedFormatBooleanData result;
-    if (annotation != null) {
-      result = new FixedFormatBooleanData(annotation.trueValue(), annotation.falseValue());
-    } else {
-      result = FixedFormatBooleanData.DEFAULT;
+  /**
+   * Parse the field from the bytes of the record. Fields of the built-in types are parsed straight from the bytes,
+   * others are decoded into a string and parsed by the formatter.
+   */
+  @SuppressWarnings({"unchecked"})
+  protected <T> Object readBytesAccordingFieldLayout(Class<T> clazz, ByteBuffer data, int recordOffset, int recordLength, SingleByteCharset charset, FieldLayout field) throws ParseException {
+    int offset = field.getOffset() - 1;
+    if (recordLength <= offset) {
+      return null;
     }
-    return result;
-  }
+    int start = recordOffset + offset;
+    int length = Math.min(field.getLength(), recordLength - offset);
 
-  private FixedFormatNumberData getFixedFormatNumberData(FixedFormatNumber annotation) {
-    FixedFormatNumberData result;
-    if (annotation != null) {
-      result = new FixedFormatNumberData(annotation.sign(), annotation.positiveSign(), annotation.negativeSign());
+    Object loadedData;
+    if (field.isNestedRecord()) {
+      loadedData = load(field.getDatatype(), data, start, length, charset);
     } else {
-      result = FixedFormatNumberData.DEFAULT;
+      FixedFormatByteParser parser = field.getByteParser();
+      try {
+        if (parser != null) {
+          loadedData = parser.parse(data, start, length, charset, field.getInstructions());
+        } else {
+          loadedData = field.getFormatter().parse(charset.decode(data, start, length), field.getInstructions());
+        }
+      } catch (RuntimeException e) {
+        throw new ParseException(charset.decode(data, recordOffset, recordLength), charset.decode(data, start, length), clazz, field.getGetter(), field.getContext(), field.getInstructions(), e);
+      }
     }
-    return result;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("the loaded data[" + loadedData + "]");
+    }
+    return loadedData;
   }
 
-  private FixedFormatDecimalData getFixedFormatDecimalData(FixedFormatDecimal annotation) {
-    FixedFormatDecimalData result;
-    if (annotation != null) {
-      result = new FixedFormatDecimalData(annotation.decimals(), annotation.useDecimalDelimiter(), annotation.decimalDelimiter(), RoundingMode.valueOf(annotation.roundingMode()));
+  @SuppressWarnings({"unchecked"})
+  private <T> String exportDataAccordingFieldLayout(T fixedFormatRecord, FieldLayout field) {
+    String result;
+    Object valueObject = fetchExportValue(fixedFormatRecord, field);
+
+    //recursivly follow if the valueObject is annotated as a record
+    if (valueObject != null && valueObject.getClass().getAnnotation(Record.class) != null) {
+      result = export(valueObject);
     } else {
-      result = FixedFormatDecimalData.DEFAULT;
+      result = field.getFormatter().format(valueObject, field.getInstructions());
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(format("exported %s ", result));
     }
     return result;
   }
 
-  private boolean followsBeanStandard(Method method) {
-    String methodName = method.getName();
-    return methodName.startsWith("get") || methodName.startsWith("is");
+  private <T> Object fetchExportValue(T fixedFormatRecord, FieldLayout field) {
+    try {
+      return field.getValue(fixedFormatRecord);
+    } catch (Exception e) {
+      throw new FixedFormatException(format("could not invoke method %s.%s(%s)", fixedFormatRecord.getClass().getName(), field.getGetter().getName(), field.getDatatype()), e);
+    }
   }
 }
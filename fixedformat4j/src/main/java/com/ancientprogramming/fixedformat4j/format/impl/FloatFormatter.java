@@ -25,9 +25,29 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  */
 public class FloatFormatter extends AbstractDecimalFormatter<Float> {
   
+  //the biggest number of digits and power of ten that converts exactly to a float
+  private static final long MAX_EXACT_DIGITS = 1L << 24;
+  private static final int MAX_EXACT_SCALE = 10;
+
   public Float asObject(String string, FormatInstructions instructions) {
+    Float result = asScaledObject(string, instructions);
+    if (result == null) {
       String toConvert = getStringToConvert(string, instructions);
-      return Float.parseFloat("".equals(toConvert) ? "0" : toConvert);
+      result = Float.parseFloat("".equals(toConvert) ? "0" : toConvert);
+    }
+    return result;
+  }
+
+  /**
+   * Divides the digits by the power of ten if both are exact floats. The division is then rounded the same way as
+   * {@link Float#parseFloat(String)}.
+   */
+  protected Float asObject(boolean negative, long unscaled, int scale) {
+    if (unscaled > MAX_EXACT_DIGITS || scale > MAX_EXACT_SCALE) {
+      return null;
     }
+    float value = unscaled / (float) POWERS_OF_TEN[scale];
+    return negative ? -value : value;
+  }
 
 }
@@ -23,7 +23,11 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class IntegerFormatter extends AbstractNumberFormatter<Integer> {
+public class IntegerFormatter extends AbstractWholeNumberFormatter<Integer> {
+
+  protected Integer asObject(long value) {
+    return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? Integer.valueOf((int) value) : null;
+  }
 
   public Integer asObject(String string, FormatInstructions instructions) {
     return Integer.parseInt(string);
@@ -20,22 +20,28 @@ import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
 import org.apache.commons.lang.StringUtils;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Formatter for {@link java.time.LocalDate} data.
  * The formatting and parsing is performed by using an instance of the {@link DateTimeFormatter} class.
+ * The immutable formatters are shared per default locale and pattern. At most {@link #MAX_PATTERNS} patterns are kept
+ * per locale and at most {@link #MAX_LOCALES} locales; a full cache is cleared and filled again.
  *
  * @author Harry Moreau http://www.sator.ie
  * @since 1.5.0
  */
 public class LocalDateFormatter extends AbstractFixedFormatter<LocalDate> {
 
+  static final int MAX_PATTERNS = 64;
+  static final int MAX_LOCALES = 16;
+
+  private static final ConcurrentMap<Locale, ConcurrentMap<String, DateTimeFormatter>> FORMATTERS = new ConcurrentHashMap<Locale, ConcurrentMap<String, DateTimeFormatter>>();
+
   public LocalDate asObject(String string, FormatInstructions instructions) throws FixedFormatException {
     LocalDate result = null;
 
@@ -54,6 +60,29 @@ public class LocalDateFormatter extends AbstractFixedFormatter<LocalDate> {
   }
 
   DateTimeFormatter getFormatter(String pattern) {
-    return DateTimeFormatter.ofPattern(pattern);
+    Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    ConcurrentMap<String, DateTimeFormatter> formatters = FORMATTERS.get(locale);
+    if (formatters == null) {
+      if (FORMATTERS.size() >= MAX_LOCALES) {
+        FORMATTERS.clear();
+      }
+      formatters = new ConcurrentHashMap<String, DateTimeFormatter>();
+      ConcurrentMap<String, DateTimeFormatter> existing = FORMATTERS.putIfAbsent(locale, formatters);
+      if (existing != null) {
+        formatters = existing;
+      }
+    }
+    DateTimeFormatter formatter = formatters.get(pattern);
+    if (formatter == null) {
+      if (formatters.size() >= MAX_PATTERNS) {
+        formatters.clear();
+      }
+      formatter = DateTimeFormatter.ofPattern(pattern, locale);
+      DateTimeFormatter existing = formatters.putIfAbsent(pattern, formatter);
+      if (existing != null) {
+        formatter = existing;
+      }
+    }
+    return formatter;
   }
 }
@@ -24,7 +24,11 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class LongFormatter extends AbstractNumberFormatter<Long> {
+public class LongFormatter extends AbstractWholeNumberFormatter<Long> {
+
+  protected Long asObject(long value) {
+    return Long.valueOf(value);
+  }
 
   public Long asObject(String string, FormatInstructions instructions) {
     return Long.parseLong(string);
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Binds getters and setters to functional interfaces once, so they can be called without {@link Method#invoke}.
+ * <p/>
+ * Public methods on public classes visible from the fixedformat4j class loader are bound through the
+ * {@link LambdaMetafactory} which gives the JIT a plain interface call it can inline.
+ * All other methods are bound to a {@link MethodHandle}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class PropertyAccessors {
+
+  private static final Log LOG = LogFactory.getLog(PropertyAccessors.class);
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private PropertyAccessors() {
+  }
+
+  /**
+   * Bind a getter taking no arguments.
+   *
+   * @param getter the getter to bind
+   * @return a function returning the (boxed) value of the getter for the record given as argument
+   */
+  @SuppressWarnings({"unchecked"})
+  public static Function<Object, Object> getter(Method getter) {
+    MethodHandle handle = unreflect(getter);
+    if (canSpinLambda(getter)) {
+      try {
+        MethodType instantiatedType = MethodType.methodType(box(getter.getReturnType()), getter.getDeclaringClass());
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class), handle, instantiatedType);
+        return (Function<Object, Object>) site.getTarget().invoke();
+      } catch (Throwable e) {
+        logFallback(getter, e);
+      }
+    }
+    final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+    final String name = nameOf(getter);
+    return new Function<Object, Object>() {
+      public Object apply(Object record) {
+        try {
+          return generic.invokeExact(record);
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new FixedFormatException(format("could not invoke method %s", name), e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Bind a setter taking one argument.
+   *
+   * @param setter the setter to bind
+   * @return a consumer calling the setter on the record given as first argument with the value given as second argument
+   */
+  @SuppressWarnings({"unchecked"})
+  public static BiConsumer<Object, Object> setter(Method setter) {
+    MethodHandle handle = unreflect(setter);
+    if (canSpinLambda(setter)) {
+      try {
+        MethodType instantiatedType = MethodType.methodType(void.class, setter.getDeclaringClass(), box(setter.getParameterTypes()[0]));
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class), handle, instantiatedType);
+        return (BiConsumer<Object, Object>) site.getTarget().invoke();
+      } catch (Throwable e) {
+        logFallback(setter, e);
+      }
+    }
+    final MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    final String name = nameOf(setter);
+    return new BiConsumer<Object, Object>() {
+      public void accept(Object record, Object value) {
+        try {
+          generic.invokeExact(record, value);
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new FixedFormatException(format("could not invoke method %s", name), e);
+        }
+      }
+    };
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      method.setAccessible(true);
+    } catch (RuntimeException e) {
+      //access is restricted (ex. by the module system). Public methods on public classes can still be bound.
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(format("could not make %s accessible", method), e);
+      }
+    }
+    try {
+      return LOOKUP.unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw new FixedFormatException(format("could not bind method %s", nameOf(method)), e);
+    }
+  }
+
+  /**
+   * The class spun by the {@link LambdaMetafactory} lives next to this class and calls the method directly.
+   * That only links if the method is public, the declaring class and its enclosing classes are public
+   * and the declaring class is visible from the class loader of fixedformat4j.
+   */
+  private static boolean canSpinLambda(Method method) {
+    if (!Modifier.isPublic(method.getModifiers())) {
+      return false;
+    }
+    Class<?> clazz = method.getDeclaringClass();
+    for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    try {
+      return Class.forName(clazz.getName(), false, PropertyAccessors.class.getClassLoader()) == clazz;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static void logFallback(Method method, Throwable e) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(format("could not bind %s through the LambdaMetafactory. Falling back to a MethodHandle", method), e);
+    }
+  }
+
+  private static String nameOf(Method method) {
+    return method.getDeclaringClass().getName() + "." + method.getName();
+  }
+
+  private static Class<?> box(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    }
+    return MethodType.methodType(type).wrap().returnType();
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.RecordFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+import static java.lang.String.format;
+
+/**
+ * Resolves how a record class is instantiated once, so no constructors are looked up per loaded record.
+ * <p/>
+ * Classes with a default constructor are created through that. Inner classes are created with a new instance of
+ * the declaring class per record, unless a shared instance of the declaring class is given.
+ * Classes that can't be instantiated get a factory throwing the error, so they can still be exported.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+class RecordFactories {
+
+  private static final String LOADER = FixedFormatManagerImpl.class.getName();
+
+  private RecordFactories() {
+  }
+
+  /**
+   * @param recordClass the class to instantiate
+   * @return a factory creating instances of the class
+   */
+  static <T> RecordFactory<T> create(Class<T> recordClass) {
+    Constructor<T> constructor = getConstructor(recordClass);
+    if (constructor != null) {
+      return new ConstructorFactory<T>(recordClass, constructor);
+    }
+    //If the class is a possible inner class do some more work
+    Class<?> declaringClass = recordClass.getDeclaringClass();
+    if (declaringClass == null) {
+      return new FailingFactory<T>(format("%s is missing a default constructor which is nessesary to be loaded through %s", recordClass.getName(), LOADER));
+    }
+    Constructor<T> innerConstructor = getConstructor(recordClass, declaringClass);
+    if (innerConstructor == null) {
+      return new FailingFactory<T>(format("%s is missing a default constructor which is nessesary to be loaded through %s", recordClass.getName(), LOADER));
+    }
+    Constructor<?> declaringConstructor = getConstructor(declaringClass);
+    if (declaringConstructor == null) {
+      return new FailingFactory<T>(format("Trying to create instance of innerclass %s, but the declaring class %s is missing a default constructor which is nessesary to be loaded through %s", recordClass.getName(), declaringClass.getName(), LOADER));
+    }
+    return new InnerClassFactory<T>(recordClass, innerConstructor, declaringConstructor);
+  }
+
+  /**
+   * @param recordClass the inner class to instantiate
+   * @param enclosingInstance the instance of the declaring class shared by all records
+   * @return a factory creating instances of the inner class
+   * @throws FixedFormatException if the record class isn't an inner class of the class of the enclosing instance
+   */
+  static <T> RecordFactory<T> create(Class<T> recordClass, Object enclosingInstance) {
+    Class<?> declaringClass = recordClass.getDeclaringClass();
+    if (declaringClass == null || Modifier.isStatic(recordClass.getModifiers())) {
+      throw new FixedFormatException(format("%s is not an inner class", recordClass.getName()));
+    }
+    if (!declaringClass.isInstance(enclosingInstance)) {
+      throw new FixedFormatException(format("%s is not an instance of %s declaring %s", enclosingInstance, declaringClass.getName(), recordClass.getName()));
+    }
+    Constructor<T> innerConstructor = getConstructor(recordClass, declaringClass);
+    if (innerConstructor == null) {
+      throw new FixedFormatException(format("%s is missing a default constructor which is nessesary to be loaded through %s", recordClass.getName(), LOADER));
+    }
+    return new EnclosedFactory<T>(recordClass, innerConstructor, enclosingInstance);
+  }
+
+  private static <T> Constructor<T> getConstructor(Class<T> clazz, Class<?>... parameterTypes) {
+    try {
+      Constructor<T> constructor = clazz.getDeclaredConstructor(parameterTypes);
+      try {
+        constructor.setAccessible(true);
+      } catch (RuntimeException e) {
+        //access is restricted. Public constructors can still be called
+      }
+      return constructor;
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static <T> T newInstance(Constructor<T> constructor, Object... args) throws Exception {
+    try {
+      return constructor.newInstance(args);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static class ConstructorFactory<T> implements RecordFactory<T> {
+    private final Class<T> recordClass;
+    private final Constructor<T> constructor;
+
+    ConstructorFactory(Class<T> recordClass, Constructor<T> constructor) {
+      this.recordClass = recordClass;
+      this.constructor = constructor;
+    }
+
+    public T newInstance() {
+      try {
+        return RecordFactories.newInstance(constructor);
+      } catch (Exception e) {
+        throw new FixedFormatException(format("unable to create instance of %s", recordClass.getName()), e);
+      }
+    }
+  }
+
+  private static class InnerClassFactory<T> implements RecordFactory<T> {
+    private final Class<T> recordClass;
+    private final Constructor<T> constructor;
+    private final Constructor<?> declaringConstructor;
+
+    InnerClassFactory(Class<T> recordClass, Constructor<T> constructor, Constructor<?> declaringConstructor) {
+      this.recordClass = recordClass;
+      this.constructor = constructor;
+      this.declaringConstructor = declaringConstructor;
+    }
+
+    public T newInstance() {
+      Object declaringInstance;
+      try {
+        declaringInstance = RecordFactories.newInstance(declaringConstructor);
+      } catch (Exception e) {
+        throw new FixedFormatException(format("unable to create instance of declaring class %s, which is needed to instansiate %s", declaringConstructor.getDeclaringClass().getName(), recordClass.getName()), e);
+      }
+      try {
+        return RecordFactories.newInstance(constructor, declaringInstance);
+      } catch (Exception e) {
+        throw new FixedFormatException(format("unable to create instance of %s", recordClass.getName()), e);
+      }
+    }
+  }
+
+  private static class EnclosedFactory<T> implements RecordFactory<T> {
+    private final Class<T> recordClass;
+    private final Constructor<T> constructor;
+    private final Object enclosingInstance;
+
+    EnclosedFactory(Class<T> recordClass, Constructor<T> constructor, Object enclosingInstance) {
+      this.recordClass = recordClass;
+      this.constructor = constructor;
+      this.enclosingInstance = enclosingInstance;
+    }
+
+    public T newInstance() {
+      try {
+        return RecordFactories.newInstance(constructor, enclosingInstance);
+      } catch (Exception e) {
+        throw new FixedFormatException(format("unable to create instance of %s", recordClass.getName()), e);
+      }
+    }
+  }
+
+  private static class FailingFactory<T> implements RecordFactory<T> {
+    private final String message;
+
+    FailingFactory(String message) {
+      this.message = message;
+    }
+
+    public T newInstance() {
+      throw new FixedFormatException(message);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Constant;
+import com.ancientprogramming.fixedformat4j.annotation.Constants;
+import com.ancientprogramming.fixedformat4j.annotation.Discriminator;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * The prefilled image of an exported record. It contains the padding up to the record length and the
+ * @{@link Constant} parts of the record.
+ * <p/>
+ * A @{@link Discriminator} is part of the image as well.
+ * <p/>
+ * The image is computed once per class. Exporting without a template starts from a copy of the image, so only the
+ * fields has to be formatted per record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class RecordImage {
+
+  private final char[] image;
+  private final int[] constantOffsets;
+  private final String[] constants;
+  private final char paddingChar;
+
+  RecordImage(char[] image, int[] constantOffsets, String[] constants, char paddingChar) {
+    this.image = image;
+    this.constantOffsets = constantOffsets;
+    this.constants = constants;
+    this.paddingChar = paddingChar;
+  }
+
+  /**
+   * Create the buffer a record is exported into.
+   *
+   * @param template the data to merge the exported record with
+   * @param capacity the expected length of the exported record
+   * @return a copy of the image if the template is empty, otherwise the template with the constants written on top
+   */
+  public ExportBuffer newBuffer(String template, int capacity) {
+    ExportBuffer buffer = new ExportBuffer(0);
+    startRecord(buffer, template, capacity);
+    return buffer;
+  }
+
+  /**
+   * Start a record at the end of the given buffer.
+   *
+   * @param buffer the buffer the record is exported into
+   * @param template the data to merge the exported record with
+   * @param capacity the expected length of the exported record
+   * @see #newBuffer(String, int)
+   */
+  public void startRecord(ExportBuffer buffer, String template, int capacity) {
+    if (template.length() == 0) {
+      buffer.startRecord(image, capacity);
+      return;
+    }
+    buffer.startRecord(template, Math.max(capacity, image.length));
+    for (int i = 0; i < constants.length; i++) {
+      buffer.write(constantOffsets[i], constants[i], paddingChar);
+    }
+  }
+
+  /**
+   * @return the length of the image
+   */
+  public int length() {
+    return image.length;
+  }
+
+  /**
+   * Computes the image of the given class by reading its @{@link Record}, @{@link Constant}, @{@link Constants} and
+   * @{@link Discriminator} annotations.
+   *
+   * @param recordClass the @{@link Record} annotated class
+   * @return the image of the class
+   * @throws FixedFormatException if the class isn't annotated with @{@link Record} or a constant is invalid
+   */
+  public static RecordImage create(Class<?> recordClass) {
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be exported", recordClass.getName()));
+    }
+    List<Constant> constantAnnotations = new ArrayList<Constant>();
+    Constant constantAnnotation = recordClass.getAnnotation(Constant.class);
+    if (constantAnnotation != null) {
+      constantAnnotations.add(constantAnnotation);
+    }
+    Constants constantsAnnotation = recordClass.getAnnotation(Constants.class);
+    if (constantsAnnotation != null) {
+      constantAnnotations.addAll(Arrays.asList(constantsAnnotation.value()));
+    }
+
+    Discriminator discriminator = recordClass.getAnnotation(Discriminator.class);
+    int[] constantOffsets = new int[constantAnnotations.size() + (discriminator != null ? 1 : 0)];
+    String[] constants = new String[constantOffsets.length];
+    int length = Math.max(record.length(), 0);
+    if (discriminator != null) {
+      if (discriminator.offset() < 1) {
+        throw new FixedFormatException(format("%s has a %s annotation with the invalid offset %s", recordClass.getName(), Discriminator.class.getName(), discriminator.offset()));
+      }
+      constantOffsets[constants.length - 1] = discriminator.offset();
+      constants[constants.length - 1] = discriminator.value();
+      length = Math.max(length, discriminator.offset() - 1 + discriminator.value().length());
+    }
+    for (int i = 0; i < constantAnnotations.size(); i++) {
+      Constant constant = constantAnnotations.get(i);
+      if (constant.offset() < 1) {
+        throw new FixedFormatException(format("%s has a %s annotation with the invalid offset %s", recordClass.getName(), Constant.class.getName(), constant.offset()));
+      }
+      int constantLength = constant.length() != -1 ? constant.length() : constant.value().length();
+      constantOffsets[i] = constant.offset();
+      constants[i] = constant.align().apply(constant.value(), constantLength, constant.paddingChar());
+      length = Math.max(length, constant.offset() - 1 + constantLength);
+    }
+
+    char[] image = new char[length];
+    Arrays.fill(image, record.paddingChar());
+    for (int i = 0; i < constants.length; i++) {
+      constants[i].getChars(0, constants[i].length(), image, constantOffsets[i] - 1);
+    }
+    return new RecordImage(image, constantOffsets, constants, record.paddingChar());
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatterRegistry;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.Projection;
+import com.ancientprogramming.fixedformat4j.format.RecordFactory;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+
+import java.lang.reflect.Method;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.String.format;
+
+/**
+ * Thread safe, compiled description of a @{@link Record} annotated class.
+ * <p/>
+ * The layout is computed once per class by reading the annotations on the getters. It contains the fields sorted by
+ * offset together with their resolved setters, formatters and format instructions and the factory creating instances.
+ * The fields never change once the layout is created. The only mutable state is a cache of the fields selected by each
+ * {@link Projection} passed to {@link #getLoadFields(Projection)}. Projections are compared by value, so equal
+ * projections share an entry. The cache is bounded only by the number of distinct projections callers create.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class RecordLayout<T> {
+
+  private static final Comparator<FieldLayout> BY_OFFSET = new Comparator<FieldLayout>() {
+    public int compare(FieldLayout o1, FieldLayout o2) {
+      return o1.getOffset() - o2.getOffset();
+    }
+  };
+
+  private final Class<T> recordClass;
+  private final Record record;
+  private final List<FieldLayout> loadFields;
+  private final List<FieldLayout> exportFields;
+  private final RecordFactory<T> recordFactory;
+  private final FixedFormatterRegistry formatterRegistry;
+  private final int exportLength;
+  private final ConcurrentMap<Projection<?>, List<FieldLayout>> projections = new ConcurrentHashMap<Projection<?>, List<FieldLayout>>();
+
+  RecordLayout(Class<T> recordClass, Record record, List<FieldLayout> loadFields, List<FieldLayout> exportFields, RecordFactory<T> recordFactory, FixedFormatterRegistry formatterRegistry) {
+    this.recordClass = recordClass;
+    this.record = record;
+    this.loadFields = Collections.unmodifiableList(loadFields);
+    this.exportFields = Collections.unmodifiableList(exportFields);
+    this.recordFactory = recordFactory;
+    this.formatterRegistry = formatterRegistry;
+    int maxEnd = record.length();
+    for (FieldLayout field : exportFields) {
+      maxEnd = Math.max(maxEnd, field.getOffset() - 1 + field.getLength());
+    }
+    this.exportLength = maxEnd;
+  }
+
+  public Class<T> getRecordClass() {
+    return recordClass;
+  }
+
+  public Record getRecord() {
+    return record;
+  }
+
+  /**
+   * The fields used when loading a record sorted by offset.
+   * Getters annotated with @{@link Fields} are loaded using the first @{@link Field} annotation only.
+   * @return the fields to load
+   */
+  public List<FieldLayout> getLoadFields() {
+    return loadFields;
+  }
+
+  /**
+   * The fields selected by the projection sorted by offset. The selection is resolved the first time a projection is
+   * seen by this layout and reused afterwards.
+   * @param projection the fields to select
+   * @return the selected fields to load
+   * @throws FixedFormatException if the projection selects a getter or offset that isn't a field of the record
+   */
+  public List<FieldLayout> getLoadFields(Projection<?> projection) {
+    List<FieldLayout> fields = projections.get(projection);
+    if (fields == null) {
+      List<FieldLayout> selected = new ArrayList<FieldLayout>();
+      Set<String> getterNames = new HashSet<String>();
+      Set<Integer> offsets = new HashSet<Integer>();
+      for (FieldLayout field : loadFields) {
+        if (projection.includes(field.getGetter(), field.getOffset())) {
+          selected.add(field);
+          getterNames.add(field.getGetter().getName());
+          offsets.add(field.getOffset());
+        }
+      }
+      if (!getterNames.containsAll(projection.getGetterNames()) || !offsets.containsAll(projection.getOffsets())) {
+        throw new FixedFormatException(format("%s selects fields that %s doesn't load", projection, recordClass.getName()));
+      }
+      fields = Collections.unmodifiableList(selected);
+      List<FieldLayout> existing = projections.putIfAbsent(projection, fields);
+      if (existing != null) {
+        fields = existing;
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * The fields used when exporting a record sorted by offset. Contains one entry per offset.
+   * @return the fields to export
+   */
+  public List<FieldLayout> getExportFields() {
+    return exportFields;
+  }
+
+  /**
+   * The expected length of an exported record. That is the record length or the end of the last field if longer.
+   * Used to presize the buffer the record is exported into.
+   * @return the expected length of an exported record
+   */
+  public int getExportLength() {
+    return exportLength;
+  }
+
+  /**
+   * The factory creating the instances loaded into. Classes that can't be instantiated get a factory throwing a
+   * {@link FixedFormatException}, as the class can still be exported.
+   * @return the factory of the record class
+   */
+  public RecordFactory<T> getRecordFactory() {
+    return recordFactory;
+  }
+
+  /**
+   * Creates a copy of the layout where the given getter is loaded and exported according to the given field instead
+   * of its annotations. A getter annotated with @{@link Fields} is replaced by the single field.
+   * Neither this layout nor the annotations are changed.
+   *
+   * @param getter the getter of a field in the layout
+   * @param field the offset, length, alignment, padding char and formatter of the field
+   * @param patternData the pattern of the field. <code>null</code> means the @{@link FixedFormatPattern} of the getter
+   * @return the new layout
+   * @throws FixedFormatException if the getter isn't loaded or exported by the layout
+   */
+  public RecordLayout<T> withField(Method getter, Field field, FixedFormatPatternData patternData) {
+    FieldLayout override = createField(recordClass, getter, field, patternData, formatterRegistry);
+    boolean found = false;
+    List<FieldLayout> newLoadFields = new ArrayList<FieldLayout>();
+    for (FieldLayout loadField : loadFields) {
+      if (loadField.getGetter().equals(getter)) {
+        newLoadFields.add(override);
+        found = true;
+      } else {
+        newLoadFields.add(loadField);
+      }
+    }
+    TreeMap<Integer, FieldLayout> newExportFields = new TreeMap<Integer, FieldLayout>();
+    for (FieldLayout exportField : exportFields) {
+      if (exportField.getGetter().equals(getter)) {
+        found = true;
+      } else {
+        newExportFields.put(exportField.getOffset(), exportField);
+      }
+    }
+    if (!found) {
+      throw new FixedFormatException(format("%s isn't a field in %s", getter.getName(), recordClass.getName()));
+    }
+    newExportFields.put(override.getOffset(), override);
+    Collections.sort(newLoadFields, BY_OFFSET);
+    return new RecordLayout<T>(recordClass, record, newLoadFields, new ArrayList<FieldLayout>(newExportFields.values()), recordFactory, formatterRegistry);
+  }
+
+  /**
+   * Compiles the layout of the given class by reading its annotations.
+   *
+   * @param recordClass the @{@link Record} annotated class
+   * @return the layout of the class
+   * @throws FixedFormatException if the class isn't annotated with @{@link Record} or the annotations are misplaced
+   */
+  public static <T> RecordLayout<T> create(Class<T> recordClass) {
+    return create(recordClass, new FixedFormatterRegistry());
+  }
+
+  /**
+   * Compiles the layout of the given class by reading its annotations.
+   *
+   * @param recordClass the @{@link Record} annotated class
+   * @param formatterRegistry the registry to resolve formatters from
+   * @return the layout of the class
+   * @throws FixedFormatException if the class isn't annotated with @{@link Record} or the annotations are misplaced
+   */
+  public static <T> RecordLayout<T> create(Class<T> recordClass, FixedFormatterRegistry formatterRegistry) {
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", recordClass.getName()));
+    }
+
+    List<FieldLayout> loadFields = new ArrayList<FieldLayout>();
+    TreeMap<Integer, FieldLayout> exportFields = new TreeMap<Integer, FieldLayout>();
+    for (Method method : recordClass.getMethods()) {
+      Field fieldAnnotation = method.getAnnotation(Field.class);
+      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
+      if (fieldAnnotation != null) {
+        FieldLayout field = createField(recordClass, method, fieldAnnotation, formatterRegistry);
+        loadFields.add(field);
+        exportFields.put(field.getOffset(), field);
+      } else if (fieldsAnnotation != null) {
+        //assert that the fields annotation contains minimum one field anno
+        if (fieldsAnnotation.value() == null || fieldsAnnotation.value().length == 0) {
+          throw new FixedFormatException(format("%s annotation must contain minimum one %s annotation", Fields.class.getName(), Field.class.getName()));
+        }
+        Field[] fields = fieldsAnnotation.value();
+        for (int i = 0; i < fields.length; i++) {
+          FieldLayout field = createField(recordClass, method, fields[i], formatterRegistry);
+          if (i == 0) {
+            loadFields.add(field);
+          }
+          exportFields.put(field.getOffset(), field);
+        }
+      }
+    }
+    Collections.sort(loadFields, BY_OFFSET);
+    return new RecordLayout<T>(recordClass, record, loadFields, new ArrayList<FieldLayout>(exportFields.values()), RecordFactories.create(recordClass), formatterRegistry);
+  }
+
+  private static FieldLayout createField(Class<?> recordClass, Method getter, Field fieldAnno, FixedFormatterRegistry formatterRegistry) {
+    return createField(recordClass, getter, fieldAnno, null, formatterRegistry);
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static FieldLayout createField(Class<?> recordClass, Method getter, Field fieldAnno, FixedFormatPatternData patternData, FixedFormatterRegistry formatterRegistry) {
+    Class datatype = getDatatype(getter, fieldAnno);
+    String propertyName = stripMethodPrefix(getter.getName());
+    FormatContext context = new FormatContext(fieldAnno.offset(), datatype, fieldAnno.formatter());
+    FormatInstructions instructions = getFormatInstructions(getter, fieldAnno, patternData);
+    boolean nestedRecord = datatype.getAnnotation(Record.class) != null;
+    return new FieldLayout(propertyName, getter, getSetter(recordClass, propertyName, datatype), datatype, fieldAnno, context, instructions, formatterRegistry, nestedRecord);
+  }
+
+  /**
+   * Looks up the setter matching the property. A missing setter isn't an error as long as the record is only exported.
+   */
+  private static Method getSetter(Class<?> recordClass, String propertyName, Class<?> datatype) {
+    try {
+      return recordClass.getMethod("set" + propertyName, datatype);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static Class getDatatype(Method method, Field fieldAnno) {
+    Class datatype;
+    if (followsBeanStandard(method)) {
+      datatype = method.getReturnType();
+    } else {
+      throw new FixedFormatException(format("Cannot annotate method %s, with %s annotation. %s annotations must be placed on methods starting with 'get' or 'is'", method.getName(), fieldAnno.getClass().getName(), fieldAnno.getClass().getName()));
+    }
+    return datatype;
+  }
+
+  private static String stripMethodPrefix(String name) {
+    if (name.startsWith("get") || name.startsWith("set")) {
+      return name.substring(3);
+    } else if (name.startsWith("is")) {
+      return name.substring(2);
+    } else {
+      return name;
+    }
+  }
+
+  private static FormatInstructions getFormatInstructions(Method method, Field fieldAnno, FixedFormatPatternData patternOverride) {
+    FixedFormatPatternData patternData = patternOverride != null ? patternOverride : getFixedFormatPatternData(method.getAnnotation(FixedFormatPattern.class));
+    FixedFormatBooleanData booleanData = getFixedFormatBooleanData(method.getAnnotation(FixedFormatBoolean.class));
+    FixedFormatNumberData numberData = getFixedFormatNumberData(method.getAnnotation(FixedFormatNumber.class));
+    FixedFormatDecimalData decimalData = getFixedFormatDecimalData(method.getAnnotation(FixedFormatDecimal.class));
+    return new FormatInstructions(fieldAnno.length(), fieldAnno.align(), fieldAnno.paddingChar(), patternData, booleanData, numberData, decimalData);
+  }
+
+  private static FixedFormatPatternData getFixedFormatPatternData(FixedFormatPattern annotation) {
+    FixedFormatPatternData result;
+    if (annotation != null) {
+      result = new FixedFormatPatternData(annotation.value());
+    } else {
+      result = FixedFormatPatternData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static FixedFormatBooleanData getFixedFormatBooleanData(FixedFormatBoolean annotation) {
+    FixedFormatBooleanData result;
+    if (annotation != null) {
+      result = new FixedFormatBooleanData(annotation.trueValue(), annotation.falseValue());
+    } else {
+      result = FixedFormatBooleanData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static FixedFormatNumberData getFixedFormatNumberData(FixedFormatNumber annotation) {
+    FixedFormatNumberData result;
+    if (annotation != null) {
+      result = new FixedFormatNumberData(annotation.sign(), annotation.positiveSign(), annotation.negativeSign());
+    } else {
+      result = FixedFormatNumberData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static FixedFormatDecimalData getFixedFormatDecimalData(FixedFormatDecimal annotation) {
+    FixedFormatDecimalData result;
+    if (annotation != null) {
+      result = new FixedFormatDecimalData(annotation.decimals(), annotation.useDecimalDelimiter(), annotation.decimalDelimiter(), RoundingMode.valueOf(annotation.roundingMode()));
+    } else {
+      result = FixedFormatDecimalData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static boolean followsBeanStandard(Method method) {
+    String methodName = method.getName();
+    return methodName.startsWith("get") || methodName.startsWith("is");
+  }
+
+  public String toString() {
+    return "RecordLayout{" +
+        "recordClass=" + recordClass.getName() +
+        ", fields=" + exportFields +
+        '}';
+  }
+}
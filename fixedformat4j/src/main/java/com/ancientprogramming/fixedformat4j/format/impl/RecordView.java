@@ -0,0 +1,144 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Backs a read only view of a record declared as an @{@link com.ancientprogramming.fixedformat4j.annotation.Record}
+ * annotated interface.
+ * <p/>
+ * The view holds a reference to the record data and decodes a field the first time its getter is called. The decoded
+ * value is cached, so a field is only parsed once. A bit per field tells which fields are decoded. Views aren't thread
+ * safe.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+class RecordView implements InvocationHandler {
+
+  /**
+   * The getters of a record interface compiled into field indexes. Computed once per interface and manager.
+   */
+  static final class Layout {
+
+    private final Class<?> recordClass;
+    private final Map<Method, Integer> indexes = new HashMap<Method, Integer>();
+    private final FieldLayout[] fields;
+    private final Object[] defaults;
+
+    Layout(RecordLayout<?> recordLayout) {
+      this.recordClass = recordLayout.getRecordClass();
+      List<FieldLayout> loadFields = recordLayout.getLoadFields();
+      this.fields = loadFields.toArray(new FieldLayout[loadFields.size()]);
+      this.defaults = new Object[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        Method getter = fields[i].getGetter();
+        indexes.put(getter, i);
+        if (getter.getReturnType().isPrimitive()) {
+          defaults[i] = Array.get(Array.newInstance(getter.getReturnType(), 1), 0);
+        }
+      }
+    }
+  }
+
+  private final FixedFormatManagerImpl manager;
+  private final Layout layout;
+  private final CharSequence chars;
+  private final ByteBuffer bytes;
+  private final SingleByteCharset charset;
+  private final int start;
+  private final int end;
+
+  private long[] decoded;
+  private Object[] values;
+
+  RecordView(FixedFormatManagerImpl manager, Layout layout, CharSequence chars, int start, int end) {
+    this(manager, layout, chars, null, null, start, end);
+  }
+
+  RecordView(FixedFormatManagerImpl manager, Layout layout, ByteBuffer bytes, int offset, int length, SingleByteCharset charset) {
+    this(manager, layout, null, bytes, charset, offset, offset + length);
+  }
+
+  private RecordView(FixedFormatManagerImpl manager, Layout layout, CharSequence chars, ByteBuffer bytes, SingleByteCharset charset, int start, int end) {
+    this.manager = manager;
+    this.layout = layout;
+    this.chars = chars;
+    this.bytes = bytes;
+    this.charset = charset;
+    this.start = start;
+    this.end = end;
+  }
+
+  public Object invoke(Object proxy, Method method, Object[] args) {
+    Integer index = layout.indexes.get(method);
+    if (index == null) {
+      return invokeObjectMethod(proxy, method, args);
+    }
+    int i = index;
+    if (values == null) {
+      values = new Object[layout.fields.length];
+      decoded = new long[(layout.fields.length + 63) >>> 6];
+    }
+    if ((decoded[i >>> 6] & (1L << i)) == 0) {
+      values[i] = read(layout.fields[i]);
+      decoded[i >>> 6] |= 1L << i;
+    }
+    Object value = values[i];
+    return value != null ? value : layout.defaults[i];
+  }
+
+  private Object read(FieldLayout field) {
+    int offset = field.getOffset() - 1;
+    if (field.isNestedRecord() && field.getDatatype().isInterface()) {
+      if (end - start <= offset) {
+        return null;
+      }
+      int fieldEnd = Math.min(end, start + offset + field.getLength());
+      return chars != null
+          ? manager.view(field.getDatatype(), chars, start + offset, fieldEnd)
+          : manager.view(field.getDatatype(), bytes, start + offset, fieldEnd - start - offset, charset);
+    }
+    return chars != null
+        ? manager.readDataAccordingFieldLayout(layout.recordClass, chars, start, end, field)
+        : manager.readBytesAccordingFieldLayout(layout.recordClass, bytes, start, end - start, charset, field);
+  }
+
+  private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+    String name = method.getName();
+    if (name.equals("equals") && args != null && args.length == 1) {
+      return proxy == args[0];
+    } else if (name.equals("hashCode") && args == null) {
+      return System.identityHashCode(proxy);
+    } else if (name.equals("toString") && args == null) {
+      String data = chars != null ? chars.subSequence(start, end).toString() : charset.decode(bytes, start, end - start);
+      return layout.recordClass.getSimpleName() + "[" + data + "]";
+    }
+    throw new FixedFormatException(format("%s.%s isn't a field and can't be called on a view", layout.recordClass.getName(), name));
+  }
+}
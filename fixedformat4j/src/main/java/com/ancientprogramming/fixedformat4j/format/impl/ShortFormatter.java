@@ -23,7 +23,11 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.3.0
  */
-public class ShortFormatter extends AbstractNumberFormatter<Short> {
+public class ShortFormatter extends AbstractWholeNumberFormatter<Short> {
+
+  protected Short asObject(long value) {
+    return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE ? Short.valueOf((short) value) : null;
+  }
 
   public Short asObject(String string, FormatInstructions instructions) {
     return Short.parseShort(string);
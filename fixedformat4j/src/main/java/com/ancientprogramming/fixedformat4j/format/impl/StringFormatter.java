@@ -16,7 +16,11 @@
 package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatByteParser;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+
+import java.nio.ByteBuffer;
 
 /**
  * Formatter for {@link String} data
@@ -24,7 +28,16 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class StringFormatter extends AbstractFixedFormatter<String> {
+public class StringFormatter extends AbstractFixedFormatter<String> implements FixedFormatByteParser<String> {
+
+  /**
+   * Creates the string from the bytes left after the padding is removed.
+   */
+  public String parse(ByteBuffer data, int offset, int length, SingleByteCharset charset, FormatInstructions instructions) {
+    int from = removePaddingStart(data, offset, offset + length, charset, instructions);
+    int to = removePaddingEnd(data, from, offset + length, charset, instructions);
+    return charset.decode(data, from, to - from);
+  }
 
   public String asObject(String string, FormatInstructions instructions) {
     return string;
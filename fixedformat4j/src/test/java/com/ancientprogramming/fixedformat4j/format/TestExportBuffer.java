@@ -0,0 +1,70 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestExportBuffer extends TestCase {
+
+  public void testWriteOverTemplate() {
+    ExportBuffer buffer = new ExportBuffer("xxxxxxxx", 4);
+    buffer.write(3, "ab", ' ');
+    assertEquals("xxabxxxx", buffer.toString());
+  }
+
+  public void testWriteBeyondLengthFillsGap() {
+    ExportBuffer buffer = new ExportBuffer("", 2);
+    buffer.write(4, "ab", '_');
+    assertEquals("___ab", buffer.toString());
+    buffer.pad(8, ' ');
+    assertEquals("___ab   ", buffer.toString());
+    buffer.pad(4, ' ');
+    assertEquals(8, buffer.length());
+  }
+
+  public void testManyRecords() {
+    ExportBuffer buffer = new ExportBuffer(0);
+    buffer.startRecord("xxxx", 4);
+    buffer.write(2, "ab", ' ');
+    buffer.append(";");
+    buffer.startRecord(new char[]{'y'}, 4);
+    assertEquals(6, buffer.index(2));
+    buffer.write(3, "cd", '_');
+    buffer.pad(6, ' ');
+    assertEquals("xabx;y_cd  ", buffer.toString());
+
+    buffer.truncate(5);
+    buffer.startRecord("", 2);
+    buffer.write(1, "ef", ' ');
+    assertEquals("xabx;ef", buffer.toString());
+
+    buffer.clear();
+    buffer.write(1, "gh", ' ');
+    assertEquals("gh", buffer.toString());
+  }
+
+  public void testAppendTo() throws Exception {
+    ExportBuffer buffer = new ExportBuffer("abc", 3);
+    StringBuilder builder = new StringBuilder(">");
+    buffer.appendTo(builder);
+    assertEquals(">abc", builder.toString());
+    assertEquals("bc", buffer.subSequence(1, 3).toString());
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.ConstantsRecord;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.MyRecord;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestFixedFormatFile extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+  private Path file;
+
+  @Override
+  protected void setUp() throws Exception {
+    file = Files.createTempFile("fixedformat4j", ".dat");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Files.deleteIfExists(file);
+  }
+
+  public void testGetAndStream() throws IOException {
+    write(7, "\n", false);
+    FixedFormatFile<ConstantsRecord> records = new FixedFormatFile<ConstantsRecord>(manager, ConstantsRecord.class, file, StandardCharsets.ISO_8859_1, 1, 50);
+    try {
+      assertEquals(7, records.size());
+      assertEquals("00000", records.get(0).getName());
+      assertEquals("00003", records.get(3).getName());
+      assertEquals("0100006  007******__", records.getData(6));
+      List<String> names = records.stream(2, 5).map(ConstantsRecord::getName).collect(Collectors.toList());
+      assertEquals(3, names.size());
+      assertEquals("00002", names.get(0));
+      assertEquals("00004", names.get(2));
+      assertEquals(7, records.stream().count());
+    } finally {
+      records.close();
+    }
+  }
+
+  public void testScan() throws IOException {
+    write(1000, "\n", false);
+    FixedFormatFile<ConstantsRecord> records = new FixedFormatFile<ConstantsRecord>(manager, ConstantsRecord.class, file, StandardCharsets.ISO_8859_1, 1, 300);
+    try {
+      RecordFilter<ConstantsRecord> filter = manager.filter(ConstantsRecord.class).where("getName", FieldCondition.startsWith("0099"));
+      assertEquals(10, records.count(filter));
+      assertEquals(990, records.indexOf(filter));
+      assertEquals(-1, records.indexOf(manager.filter(ConstantsRecord.class).where("getName", FieldCondition.equalTo("x"))));
+      List<String> names = records.stream(filter).parallel().map(ConstantsRecord::getName).collect(Collectors.toList());
+      assertEquals(10, names.size());
+      assertEquals("00999", names.get(9));
+      try {
+        records.count(manager.filter(MyRecord.class));
+        fail("expected a filter for another record class to fail");
+      } catch (FixedFormatException e) {
+        //expected
+      }
+    } finally {
+      records.close();
+    }
+  }
+
+  public void testParallelStream() throws IOException {
+    write(1000, "\r\n", true);
+    FixedFormatFile<ConstantsRecord> records = new FixedFormatFile<ConstantsRecord>(manager, ConstantsRecord.class, file, StandardCharsets.ISO_8859_1, 2, 1000);
+    try {
+      List<String> names = records.stream().parallel().map(ConstantsRecord::getName).collect(Collectors.toList());
+      assertEquals(1000, names.size());
+      for (int i = 0; i < names.size(); i++) {
+        assertEquals(String.format("%05d", i), names.get(i));
+      }
+      assertEquals(500, records.spliterator().trySplit().estimateSize());
+    } finally {
+      records.close();
+    }
+  }
+
+  public void testRecordsWithoutSeparator() throws IOException {
+    write(3, "", true);
+    FixedFormatFile<ConstantsRecord> records = new FixedFormatFile<ConstantsRecord>(manager, ConstantsRecord.class, file, StandardCharsets.ISO_8859_1);
+    try {
+      assertEquals(3, records.size());
+      assertEquals("00002", records.get(2).getName());
+      try {
+        records.get(3);
+        fail("expected the index to be out of bounds");
+      } catch (IndexOutOfBoundsException e) {
+        //expected
+      }
+    } finally {
+      records.close();
+    }
+  }
+
+  public void testPartialRecord() throws IOException {
+    Files.write(file, "01000000  007******__01".getBytes(StandardCharsets.ISO_8859_1));
+    try {
+      new FixedFormatFile<ConstantsRecord>(manager, ConstantsRecord.class, file, StandardCharsets.ISO_8859_1);
+      fail("expected the partial record to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testMultiByteCharset() {
+    try {
+      new FixedFormatFile<ConstantsRecord>(manager, ConstantsRecord.class, file, StandardCharsets.UTF_8);
+      fail("expected a multi byte charset to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  private void write(int count, String separator, boolean lastSeparator) throws IOException {
+    StringBuilder data = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      data.append("01").append(String.format("%05d", i)).append("  007******__");
+      if (lastSeparator || i < count - 1) {
+        data.append(separator);
+      }
+    }
+    Files.write(file, data.toString().getBytes(StandardCharsets.ISO_8859_1));
+  }
+}
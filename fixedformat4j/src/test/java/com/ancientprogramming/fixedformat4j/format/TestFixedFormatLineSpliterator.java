@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.format.impl.ConstantsRecord;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import junit.framework.TestCase;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestFixedFormatLineSpliterator extends TestCase {
+
+  private static final int LINES = 20000;
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+  private Path file;
+
+  @Override
+  protected void setUp() throws Exception {
+    file = Files.createTempFile("fixedformat4j", ".txt");
+    StringBuilder data = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      //lines of varying length and terminators
+      data.append("01").append(String.format("%05d", i)).append(i % 3 == 0 ? "  007" : "").append(i % 2 == 0 ? "\r\n" : "\n");
+    }
+    data.append("01last!");
+    Files.write(file, data.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Files.deleteIfExists(file);
+  }
+
+  public void testParallelStream() {
+    List<String> names;
+    try (Stream<ConstantsRecord> records = FixedFormatLineSpliterator.stream(manager, ConstantsRecord.class, file, StandardCharsets.UTF_8, true)) {
+      names = records.map(ConstantsRecord::getName).collect(Collectors.toList());
+    }
+    assertEquals(LINES + 1, names.size());
+    for (int i = 0; i < LINES; i++) {
+      assertEquals(String.format("%05d", i), names.get(i));
+    }
+    assertEquals("last!", names.get(LINES));
+  }
+
+  public void testSplitsCoverEveryLineOnce() throws Exception {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      List<Spliterator<ConstantsRecord>> parts = new ArrayList<Spliterator<ConstantsRecord>>();
+      split(new FixedFormatLineSpliterator<ConstantsRecord>(manager, ConstantsRecord.class, channel, StandardCharsets.UTF_8), parts);
+      assertTrue("expected the file to be split", parts.size() > 4);
+      final List<String> names = new ArrayList<String>();
+      for (Spliterator<ConstantsRecord> part : parts) {
+        part.forEachRemaining(record -> names.add(record.getName()));
+      }
+      assertEquals(LINES + 1, names.size());
+      for (int i = 0; i < LINES; i++) {
+        assertEquals(String.format("%05d", i), names.get(i));
+      }
+    }
+  }
+
+  private void split(Spliterator<ConstantsRecord> spliterator, List<Spliterator<ConstantsRecord>> parts) {
+    Spliterator<ConstantsRecord> prefix = spliterator.trySplit();
+    if (prefix == null) {
+      parts.add(spliterator);
+    } else {
+      split(prefix, parts);
+      split(spliterator, parts);
+    }
+  }
+}
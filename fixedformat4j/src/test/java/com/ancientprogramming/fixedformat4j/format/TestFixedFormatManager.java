@@ -0,0 +1,128 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.MyRecord;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.TestFixedFormatManagerImpl.MY_RECORD_DATA;
+
+/**
+ * Checks the default methods of {@link FixedFormatManager} on an implementation only providing the original methods.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestFixedFormatManager extends TestCase {
+
+  private final FixedFormatManager manager = new MinimalManager();
+
+  public void testLoadRange() {
+    String chunk = "xx" + MY_RECORD_DATA + "yy";
+    int end = 2 + MY_RECORD_DATA.length();
+    assertEquals(MY_RECORD_DATA, manager.export(manager.load(MyRecord.class, new StringBuilder(chunk), 2, end)));
+    assertEquals(MY_RECORD_DATA, manager.export(manager.load(MyRecord.class, chunk.toCharArray(), 2, end)));
+  }
+
+  public void testLoadProjection() {
+    MyRecord record = manager.load(MyRecord.class, MY_RECORD_DATA, Projection.of(MyRecord.class, "getStringData"));
+    assertEquals("some text ", record.getStringData());
+    assertEquals(Integer.valueOf(123), record.getIntegerData());
+  }
+
+  public void testExportIntoAppendable() {
+    StringBuilder builder = new StringBuilder("header;");
+    manager.export("", manager.load(MyRecord.class, MY_RECORD_DATA), builder);
+    assertEquals("header;" + MY_RECORD_DATA, builder.toString());
+  }
+
+  public void testLoadAndExportBytes() {
+    SingleByteCharset charset = SingleByteCharset.forName("ISO-8859-1");
+    ByteBuffer data = ByteBuffer.wrap(("xx" + MY_RECORD_DATA).getBytes());
+    MyRecord record = manager.load(MyRecord.class, data, 2, MY_RECORD_DATA.length(), charset);
+
+    ByteBuffer target = ByteBuffer.allocate(MY_RECORD_DATA.length());
+    manager.export(record, target, charset);
+    assertEquals(MY_RECORD_DATA, new String(target.array()));
+
+    try {
+      manager.export(record, ByteBuffer.allocate(2), charset);
+      fail("expected a too small buffer to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFilterLoadsRecords() {
+    RecordFilter<MyRecord> filter = manager.filter(MyRecord.class);
+    assertTrue(filter.matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getIntegerData", FieldCondition.equalTo(123)).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("getIntegerData", FieldCondition.equalTo(99900123)).matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getIntegerData", FieldCondition.in(1, 2, 3, 4, 5, 123)).matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getIntegerData", FieldCondition.between(100, 200)).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("getIntegerData", FieldCondition.between(124, null)).matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getStringData", FieldCondition.startsWith("some")).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("isBooleanData", FieldCondition.equalTo(false)).matches(MY_RECORD_DATA));
+
+    byte[] bytes = ("xx" + MY_RECORD_DATA).getBytes();
+    assertTrue(filter.where("getIntegerData", FieldCondition.equalTo(123)).matches(ByteBuffer.wrap(bytes), 2, MY_RECORD_DATA.length(), SingleByteCharset.forName("ISO-8859-1")));
+  }
+
+  public void testFilterRejectsConditionsNotFittingTheRecord() {
+    try {
+      manager.filter(MyRecord.class).where("getUnknown", FieldCondition.equalTo("x"));
+      fail("expected an unknown getter to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    try {
+      manager.filter(MyRecord.class).where("getIntegerData", FieldCondition.between("a", "b"));
+      fail("expected string bounds on an integer field to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    try {
+      manager.filter(String.class);
+      fail("expected a class without a record annotation to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  /**
+   * A manager only implementing the methods every implementation has to provide.
+   */
+  private static class MinimalManager implements FixedFormatManager {
+
+    private final FixedFormatManager delegate = new FixedFormatManagerImpl();
+
+    public <T> T load(Class<T> clazz, String data) throws FixedFormatException {
+      return delegate.load(clazz, data);
+    }
+
+    public <T> String export(T instance) throws FixedFormatException {
+      return delegate.export(instance);
+    }
+
+    public <T> String export(String template, T instance) throws FixedFormatException {
+      return delegate.export(template, instance);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.ConstantsRecord;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.MyRecord;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestFixedFormatReader extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+
+  public void testReadLines() {
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader("01aaaaa\r\n01bbbbb\r01ccccc\n\n01ddddd"));
+    Iterator<ConstantsRecord> records = reader.iterator();
+    assertEquals("aaaaa", records.next().getName());
+    assertEquals("bbbbb", records.next().getName());
+    assertEquals("ccccc", records.next().getName());
+    assertNull(records.next().getName());
+    assertEquals("ddddd", records.next().getName());
+    assertFalse(records.hasNext());
+  }
+
+  public void testReadByLength() {
+    String data = "01aaaaa  007******__01bbbbb  007******__";
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, FixedFormatReader.Framing.LENGTH);
+    List<String> names = reader.stream().map(ConstantsRecord::getName).collect(Collectors.toList());
+    assertEquals(2, names.size());
+    assertEquals("aaaaa", names.get(0));
+    assertEquals("bbbbb", names.get(1));
+  }
+
+  public void testTruncatedRecord() {
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader("01aaaaa  007******__01bbb"), FixedFormatReader.Framing.LENGTH);
+    reader.next();
+    try {
+      reader.next();
+      fail("expected the truncated record to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testSkipAndCallback() {
+    StringBuilder data = new StringBuilder("header\n");
+    for (int i = 0; i < 5000; i++) {
+      data.append("01").append(String.format("%05d", i)).append("\n");
+    }
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader(data.toString()));
+    assertEquals(1, reader.skip(1));
+    final List<String> names = new ArrayList<String>();
+    reader.forEach(record -> names.add(record.getName()));
+    assertEquals(5000, names.size());
+    assertEquals("04999", names.get(4999));
+    assertEquals(0, reader.skip(1));
+  }
+
+  public void testScan() {
+    StringBuilder data = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      data.append("01").append(String.format("%05d", i)).append("\n");
+    }
+    RecordFilter<ConstantsRecord> filter = manager.filter(ConstantsRecord.class).where("getName", FieldCondition.in("00007", "00042", "00099"));
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader(data.toString()));
+    assertEquals("00007", reader.findFirst(filter).getName());
+    assertEquals(2, reader.count(filter));
+
+    reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader(data.toString()));
+    List<String> names = reader.stream(filter).map(ConstantsRecord::getName).collect(Collectors.toList());
+    assertEquals(3, names.size());
+    assertEquals("00099", names.get(2));
+  }
+
+  public void testFilterOfOtherClassRejected() {
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader("0100007\n"));
+    try {
+      reader.count(manager.filter(MyRecord.class));
+      fail("expected a filter for another record class to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+}
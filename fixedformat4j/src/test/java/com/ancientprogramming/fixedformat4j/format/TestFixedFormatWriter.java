@@ -0,0 +1,114 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.ConstantsRecord;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestFixedFormatWriter extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+
+  public void testWriteLines() {
+    StringWriter out = new StringWriter();
+    FixedFormatWriter<ConstantsRecord> writer = new FixedFormatWriter<ConstantsRecord>(manager, ConstantsRecord.class, out);
+    writer.writeAll(Arrays.asList(record("aaa"), record("bbb")));
+    assertEquals("", out.toString());
+    writer.close();
+    assertEquals("01aaa  007******____\n01bbb  007******____\n", out.toString());
+    assertEquals(2, writer.getCount());
+  }
+
+  public void testFlushEveryRecord() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FixedFormatWriter<ConstantsRecord> writer = new FixedFormatWriter<ConstantsRecord>(manager, ConstantsRecord.class, out, StandardCharsets.UTF_8, "\r\n", FixedFormatWriter.FlushPolicy.RECORD);
+    writer.write(record("\u00e6\u00f8\u00e5"));
+    assertEquals("01\u00e6\u00f8\u00e5  007******____\r\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    writer.close();
+  }
+
+  public void testWriteManyBatches() {
+    Charset ebcdic = Charset.forName("Cp1047");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FixedFormatWriter<ConstantsRecord> writer = new FixedFormatWriter<ConstantsRecord>(manager, ConstantsRecord.class, out, ebcdic, "", FixedFormatWriter.FlushPolicy.BATCH);
+    for (int i = 0; i < 10000; i++) {
+      writer.write(record(String.format("%05d", i)));
+    }
+    writer.close();
+
+    FixedFormatReader<ConstantsRecord> reader = new FixedFormatReader<ConstantsRecord>(manager, ConstantsRecord.class, new StringReader(new String(out.toByteArray(), ebcdic)), FixedFormatReader.Framing.LENGTH);
+    List<String> names = new ArrayList<String>();
+    reader.forEach(record -> names.add(record.getName()));
+    assertEquals(10000, names.size());
+    assertEquals("09999", names.get(9999));
+  }
+
+  public void testFailedRecordIsNotWritten() {
+    FixedFormatManager failing = new FixedFormatManagerImpl() {
+      @Override
+      public <R> void export(R record, ExportBuffer buffer) {
+        super.export(record, buffer);
+        if (((ConstantsRecord) record).getName() == null) {
+          throw new FixedFormatException("no name");
+        }
+      }
+    };
+    StringWriter out = new StringWriter();
+    FixedFormatWriter<ConstantsRecord> writer = new FixedFormatWriter<ConstantsRecord>(failing, ConstantsRecord.class, out);
+    writer.write(record("aaa"));
+    try {
+      writer.write(record(null));
+      fail("expected the record without a name to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    writer.close();
+    assertEquals("01aaa  007******____\n", out.toString());
+  }
+
+  public void testWriteAfterClose() {
+    FixedFormatWriter<ConstantsRecord> writer = new FixedFormatWriter<ConstantsRecord>(manager, ConstantsRecord.class, new StringWriter());
+    writer.close();
+    writer.close();
+    try {
+      writer.write(record("aaa"));
+      fail("expected the closed writer to fail");
+    } catch (IllegalStateException e) {
+      //expected
+    }
+  }
+
+  private static ConstantsRecord record(String name) {
+    ConstantsRecord record = new ConstantsRecord();
+    record.setName(name);
+    return record;
+  }
+}
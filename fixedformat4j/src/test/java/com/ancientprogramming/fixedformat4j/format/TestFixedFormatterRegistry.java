@@ -0,0 +1,72 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Stateful;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.IntegerFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestFixedFormatterRegistry extends TestCase {
+
+  private FixedFormatterRegistry registry = new FixedFormatterRegistry();
+
+  public void testDefaultConstructorFormatterIsSharedByClass() {
+    FixedFormatter<String> first = registry.getFormatter(new FormatContext<String>(1, String.class, StringFormatter.class));
+    FixedFormatter<String> second = registry.getFormatter(new FormatContext<String>(11, String.class, StringFormatter.class));
+    assertSame(first, second);
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testContextFormatterIsSharedByContext() {
+    FixedFormatter first = registry.getFormatter(new FormatContext(1, String.class, ByTypeFormatter.class));
+    FixedFormatter second = registry.getFormatter(new FormatContext(1, String.class, ByTypeFormatter.class));
+    FixedFormatter third = registry.getFormatter(new FormatContext(1, Integer.class, ByTypeFormatter.class));
+    assertSame(first, second);
+    assertNotSame(first, third);
+  }
+
+  public void testByTypeFormatterSharesKnownFormatters() {
+    ByTypeFormatter formatter = new ByTypeFormatter(new FormatContext<Integer>(1, Integer.class, IntegerFormatter.class));
+    assertTrue(formatter.actualFormatter(Integer.class) instanceof IntegerFormatter);
+    assertSame(formatter.actualFormatter(Integer.class), formatter.actualFormatter(int.class));
+  }
+
+  public void testStatefulFormatterIsNeverShared() {
+    FormatContext<String> context = new FormatContext<String>(1, String.class, CountingFormatter.class);
+    assertFalse(registry.isShared(CountingFormatter.class));
+    assertNotSame(registry.getFormatter(context), registry.getFormatter(context));
+  }
+
+  @Stateful
+  public static class CountingFormatter extends AbstractFixedFormatter<String> {
+
+    private int count;
+
+    public String asObject(String string, FormatInstructions instructions) {
+      return string + (count++);
+    }
+
+    public String asString(String obj, FormatInstructions instructions) {
+      return obj + (count++);
+    }
+  }
+}
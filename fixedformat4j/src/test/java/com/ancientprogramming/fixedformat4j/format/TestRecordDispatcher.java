@@ -0,0 +1,133 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Discriminator;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestRecordDispatcher extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+
+  public void testReadMixedRecords() {
+    RecordDispatcher<TypedRecord> dispatcher = new RecordDispatcher<TypedRecord>(HeaderRecord.class, DetailRecord.class, TrailerRecord.class);
+    FixedFormatReader<TypedRecord> reader = new FixedFormatReader<TypedRecord>(manager, dispatcher, new StringReader("Hfile\nDaaaa\nDbbbb\nT0002"));
+    List<TypedRecord> records = new ArrayList<TypedRecord>();
+    reader.forEach(records::add);
+    assertEquals(4, records.size());
+    assertEquals(HeaderRecord.class, records.get(0).getClass());
+    assertEquals("bbbb", records.get(2).getData());
+    assertEquals(TrailerRecord.class, records.get(3).getClass());
+  }
+
+  public void testFilterMixedRecords() {
+    RecordDispatcher<TypedRecord> dispatcher = new RecordDispatcher<TypedRecord>(HeaderRecord.class, DetailRecord.class, TrailerRecord.class);
+    RecordFilter<DetailRecord> filter = manager.filter(DetailRecord.class).where("getData", FieldCondition.startsWith("b"));
+    FixedFormatReader<TypedRecord> reader = new FixedFormatReader<TypedRecord>(manager, dispatcher, new StringReader("Hbbbb\nDaaaa\nDbbbb\nT0002"));
+    assertEquals(1, reader.count(filter));
+  }
+
+  public void testExportWritesTypeCode() {
+    DetailRecord record = new DetailRecord();
+    record.setData("abc");
+    assertEquals("Dabc ", manager.export(record));
+  }
+
+  public void testLongTypeCodes() {
+    RecordDispatcher<Object> dispatcher = new RecordDispatcher<Object>(AddRecord.class, DeleteRecord.class, UpdateRecord.class);
+    assertEquals(AddRecord.class, dispatcher.dispatch("xADD"));
+    assertEquals(DeleteRecord.class, dispatcher.dispatch("xDEL"));
+    assertEquals(UpdateRecord.class, dispatcher.dispatch("xUPD  "));
+    assertEquals(DeleteRecord.class, dispatcher.dispatch(new StringBuilder("ADD\nxDEL\n"), 4, 8));
+    assertEquals(AddRecord.class, dispatcher.dispatch("ADD\nxADD\n".toCharArray(), 4, 8));
+    try {
+      dispatcher.dispatch("xNEW");
+      fail("expected an unknown type code to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testSameTypeCodeRejected() {
+    try {
+      new RecordDispatcher<TypedRecord>(DetailRecord.class, OtherDetailRecord.class);
+      fail("expected two classes with the same type code to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public abstract static class TypedRecord {
+
+    private String data;
+
+    @Field(offset = 2, length = 4)
+    public String getData() {
+      return data;
+    }
+
+    public void setData(String data) {
+      this.data = data;
+    }
+  }
+
+  @Record
+  @Discriminator(offset = 1, value = "H")
+  public static class HeaderRecord extends TypedRecord {
+  }
+
+  @Record
+  @Discriminator(offset = 1, value = "D")
+  public static class DetailRecord extends TypedRecord {
+  }
+
+  @Record
+  @Discriminator(offset = 1, value = "D")
+  public static class OtherDetailRecord extends TypedRecord {
+  }
+
+  @Record
+  @Discriminator(offset = 1, value = "T")
+  public static class TrailerRecord extends TypedRecord {
+  }
+
+  @Record
+  @Discriminator(offset = 2, value = "ADD")
+  public static class AddRecord {
+  }
+
+  @Record
+  @Discriminator(offset = 2, value = "DEL")
+  public static class DeleteRecord {
+  }
+
+  @Record
+  @Discriminator(offset = 2, value = "UPD")
+  public static class UpdateRecord {
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestSingleByteCharset extends TestCase {
+
+  private static final String TEXT = "Some text 0123456789 -+.";
+
+  public void testEbcdicRoundTrip() {
+    SingleByteCharset charset = SingleByteCharset.forName("Cp1047");
+    byte[] bytes = TEXT.getBytes(Charset.forName("Cp1047"));
+    assertEquals(TEXT, charset.decode(bytes, 0, bytes.length));
+    assertEquals(TEXT, charset.decode(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), 0, bytes.length));
+
+    ByteBuffer target = ByteBuffer.allocate(bytes.length);
+    charset.encode(TEXT, target);
+    assertEquals(ByteBuffer.wrap(bytes), target.flip());
+  }
+
+  public void testSkipPadding() {
+    SingleByteCharset charset = SingleByteCharset.forName("Cp037");
+    ByteBuffer data = ByteBuffer.wrap("00120  ".getBytes(Charset.forName("Cp037")));
+    assertEquals(2, charset.skipStart(data, 0, 7, '0'));
+    assertEquals(5, charset.skipEnd(data, 0, 7, ' '));
+    assertTrue(charset.equals(data, 2, 5, "120"));
+    assertFalse(charset.equals(data, 2, 4, "120"));
+  }
+
+  public void testSharedInstance() {
+    assertSame(SingleByteCharset.forName("ISO-8859-1"), SingleByteCharset.forName("ISO-8859-1"));
+  }
+
+  public void testMultiByteCharsetRejected() {
+    try {
+      SingleByteCharset.forName("UTF-8");
+      fail("expected UTF-8 to be rejected");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+}
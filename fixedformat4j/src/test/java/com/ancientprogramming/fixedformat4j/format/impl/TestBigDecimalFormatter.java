@@ -98,4 +98,57 @@ public class TestBigDecimalFormatter extends TestCase {
   public void testFormatBigDecimalWith5DecimalsTo4DecimalsUseDecimalDelimiter () {
     assertEquals("+00123.4561", formatter.format(new BigDecimal(123.45612), new FormatInstructions(11, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(4, true, '.', RoundingMode.HALF_UP))));  
   }
+
+  public void testFormatLikeRoundedBigDecimal() {
+    String[] values = {"0", "0.00", "-0.001", "1", "-1", "0.5", "-0.5", "2.5", "-2.5", "0.125", "-0.135", "100.505", "1234.5678", "-1234.5678",
+        "123456789012345.67", "-999999999999999.995", "12345678901234567.89", "123456789012345678901234567890.12", "1E+5", "-1.5E-3", "9.99E-30"};
+    for (String value : values) {
+      for (RoundingMode roundingMode : RoundingMode.values()) {
+        for (int decimals = 0; decimals <= 4; decimals++) {
+          for (boolean useDecimalDelimiter : new boolean[]{false, true}) {
+            FormatInstructions instructions = new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(decimals, useDecimalDelimiter, ',', roundingMode));
+            String expected;
+            try {
+              String plain = new BigDecimal(value).setScale(decimals, roundingMode).toPlainString();
+              expected = decimals == 0 ? plain + (useDecimalDelimiter ? "," : "") : plain.replace(".", useDecimalDelimiter ? "," : "");
+            } catch (ArithmeticException e) {
+              expected = e.getClass().getName();
+            }
+            String actual;
+            try {
+              actual = formatter.asString(new BigDecimal(value), instructions);
+            } catch (ArithmeticException e) {
+              actual = e.getClass().getName();
+            }
+            assertEquals(value + " " + roundingMode + " " + decimals + " " + useDecimalDelimiter, expected, actual);
+          }
+        }
+      }
+    }
+  }
+
+  public void testParseLikeConvertedString() {
+    String[] values = {"0", "000", "12345", "-12345", "+12345", "12", "-12", "1", "-", "", "1.5", "12.", ".5", "-.5", "1,2,3", "123,456", "-0,00", "12a", "1234567890123456789", "0000000000000000000001", "9007199254740993"};
+    for (String value : values) {
+      for (int decimals = 0; decimals <= 3; decimals++) {
+        for (boolean useDecimalDelimiter : new boolean[]{false, true}) {
+          FormatInstructions instructions = new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(decimals, useDecimalDelimiter, ',', RoundingMode.UNNECESSARY));
+          String expected;
+          try {
+            String toConvert = formatter.getStringToConvert(value, instructions);
+            expected = String.valueOf(new BigDecimal("".equals(toConvert) ? "0" : toConvert));
+          } catch (NumberFormatException e) {
+            expected = e.getClass().getName();
+          }
+          String actual;
+          try {
+            actual = String.valueOf(formatter.asObject(value, instructions));
+          } catch (NumberFormatException e) {
+            actual = e.getClass().getName();
+          }
+          assertEquals(value + " " + decimals + " " + useDecimalDelimiter, expected, actual);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.format.codec.CodecStrategy;
+import com.ancientprogramming.fixedformat4j.format.codec.RecordCodec;
+
+import javax.tools.ToolProvider;
+
+/**
+ * Runs the {@link TestFixedFormatManagerImpl} tests through codecs generated at runtime.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestCodecGenerator extends TestFixedFormatManagerImpl {
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    manager = new FixedFormatManagerImpl(CodecStrategy.GENERATED);
+  }
+
+  public void testCodecIsGenerated() {
+    FixedFormatManagerImpl generated = (FixedFormatManagerImpl) manager;
+    if (ToolProvider.getSystemJavaCompiler() == null) {
+      //running on a JRE the records are handled through reflection
+      assertNull(generated.getRecordCodec(MyRecord.class));
+      return;
+    }
+    RecordCodec<MyRecord> codec = generated.getRecordCodec(MyRecord.class);
+    assertNotNull(codec);
+    assertEquals(MyRecord.class, codec.getRecordClass());
+    assertNotNull(generated.getRecordCodec(MultibleFieldsRecord.class));
+    assertNotNull(generated.getRecordCodec(MyRecord.MyStaticNestedClass.class));
+  }
+
+  public void testUnsupportedRecordsUseReflection() {
+    FixedFormatManagerImpl generated = (FixedFormatManagerImpl) manager;
+    assertNull(generated.getRecordCodec(MyRecord.MyInnerClass.class));
+    assertNull(generated.getRecordCodec(MyOtherRecord.class));
+  }
+
+  public void testCodecClassIsShared() {
+    if (ToolProvider.getSystemJavaCompiler() == null) {
+      return;
+    }
+    RecordCodec<MyRecord> codec = ((FixedFormatManagerImpl) manager).getRecordCodec(MyRecord.class);
+    RecordCodec<MyRecord> other = new FixedFormatManagerImpl(CodecStrategy.GENERATED).getRecordCodec(MyRecord.class);
+    assertNotSame(codec, other);
+    assertSame(codec.getClass(), other.getClass());
+  }
+
+  public void testReflectionStrategy() {
+    assertNull(new FixedFormatManagerImpl(CodecStrategy.REFLECTION).getRecordCodec(MyRecord.class));
+  }
+}
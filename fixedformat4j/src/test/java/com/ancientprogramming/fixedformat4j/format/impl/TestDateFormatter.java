@@ -22,6 +22,7 @@ import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.text.DateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -44,6 +45,41 @@ public class TestDateFormatter extends TestCase {
     Assert.assertEquals("  ", formatter.format(null, new FormatInstructions(2, Align.LEFT, ' ', new FixedFormatPatternData("yy"), null, null, null)));
   }
 
+  public void testFormatterIsReusedPerThread() throws Exception {
+    DateFormatter dateFormatter = new DateFormatter();
+    DateFormat first = dateFormatter.getFormatter("ddMMyyyy");
+    assertSame(first, new DateFormatter().getFormatter("ddMMyyyy"));
+    assertNotSame(first, dateFormatter.getFormatter("yyyyMMdd"));
+
+    DateFormat[] other = new DateFormat[1];
+    Thread thread = new Thread(() -> other[0] = dateFormatter.getFormatter("ddMMyyyy"));
+    thread.start();
+    thread.join();
+    assertNotSame(first, other[0]);
+  }
+
+  public void testFormattersAreLimited() {
+    DateFormatter dateFormatter = new DateFormatter();
+    DateFormat first = dateFormatter.getFormatter("'first'yyyy");
+    for (int i = 0; i < DateFormatter.MAX_PATTERNS; i++) {
+      assertSame(first, dateFormatter.getFormatter("'first'yyyy"));
+      dateFormatter.getFormatter("'" + i + "'yyyy");
+    }
+    assertSame(first, dateFormatter.getFormatter("'first'yyyy"));
+    for (int i = 0; i < DateFormatter.MAX_PATTERNS; i++) {
+      dateFormatter.getFormatter("'other" + i + "'yyyy");
+    }
+    assertNotSame(first, dateFormatter.getFormatter("'first'yyyy"));
+  }
+
+  public void testParsedZoneDoesNotChangeLaterFormats() {
+    Date date = getDate(2008, 3, 10);
+    FormatInstructions zoned = new FormatInstructions(12, Align.LEFT, ' ', new FixedFormatPatternData("ddMMyyyy z"), null, null, null);
+    String expected = formatter.format(date, zoned);
+    formatter.parse("10032008 PST".equals(expected) ? "10032008 EST" : "10032008 PST", zoned);
+    assertEquals(expected, formatter.format(date, zoned));
+  }
+
   public Date getDate(int year, int month, int day) {
     Calendar cal = Calendar.getInstance();
     cal.set(Calendar.YEAR, year);
@@ -22,6 +22,7 @@ import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
 import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
 import junit.framework.TestCase;
 
+import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_NEGATIVE_SIGN;
@@ -79,4 +80,39 @@ public class TestDoubleFormatter extends TestCase {
   public void testFormatDoubleWith5DecimalsTo4Decimals() {
     assertEquals("+001005556", formatter.format(new Double(100.55555), new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(4, false, '.', RoundingMode.HALF_UP))));
   }
+
+  public void testFormatLikeRoundedDouble() {
+    double[] values = {0.0, -0.0, 0.005, -0.015, 1.0E10, 1.5E-7, 123456.789, -98765.4321, 1.0E17, 1.0E25, Double.MAX_VALUE, Double.MIN_VALUE};
+    for (double value : values) {
+      for (RoundingMode roundingMode : new RoundingMode[]{RoundingMode.HALF_UP, RoundingMode.HALF_EVEN, RoundingMode.FLOOR, RoundingMode.CEILING}) {
+        FormatInstructions instructions = new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, true, '.', roundingMode));
+        assertEquals(value + " " + roundingMode, BigDecimal.valueOf(value).setScale(2, roundingMode).toPlainString(), formatter.asString(value, instructions));
+      }
+    }
+  }
+
+  public void testParseLikeConvertedString() {
+    String[] values = {"0", "000", "12345", "-12345", "+12345", "12", "-12", "1", "-", "", "1.5", "12.", ".5", "-.5", "1,2,3", "123,456", "-0,00", "12a", "1234567890123456789", "0000000000000000000001", "9007199254740993"};
+    for (String value : values) {
+      for (int decimals = 0; decimals <= 3; decimals++) {
+        for (boolean useDecimalDelimiter : new boolean[]{false, true}) {
+          FormatInstructions instructions = new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(decimals, useDecimalDelimiter, ',', RoundingMode.UNNECESSARY));
+          String expected;
+          try {
+            String toConvert = formatter.getStringToConvert(value, instructions);
+            expected = String.valueOf(Double.parseDouble("".equals(toConvert) ? "0" : toConvert));
+          } catch (NumberFormatException e) {
+            expected = e.getClass().getName();
+          }
+          String actual;
+          try {
+            actual = String.valueOf(formatter.asObject(value, instructions));
+          } catch (NumberFormatException e) {
+            actual = e.getClass().getName();
+          }
+          assertEquals(value + " " + decimals + " " + useDecimalDelimiter, expected, actual);
+        }
+      }
+    }
+  }
 }
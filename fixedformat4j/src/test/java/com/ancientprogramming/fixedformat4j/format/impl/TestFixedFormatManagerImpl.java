@@ -15,16 +15,28 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
 import com.ancientprogramming.fixedformat4j.format.ParseException;
+import com.ancientprogramming.fixedformat4j.format.Projection;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * @author Jacob von Eyben - http://www.ancientprogramming.com
@@ -55,6 +67,38 @@ public class TestFixedFormatManagerImpl extends TestCase {
     Assert.assertTrue(loadedRecord.isBooleanData());
   }
 
+  public void testLoadRange() {
+    StringBuilder chunk = new StringBuilder("header\n").append(MY_RECORD_DATA).append("\ntrailer");
+    int start = chunk.indexOf("\n") + 1;
+    int end = start + MY_RECORD_DATA.length();
+    MyRecord loadedRecord = manager.load(MyRecord.class, chunk, start, end);
+    Assert.assertEquals(STR, loadedRecord.getStringData());
+    Assert.assertEquals(MY_RECORD_DATA, manager.export(loadedRecord));
+
+    loadedRecord = manager.load(MyRecord.class, chunk.toString().toCharArray(), start, end);
+    Assert.assertEquals(MY_RECORD_DATA, manager.export(loadedRecord));
+  }
+
+  public void testLoadProjection() {
+    Projection<MyRecord> projection = Projection.of(MyRecord.class, "getStringData", "isBooleanData");
+    MyRecord loadedRecord = manager.load(MyRecord.class, MY_RECORD_DATA, projection);
+    Assert.assertEquals(STR, loadedRecord.getStringData());
+    Assert.assertTrue(loadedRecord.isBooleanData());
+    Assert.assertNull(loadedRecord.getIntegerData());
+    Assert.assertNull(loadedRecord.getBigDecimalData());
+
+    loadedRecord = manager.load(MyRecord.class, "foobarfoob00123", Projection.ofOffsets(MyRecord.class, 11));
+    Assert.assertEquals(Integer.valueOf(123), loadedRecord.getIntegerData());
+    Assert.assertNull(loadedRecord.getStringData());
+
+    try {
+      manager.load(MyRecord.class, MY_RECORD_DATA, Projection.of(MyRecord.class, "getUnknown"));
+      fail("expected an unknown getter to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
   public void testLoadMultibleFieldsRecord() {
     //when reading data having multible field annotations the first field will decide what data to return
     Calendar someDay = Calendar.getInstance();
@@ -80,6 +124,21 @@ public class TestFixedFormatManagerImpl extends TestCase {
     Assert.assertEquals("wrong record exported", "", manager.export(myOtherRecord));
   }
 
+  public void testLoadAndExportBytes() {
+    for (String charsetName : new String[]{"ISO-8859-1", "Cp1047"}) {
+      SingleByteCharset charset = SingleByteCharset.forName(charsetName);
+      byte[] bytes = ("xx" + MY_RECORD_DATA).getBytes(Charset.forName(charsetName));
+      MyRecord loadedRecord = manager.load(MyRecord.class, ByteBuffer.wrap(bytes), 2, MY_RECORD_DATA.length(), charset);
+      Assert.assertEquals(STR, loadedRecord.getStringData());
+      Assert.assertEquals(Integer.valueOf(123), loadedRecord.getIntegerData());
+      Assert.assertEquals("wrong record loaded from " + charsetName, MY_RECORD_DATA, manager.export(loadedRecord));
+
+      ByteBuffer target = ByteBuffer.allocate(MY_RECORD_DATA.length());
+      manager.export(createMyRecord(), target, charset);
+      Assert.assertEquals(ByteBuffer.wrap(bytes, 2, MY_RECORD_DATA.length()), target.flip());
+    }
+  }
+
   private MyRecord createMyRecord() {
     Calendar someDay = Calendar.getInstance();
     someDay.set(2008, 4, 14, 0, 0, 0);
@@ -125,6 +184,46 @@ public class TestFixedFormatManagerImpl extends TestCase {
     Assert.assertEquals("wrong record exported", MULTIBLE_RECORD_DATA_X_PADDED, exportedString);
   }
 
+  public void testExportIntoAppendable() throws Exception {
+    StringBuilder builder = new StringBuilder("header;");
+    manager.export("", createMyRecord(), builder);
+    Assert.assertEquals("wrong record exported", "header;" + MY_RECORD_DATA, builder.toString());
+
+    StringWriter writer = new StringWriter();
+    manager.export("", createMyRecord(), writer);
+    Assert.assertEquals("wrong record exported", MY_RECORD_DATA, writer.toString());
+
+    CharBuffer buffer = CharBuffer.allocate(MY_RECORD_DATA.length());
+    manager.export("", createMyRecord(), buffer);
+    buffer.flip();
+    Assert.assertEquals("wrong record exported", MY_RECORD_DATA, buffer.toString());
+  }
+
+  public void testExportIntoReusedBuffer() {
+    ConstantsRecord constants = new ConstantsRecord();
+    constants.setName("abc");
+    ExportBuffer buffer = new ExportBuffer(16);
+    manager.export(createMyRecord(), buffer);
+    buffer.append("\n");
+    manager.export(constants, buffer);
+    Assert.assertEquals("wrong records exported", MY_RECORD_DATA + "\n01abc  007******____", buffer.toString());
+
+    buffer.clear();
+    manager.export(constants, buffer);
+    Assert.assertEquals("wrong record exported", "01abc  007******____", buffer.toString());
+  }
+
+  public void testExportConstants() {
+    ConstantsRecord record = new ConstantsRecord();
+    record.setName("abc");
+    Assert.assertEquals("wrong record exported", "01abc  007******____", manager.export(record));
+    Assert.assertEquals("wrong record exported", "01abc  007******____", manager.export(record));
+    Assert.assertEquals("wrong record exported", "01abc  007******xxxxxx", manager.export("xxxxxxxxxxxxxxxxxxxxxx", record));
+
+    ConstantsRecord loaded = manager.load(ConstantsRecord.class, "01xyz  007******____");
+    Assert.assertEquals("xyz", loaded.getName());
+  }
+
   public void testLoadNonRecordAnnotatedClass() {
     try {
       manager.load(String.class, "some");
@@ -191,4 +290,80 @@ public class TestFixedFormatManagerImpl extends TestCase {
       //expected
     }
   }
+
+  public void testLoadSetsFieldsInOffsetOrder() {
+    OrderedRecord record = manager.load(OrderedRecord.class, "abc");
+    Assert.assertEquals(Arrays.asList("a", "b", "c"), record.getSetterCalls());
+  }
+
+  public void testLoadShortRecordWithNestedRecord() {
+    OuterRecord record = manager.load(OuterRecord.class, "abc");
+    Assert.assertEquals("abc", record.getValue());
+    Assert.assertNull(record.getNested());
+
+    record = manager.load(OuterRecord.class, "abcxyz");
+    Assert.assertEquals("xyz", record.getNested().getStringData());
+  }
+
+  @Record
+  public static class OuterRecord {
+
+    private String value;
+    private MyRecord.MyStaticNestedClass nested;
+
+    @Field(offset = 1, length = 3)
+    public String getValue() {
+      return value;
+    }
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+
+    @Field(offset = 4, length = 10)
+    public MyRecord.MyStaticNestedClass getNested() {
+      return nested;
+    }
+
+    public void setNested(MyRecord.MyStaticNestedClass nested) {
+      this.nested = nested;
+    }
+  }
+
+  @Record
+  public static class OrderedRecord {
+
+    private List<String> setterCalls = new ArrayList<String>();
+
+    @Field(offset = 3, length = 1)
+    public String getC() {
+      return null;
+    }
+
+    public void setC(String c) {
+      setterCalls.add(c);
+    }
+
+    @Field(offset = 1, length = 1)
+    public String getA() {
+      return null;
+    }
+
+    public void setA(String a) {
+      setterCalls.add(a);
+    }
+
+    @Field(offset = 2, length = 1)
+    public String getB() {
+      return null;
+    }
+
+    public void setB(String b) {
+      setterCalls.add(b);
+    }
+
+    public List<String> getSetterCalls() {
+      return setterCalls;
+    }
+  }
 }
@@ -54,4 +54,22 @@ public class TestIntegerFormatter extends TestCase {
     assertEquals("+000000000", formatter.format(0, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
     assertEquals("+000000000", formatter.format(null, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
   }
+
+  public void testSubclassOverridesAreUsed() {
+    IntegerFormatter doubling = new IntegerFormatter() {
+      public Integer asObject(String string, FormatInstructions instructions) {
+        return super.asObject(string, instructions) * 2;
+      }
+
+      public String asString(Integer obj, FormatInstructions instructions) {
+        return super.asString(obj * 2, instructions);
+      }
+    };
+    FormatInstructions instructions = new FormatInstructions(10, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null);
+    assertEquals(Integer.valueOf(200), doubling.parse("0000000100", instructions));
+    assertEquals(Integer.valueOf(200), doubling.parse("<0000000100>", 1, 11, instructions));
+    char[] target = new char[10];
+    doubling.format(100, instructions, target, 0);
+    assertEquals("0000000200", new String(target));
+  }
 }
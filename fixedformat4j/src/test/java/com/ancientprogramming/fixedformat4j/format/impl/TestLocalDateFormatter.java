@@ -23,8 +23,10 @@ import junit.framework.Assert;
 import junit.framework.TestCase;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Locale;
 
 /**
  * @author Harry Moreau http://www.sator.ie
@@ -45,6 +47,35 @@ public class TestLocalDateFormatter extends TestCase {
     Assert.assertEquals("  ", formatter.format(null, new FormatInstructions(2, Align.LEFT, ' ', new FixedFormatPatternData("yy"), null, null, null)));
   }
 
+  public void testFormatterIsShared() {
+    LocalDateFormatter localDateFormatter = new LocalDateFormatter();
+    assertSame(localDateFormatter.getFormatter("ddMMyyyy"), new LocalDateFormatter().getFormatter("ddMMyyyy"));
+    assertNotSame(localDateFormatter.getFormatter("ddMMyyyy"), localDateFormatter.getFormatter("yyyyMMdd"));
+  }
+
+  public void testFormatterIsSharedPerLocale() {
+    LocalDateFormatter formatter = new LocalDateFormatter();
+    DateTimeFormatter first = formatter.getFormatter("ddMMMyyyy");
+    Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    Locale other = Locale.GERMANY.equals(locale) ? Locale.FRANCE : Locale.GERMANY;
+    try {
+      Locale.setDefault(Locale.Category.FORMAT, other);
+      assertEquals(other, formatter.getFormatter("ddMMMyyyy").getLocale());
+    } finally {
+      Locale.setDefault(Locale.Category.FORMAT, locale);
+    }
+    assertSame(first, formatter.getFormatter("ddMMMyyyy"));
+  }
+
+  public void testFormattersAreLimited() {
+    LocalDateFormatter formatter = new LocalDateFormatter();
+    DateTimeFormatter first = formatter.getFormatter("'first'yyyy");
+    for (int i = 0; i < LocalDateFormatter.MAX_PATTERNS; i++) {
+      formatter.getFormatter("'" + i + "'yyyy");
+    }
+    assertNotSame(first, formatter.getFormatter("'first'yyyy"));
+  }
+
   public LocalDate getDate(int year, int month, int day) {
     return LocalDate.of(year, month, day);
   }
@@ -53,4 +53,51 @@ public class TestLongFormatter extends TestCase {
     assertEquals("+000000000", formatter.format(0L, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
     assertEquals("+000000000", formatter.format(null, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
   }
+
+  public void testParseRangeLikeSignAndAlign() {
+    String[] values = {"0000000100", "-000001234", "+000001234", "000001234-", "   -12   ", "  +-12", "0", "", "-", "+", "00000000000000000000000000000123", "12a", " 1 2", "x0000012", "9223372036854775807", "99999999999999999999"};
+    LongFormatter longFormatter = new LongFormatter();
+    for (Sign sign : Sign.values()) {
+      for (Align align : Align.values()) {
+        for (char paddingChar : new char[]{'0', ' '}) {
+          FormatInstructions instructions = new FormatInstructions(10, align, paddingChar, null, null, new FixedFormatNumberData(sign, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+          for (String value : values) {
+            String expected;
+            try {
+              expected = String.valueOf(Long.parseLong(sign.remove(value, instructions)));
+            } catch (RuntimeException e) {
+              expected = e.getClass().getName();
+            }
+            String actual;
+            try {
+              actual = String.valueOf(longFormatter.parse("<" + value + ">", 1, value.length() + 1, instructions));
+            } catch (RuntimeException e) {
+              actual = e.getClass().getName();
+            }
+            assertEquals(sign + " " + align + " '" + paddingChar + "' " + value, expected, actual);
+          }
+        }
+      }
+    }
+  }
+
+  public void testFormatIntoCharsLikeSignAndAlign() {
+    Long[] values = {null, 0L, 1L, -1L, 100L, -1234L, 123456789L, -123456789L, 1234567890L, -1234567890L, 98765432101L, Long.MAX_VALUE, Long.MIN_VALUE};
+    LongFormatter longFormatter = new LongFormatter();
+    for (Sign sign : Sign.values()) {
+      for (Align align : Align.values()) {
+        for (char paddingChar : new char[]{'0', ' '}) {
+          for (int length : new int[]{1, 2, 5, 10, 21}) {
+            FormatInstructions instructions = new FormatInstructions(length, align, paddingChar, null, null, new FixedFormatNumberData(sign, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+            for (Long value : values) {
+              char[] target = "<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<".toCharArray();
+              longFormatter.format(value, instructions, target, 2);
+              String expected = "<<" + longFormatter.format(value, instructions) + new String(target, length + 2, target.length - length - 2);
+              assertEquals(sign + " " + align + " '" + paddingChar + "' " + length + " " + value, expected, new String(target));
+            }
+          }
+        }
+      }
+    }
+  }
 }
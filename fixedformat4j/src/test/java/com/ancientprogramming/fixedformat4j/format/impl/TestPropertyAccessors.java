@@ -0,0 +1,55 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import junit.framework.TestCase;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestPropertyAccessors extends TestCase {
+
+  public void testPublicClass() throws Exception {
+    MyRecord record = new MyRecord();
+    BiConsumer<Object, Object> setter = PropertyAccessors.setter(MyRecord.class.getMethod("setStringData", String.class));
+    Function<Object, Object> getter = PropertyAccessors.getter(MyRecord.class.getMethod("getStringData"));
+    setter.accept(record, "foo");
+    assertEquals("foo", record.getStringData());
+    assertEquals("foo", getter.apply(record));
+  }
+
+  public void testPrimitiveProperty() throws Exception {
+    MyRecord record = new MyRecord();
+    BiConsumer<Object, Object> setter = PropertyAccessors.setter(MyRecord.class.getMethod("setSimpleFloatData", float.class));
+    Function<Object, Object> getter = PropertyAccessors.getter(MyRecord.class.getMethod("getSimpleFloatData"));
+    setter.accept(record, 20.56F);
+    assertEquals(20.56F, record.getSimpleFloatData());
+    assertEquals(20.56F, getter.apply(record));
+  }
+
+  public void testPackagePrivateClass() throws Exception {
+    MyRecord.MyStaticNestedClass record = new MyRecord.MyStaticNestedClass();
+    BiConsumer<Object, Object> setter = PropertyAccessors.setter(MyRecord.MyStaticNestedClass.class.getMethod("setStringData", String.class));
+    Function<Object, Object> getter = PropertyAccessors.getter(MyRecord.MyStaticNestedClass.class.getMethod("getStringData"));
+    setter.accept(record, "bar");
+    assertEquals("bar", record.getStringData());
+    assertEquals("bar", getter.apply(record));
+  }
+}
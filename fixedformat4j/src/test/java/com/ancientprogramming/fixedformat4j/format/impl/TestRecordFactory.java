@@ -0,0 +1,120 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.RecordFactory;
+import com.ancientprogramming.fixedformat4j.format.codec.CodecStrategy;
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestRecordFactory extends TestCase {
+
+  private FixedFormatManagerImpl manager = new FixedFormatManagerImpl();
+
+  public void testFactoryIsResolvedOnce() {
+    RecordLayout<MyRecord.MyInnerClass> layout = manager.getRecordLayout(MyRecord.MyInnerClass.class);
+    RecordFactory<MyRecord.MyInnerClass> factory = layout.getRecordFactory();
+    assertSame(factory, manager.getRecordLayout(MyRecord.MyInnerClass.class).getRecordFactory());
+    assertNotNull(factory.newInstance());
+  }
+
+  public void testInnerClassGetsNewEnclosingInstancePerRecord() {
+    InnerRecord first = manager.load(InnerRecord.class, "abc");
+    InnerRecord second = manager.load(InnerRecord.class, "abc");
+    assertEquals("abc", first.getValue());
+    assertNotSame(this, first.getOuter());
+    assertNotSame(first.getOuter(), second.getOuter());
+  }
+
+  public void testSharedEnclosingInstance() {
+    manager.registerEnclosingInstance(InnerRecord.class, this);
+    InnerRecord first = manager.load(InnerRecord.class, "abc");
+    InnerRecord second = manager.load(InnerRecord.class, "def");
+    assertSame(this, first.getOuter());
+    assertSame(this, second.getOuter());
+    assertEquals("def", second.getValue());
+  }
+
+  public void testEnclosingInstanceOfWrongClass() {
+    try {
+      manager.registerEnclosingInstance(InnerRecord.class, "not the declaring class");
+      fail(String.format("expected an %s exception to be thrown", FixedFormatException.class.getName()));
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    try {
+      manager.registerEnclosingInstance(MyRecord.class, this);
+      fail(String.format("expected an %s exception to be thrown", FixedFormatException.class.getName()));
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testRegisteredFactory() {
+    final int[] created = new int[1];
+    RecordFactory<MyRecord> factory = new RecordFactory<MyRecord>() {
+      public MyRecord newInstance() {
+        created[0]++;
+        return new MyRecord();
+      }
+    };
+    manager.registerRecordFactory(MyRecord.class, factory);
+    MyRecord record = manager.load(MyRecord.class, TestFixedFormatManagerImpl.MY_RECORD_DATA);
+    assertEquals("some text ", record.getStringData());
+    assertEquals(1, created[0]);
+
+    FixedFormatManagerImpl generated = new FixedFormatManagerImpl(CodecStrategy.GENERATED);
+    generated.registerRecordFactory(MyRecord.class, factory);
+    record = generated.load(MyRecord.class, TestFixedFormatManagerImpl.MY_RECORD_DATA);
+    assertEquals("some text ", record.getStringData());
+    assertEquals(2, created[0]);
+  }
+
+  public void testMissingConstructorIsReportedOnLoad() {
+    RecordFactory<NoDefaultConstructorClass.MyInnerClass> factory = manager.getRecordLayout(NoDefaultConstructorClass.MyInnerClass.class).getRecordFactory();
+    try {
+      factory.newInstance();
+      fail(String.format("expected an %s exception to be thrown", FixedFormatException.class.getName()));
+    } catch (FixedFormatException e) {
+      assertTrue(e.getMessage().contains(NoDefaultConstructorClass.class.getName()));
+    }
+  }
+
+  @Record
+  public class InnerRecord {
+
+    private String value;
+
+    @Field(offset = 1, length = 3)
+    public String getValue() {
+      return value;
+    }
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+
+    public TestRecordFactory getOuter() {
+      return TestRecordFactory.this;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FieldCondition;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.RecordFilter;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.TestFixedFormatManagerImpl.MY_RECORD_DATA;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestRecordFilter extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+
+  public void testRawConditions() {
+    RecordFilter<MyRecord> filter = manager.filter(MyRecord.class);
+    assertTrue(filter.matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getIntegerData", FieldCondition.equalTo(123)).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("getIntegerData", FieldCondition.equalTo(124)).matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getIntegerData", FieldCondition.in(1, 2, 3, 4, 5, 123)).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("getIntegerData", FieldCondition.in(1, 2, 3, 4, 5, 6)).matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getStringData", FieldCondition.startsWith("some")).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("getStringData", FieldCondition.startsWith("text")).matches(MY_RECORD_DATA));
+  }
+
+  public void testValueLongerThanFieldNeverMatches() {
+    assertEquals(Integer.valueOf(123), manager.load(MyRecord.class, MY_RECORD_DATA).getIntegerData());
+    RecordFilter<MyRecord> filter = manager.filter(MyRecord.class);
+    assertFalse(filter.where("getIntegerData", FieldCondition.equalTo(99900123)).matches(MY_RECORD_DATA));
+    assertTrue(filter.where("getIntegerData", FieldCondition.in(99900123, 123)).matches(MY_RECORD_DATA));
+    assertFalse(filter.where("getStringData", FieldCondition.equalTo("xsome text ")).matches(MY_RECORD_DATA));
+  }
+
+  public void testRange() {
+    RecordFilter<MyRecord> filter = manager.filter(MyRecord.class).where("getIntegerData", FieldCondition.between(100, 200));
+    assertTrue(filter.matches(MY_RECORD_DATA));
+    assertFalse(filter.where("isBooleanData", FieldCondition.equalTo(false)).matches(MY_RECORD_DATA));
+    assertFalse(manager.filter(MyRecord.class).where("getIntegerData", FieldCondition.between(124, null)).matches(MY_RECORD_DATA));
+    assertFalse(filter.matches("short"));
+  }
+
+  public void testBytes() {
+    byte[] bytes = ("xx" + MY_RECORD_DATA).getBytes(Charset.forName("Cp1047"));
+    RecordFilter<MyRecord> filter = manager.filter(MyRecord.class)
+        .where("getIntegerData", FieldCondition.equalTo(123))
+        .where("getStringData", FieldCondition.startsWith("some"));
+    assertTrue(filter.matches(ByteBuffer.wrap(bytes), 2, MY_RECORD_DATA.length(), SingleByteCharset.forName("Cp1047")));
+  }
+
+  public void testUnknownGetter() {
+    try {
+      manager.filter(MyRecord.class).where("getUnknown", FieldCondition.equalTo("x"));
+      fail("expected an unknown getter to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testValueOfWrongType() {
+    try {
+      manager.filter(MyRecord.class).where("getIntegerData", FieldCondition.equalTo("123"));
+      fail("expected a string value on an integer field to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    try {
+      manager.filter(MyRecord.class).where("getIntegerData", FieldCondition.between("a", "b"));
+      fail("expected string bounds on an integer field to fail");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    assertTrue(manager.filter(MyRecord.class).where("isBooleanData", FieldCondition.equalTo(true)).matches(MY_RECORD_DATA));
+    //primitive fields take the wrapper values
+    manager.filter(MyRecord.class).where("getSimpleFloatData", FieldCondition.between(0f, 1f));
+  }
+}
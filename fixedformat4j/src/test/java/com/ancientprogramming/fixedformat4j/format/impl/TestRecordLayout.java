@@ -0,0 +1,70 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestRecordLayout extends TestCase {
+
+  public void testFieldsAreSortedByOffset() {
+    RecordLayout<MyRecord> layout = RecordLayout.create(MyRecord.class);
+    List<FieldLayout> fields = layout.getLoadFields();
+    assertEquals(10, fields.size());
+    for (int i = 1; i < fields.size(); i++) {
+      assertTrue(fields.get(i - 1).getOffset() < fields.get(i).getOffset());
+    }
+    assertEquals("StringData", fields.get(0).getPropertyName());
+    assertEquals("BooleanData", fields.get(4).getPropertyName());
+    assertNotNull(fields.get(0).getSetter());
+    assertNotNull(fields.get(0).getFormatter());
+  }
+
+  public void testMultibleFieldsOnlyLoadsFirstField() {
+    RecordLayout<MultibleFieldsRecord> layout = RecordLayout.create(MultibleFieldsRecord.class);
+    assertEquals(3, layout.getLoadFields().size());
+    assertEquals(4, layout.getExportFields().size());
+    assertEquals(11, layout.getLoadFields().get(1).getOffset());
+    assertEquals(19, layout.getExportFields().get(2).getOffset());
+  }
+
+  public void testExportOnlyRecordHasNoSetter() {
+    RecordLayout<MyOtherRecord> layout = RecordLayout.create(MyOtherRecord.class);
+    FieldLayout field = layout.getExportFields().get(0);
+    assertNull(field.getSetter());
+    assertTrue(field.isNestedRecord());
+  }
+
+  public void testLayoutIsCachedByManager() {
+    FixedFormatManagerImpl manager = new FixedFormatManagerImpl();
+    assertSame(manager.getRecordLayout(MyRecord.class), manager.getRecordLayout(MyRecord.class));
+  }
+
+  public void testNonRecordClass() {
+    try {
+      RecordLayout.create(String.class);
+      fail(String.format("expected an %s exception to be thrown", FixedFormatException.class.getName()));
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+}
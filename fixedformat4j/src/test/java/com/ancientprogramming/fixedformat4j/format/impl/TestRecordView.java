@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class TestRecordView extends TestCase {
+
+  private static final String DATA = "some text 00123abcCODE ";
+
+  private final FixedFormatManagerImpl manager = new FixedFormatManagerImpl();
+
+  public void testFieldsDecodedOnAccess() {
+    ViewRecord view = manager.view(ViewRecord.class, DATA);
+    assertEquals("some text", view.getText());
+    assertEquals(123, view.getNumber());
+    assertEquals("CODE", view.getCode().getValue());
+    try {
+      view.getBroken();
+      fail("expected the broken field to fail when read");
+    } catch (ParseException e) {
+      //expected
+    }
+  }
+
+  public void testViewBytes() {
+    byte[] bytes = ("xx" + DATA).getBytes(Charset.forName("Cp1047"));
+    ViewRecord view = manager.view(ViewRecord.class, ByteBuffer.wrap(bytes), 2, DATA.length(), SingleByteCharset.forName("Cp1047"));
+    assertEquals(123, view.getNumber());
+    assertEquals("CODE", view.getCode().getValue());
+    assertEquals("ViewRecord[" + DATA + "]", view.toString());
+  }
+
+  public void testShortRecord() {
+    ViewRecord view = manager.view(ViewRecord.class, new StringBuilder("xxsome text"), 2, 11);
+    assertEquals("some text", view.getText());
+    assertEquals(0, view.getNumber());
+    assertNull(view.getCode());
+  }
+
+  public void testClassCantBeViewed() {
+    try {
+      manager.view(MyRecord.class, TestFixedFormatManagerImpl.MY_RECORD_DATA);
+      fail("expected only interfaces to be viewed");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  @Record
+  public interface ViewRecord {
+
+    @Field(offset = 1, length = 10)
+    String getText();
+
+    @Field(offset = 11, length = 5, align = Align.RIGHT, paddingChar = '0')
+    int getNumber();
+
+    @Field(offset = 16, length = 3)
+    Integer getBroken();
+
+    @Field(offset = 19, length = 5)
+    CodeRecord getCode();
+  }
+
+  @Record
+  public interface CodeRecord {
+
+    @Field(offset = 1, length = 5)
+    String getValue();
+  }
+}
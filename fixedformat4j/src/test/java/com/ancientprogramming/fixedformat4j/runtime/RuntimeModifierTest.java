@@ -16,8 +16,10 @@ import com.ancientprogramming.fixedformat4j.annotation.Field;
 import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
 import com.ancientprogramming.fixedformat4j.annotation.Record;
 import com.ancientprogramming.fixedformat4j.configuration.FixedFormatFieldConfigurer;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
 import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.RecordLayout;
 
 import junit.framework.TestCase;
 
@@ -143,6 +145,53 @@ public class RuntimeModifierTest extends TestCase {
     }
   }
   
+  public void testFixedFormatFieldConfigurerAppliedToLayout() throws Exception {
+    FixedFormatManagerImpl overridden = new FixedFormatManagerImpl();
+    RecordLayout<BasicRecord> layout = overridden.getRecordLayout(BasicRecord.class);
+    RecordLayout<BasicRecord> changed = FixedFormatFieldConfigurer.forField("stringData")
+        .length(10)
+        .applyTo(layout);
+    changed = FixedFormatFieldConfigurer.forField("integerData")
+        .offset(1)
+        .applyTo(changed);
+    overridden.registerRecordLayout(changed);
+
+    BasicRecord record = overridden.load(BasicRecord.class, FRECORD);
+    assertEquals("1234567890", record.getStringData());
+    assertEquals(Integer.valueOf(12345), record.getIntegerData());
+    assertEquals(LocalDate.of(2019, 6, 17), record.getDateData());
+
+    BasicRecord original = ffm.load(BasicRecord.class, FRECORD);
+    assertEquals("12345678901234567890", original.getStringData());
+    assertEquals(Integer.valueOf(227), original.getIntegerData());
+    assertEquals(20, layout.getLoadFields().get(0).getLength());
+    assertEquals(20, BasicRecord.class.getMethod("getStringData").getAnnotation(Field.class).length());
+  }
+
+  public void testFixedFormatFieldConfigurerWithReusedManager() throws Exception {
+    assertEquals(Integer.valueOf(227), ffm.load(BasicRecord.class, FRECORD).getIntegerData());
+    FixedFormatFieldConfigurer ffc = FixedFormatFieldConfigurer.forField("integerData")
+        .inClass(BasicRecord.class)
+        .offset(1)
+        .apply();
+    try {
+      assertEquals(Integer.valueOf(12345), ffm.load(BasicRecord.class, FRECORD).getIntegerData());
+    } finally {
+      ffc.reset();
+    }
+    assertEquals(Integer.valueOf(227), ffm.load(BasicRecord.class, FRECORD).getIntegerData());
+  }
+
+  public void testFixedFormatFieldConfigurerUnknownField() {
+    RecordLayout<BasicRecord> layout = new FixedFormatManagerImpl().getRecordLayout(BasicRecord.class);
+    try {
+      FixedFormatFieldConfigurer.forField("unknown").length(10).applyTo(layout);
+      fail("expected an exception for an unknown field");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
   public void testFixedFormatFieldConfiguratorWithMap() {
     try {
       Map<String,String> pMap = new HashMap<>();
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.samples.benchmark;
+
+import com.ancientprogramming.fixedformat4j.format.impl.PropertyAccessors;
+import com.ancientprogramming.fixedformat4j.samples.basic.BasicRecord;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Compares calling the getters and setters of the {@link BasicRecord} sample through {@link Method#invoke}
+ * with calling them through the accessors bound by {@link PropertyAccessors}.
+ * <p/>
+ * Run the main method with an optional number of iterations. Each round is run a couple of times to let the JIT warm up.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class AccessorBenchmark {
+
+  private static final String[] PROPERTIES = {"StringData", "IntegerData", "DateData"};
+  private static final Class[] TYPES = {String.class, Integer.class, Date.class};
+  private static final Object[] VALUES = {"string", 123, new Date()};
+
+  public static void main(String[] args) throws Exception {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+
+    Method[] getters = new Method[PROPERTIES.length];
+    Method[] setters = new Method[PROPERTIES.length];
+    Function[] boundGetters = new Function[PROPERTIES.length];
+    BiConsumer[] boundSetters = new BiConsumer[PROPERTIES.length];
+    for (int i = 0; i < PROPERTIES.length; i++) {
+      getters[i] = BasicRecord.class.getMethod("get" + PROPERTIES[i]);
+      setters[i] = BasicRecord.class.getMethod("set" + PROPERTIES[i], TYPES[i]);
+      boundGetters[i] = PropertyAccessors.getter(getters[i]);
+      boundSetters[i] = PropertyAccessors.setter(setters[i]);
+    }
+
+    BasicRecord record = new BasicRecord();
+    for (int round = 1; round <= 5; round++) {
+      long reflection = reflection(record, getters, setters, iterations);
+      long bound = bound(record, boundGetters, boundSetters, iterations);
+      System.out.println(String.format("round %s: Method.invoke %sms, bound accessors %sms (%.1fx)", round, reflection / 1000000, bound / 1000000, (double) reflection / bound));
+    }
+  }
+
+  private static long reflection(BasicRecord record, Method[] getters, Method[] setters, int iterations) throws Exception {
+    long start = System.nanoTime();
+    int hash = 0;
+    for (int n = 0; n < iterations; n++) {
+      for (int i = 0; i < getters.length; i++) {
+        setters[i].invoke(record, VALUES[i]);
+        hash += getters[i].invoke(record).hashCode();
+      }
+    }
+    long time = System.nanoTime() - start;
+    blackhole(hash);
+    return time;
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static long bound(BasicRecord record, Function[] getters, BiConsumer[] setters, int iterations) {
+    long start = System.nanoTime();
+    int hash = 0;
+    for (int n = 0; n < iterations; n++) {
+      for (int i = 0; i < getters.length; i++) {
+        setters[i].accept(record, VALUES[i]);
+        hash += getters[i].apply(record).hashCode();
+      }
+    }
+    long time = System.nanoTime() - start;
+    blackhole(hash);
+    return time;
+  }
+
+  private static void blackhole(int hash) {
+    if (hash == 42) {
+      System.out.println("");
+    }
+  }
+}
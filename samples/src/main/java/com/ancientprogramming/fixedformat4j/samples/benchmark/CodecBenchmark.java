@@ -0,0 +1,61 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.samples.benchmark;
+
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.codec.CodecStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.samples.basic.BasicRecord;
+
+/**
+ * Compares loading and exporting the {@link BasicRecord} sample through reflection with loading and exporting it
+ * through a codec generated at runtime.
+ * <p/>
+ * Run the main method with an optional number of iterations on a JDK. Each round is run a couple of times to let the JIT warm up.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.6.0
+ */
+public class CodecBenchmark {
+
+  private static final String DATA = "string    001232008-05-29";
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+    FixedFormatManager reflection = new FixedFormatManagerImpl(CodecStrategy.REFLECTION);
+    FixedFormatManager generated = new FixedFormatManagerImpl(CodecStrategy.GENERATED);
+    for (int round = 1; round <= 5; round++) {
+      long reflectionTime = run(reflection, iterations);
+      long generatedTime = run(generated, iterations);
+      System.out.println(String.format("round %s: reflection %sms, generated codec %sms (%.1fx)", round, reflectionTime / 1000000, generatedTime / 1000000, (double) reflectionTime / generatedTime));
+    }
+  }
+
+  private static long run(FixedFormatManager manager, int iterations) {
+    long start = System.nanoTime();
+    int length = 0;
+    for (int n = 0; n < iterations; n++) {
+      BasicRecord record = manager.load(BasicRecord.class, DATA);
+      length += manager.export(record).length();
+    }
+    long time = System.nanoTime() - start;
+    if (length == 42) {
+      System.out.println("");
+    }
+    return time;
+  }
+}